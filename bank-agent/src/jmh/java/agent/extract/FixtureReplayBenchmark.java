@@ -0,0 +1,45 @@
+package agent.extract;
+
+import agent.extract.FixtureReplay.Engine;
+import agent.extract.FixtureReplay.Fixture;
+import org.openjdk.jmh.annotations.*;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixtureReplayBenchmark {
+
+    @Param({"SberAgentCurrencyConfig", "SberAgentMetalConfig"})
+    public String source;
+
+    @Param({"JSOUP", "W3C_XPATH"})
+    public Engine engine;
+
+    @Param({"declared", "reversed"})
+    public String order;
+
+    private Fixture fixture;
+    private ExtractionPlan plan;
+
+    @Setup
+    public void setUp() {
+        fixture = FixtureReplay.discover().stream()
+                .filter(candidate -> candidate.source().equals(source))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No fixture for " + source));
+        ExtractionPlan declared = FixtureReplay.planFor(source);
+        plan = "reversed".equals(order) ? FixtureReplay.reversed(declared) : declared;
+    }
+
+    @Benchmark
+    public ExtractionResult extract() {
+        return engine.run(plan, fixture);
+    }
+}
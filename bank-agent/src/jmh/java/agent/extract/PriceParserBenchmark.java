@@ -0,0 +1,41 @@
+package agent.extract;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.PriceParser.ParsedPrice;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceParserBenchmark {
+
+    private final PriceParser parser = new PriceParser();
+
+    @Param({"78,50 ₽", "8 120,00 ₽", "1 234 567,8912"})
+    public String text;
+
+    @Benchmark
+    public void regexReplace(Blackhole blackhole) {
+        String clean = text.replaceAll("[^\\d,\\.]", "").replace(',', '.');
+        blackhole.consume(new BigDecimal(clean));
+    }
+
+    @Benchmark
+    public void parseUnscaled(Blackhole blackhole) {
+        ParsedPrice parsed = parser.parse(text);
+        blackhole.consume(parsed.unscaled());
+        blackhole.consume(parsed.scale());
+    }
+
+    @Benchmark
+    public BigDecimal parseToBigDecimal() {
+        return parser.parse(text).toBigDecimal();
+    }
+}
@@ -1,12 +1,38 @@
 package prices.agent;
 
 import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.TypePrice;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public interface Agent {
 
     Map<String, Price> getPrices();
 
+    default Map<String, Price> getPrices(ScrapeContext context) {
+        Map<String, Price> prices = getPrices();
+        context.collectAll(prices);
+        return prices;
+    }
+
+    default List<List<String>> getBatches() {
+        return List.of(List.of());
+    }
+
+    default boolean isScheduled() {
+        return true;
+    }
+
     String getName();
-}
\ No newline at end of file
+
+    Banks getBank();
+
+    TypePrice getTypePrice();
+
+    default String getKey() {
+        return getBank().name().toLowerCase(Locale.ROOT) + "-" + getTypePrice().getValue();
+    }
+}
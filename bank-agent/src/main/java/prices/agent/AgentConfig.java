@@ -1,5 +1,11 @@
 package prices.agent;
 
+import prices.agent.driver.BrowserEngine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
 public interface AgentConfig {
 
     String getUrl();
@@ -9,4 +15,36 @@ public interface AgentConfig {
     String getIndexBuy();
 
     String getIndexSell();
-}
\ No newline at end of file
+
+    default List<String> getAlternativeWebElements() {
+        return List.of();
+    }
+
+    default Optional<String> getRatesContainer() {
+        return Optional.empty();
+    }
+
+    default Duration getReadyTimeout() {
+        return Duration.ofSeconds(10);
+    }
+
+    default BrowserEngine getBrowserEngine() {
+        return BrowserEngine.CHROME;
+    }
+
+    default BrowserEngine resolveEngine(String override) {
+        return override == null || override.isBlank() ? getBrowserEngine() : BrowserEngine.fromName(override);
+    }
+
+    default String resolveUrl(String baseUrl) {
+        String url = getUrl();
+        if (baseUrl == null || baseUrl.isBlank()) {
+            return url;
+        }
+        int hostStart = url.indexOf("://");
+        int pathStart = hostStart < 0 ? -1 : url.indexOf('/', hostStart + 3);
+        String path = pathStart < 0 ? "/" : url.substring(pathStart);
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        return base + path;
+    }
+}
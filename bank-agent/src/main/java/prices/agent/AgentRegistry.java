@@ -0,0 +1,51 @@
+package prices.agent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+@Component
+public final class AgentRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(AgentRegistry.class);
+
+    private final Map<String, Agent> agents;
+    private final Map<String, AgentSettings> settings;
+
+    public AgentRegistry(List<Agent> agents, Environment environment) {
+        Objects.requireNonNull(agents, "Agents cannot be null");
+        Objects.requireNonNull(environment, "Environment cannot be null");
+        Map<String, Agent> byKey = new LinkedHashMap<>(agents.size());
+        Map<String, AgentSettings> settingsByKey = new LinkedHashMap<>(agents.size());
+        for (Agent agent : agents) {
+            Agent existing = byKey.putIfAbsent(agent.getKey(), agent);
+            if (existing != null) {
+                throw new IllegalStateException("Duplicate agent key '" + agent.getKey() + "': "
+                        + existing.getName() + ", " + agent.getName());
+            }
+            settingsByKey.put(agent.getKey(), AgentSettings.resolve(environment, agent.getKey()));
+        }
+        this.agents = Collections.unmodifiableMap(byKey);
+        this.settings = Collections.unmodifiableMap(settingsByKey);
+        log.info("Registered agents: {}", this.agents.keySet());
+    }
+
+    public Collection<Agent> getAgents() {
+        return agents.values();
+    }
+
+    public Optional<Agent> find(String key) {
+        return Optional.ofNullable(agents.get(key));
+    }
+
+    public AgentSettings getSettings(String key) {
+        AgentSettings agentSettings = settings.get(key);
+        if (agentSettings == null) {
+            throw new IllegalArgumentException("Unknown agent: " + key);
+        }
+        return agentSettings;
+    }
+}
@@ -0,0 +1,72 @@
+package prices.agent;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+public record AgentSettings(boolean enabled, Duration initialDelay, Duration interval, Duration jitter,
+                            Duration timeout, Duration instrumentBudget, int concurrency,
+                            int failureThreshold, Duration openDuration, PollingSettings polling) {
+
+    private static final String PREFIX = "agent.schedule.";
+    private static final String DEFAULTS = "defaults";
+
+    public AgentSettings {
+        Objects.requireNonNull(initialDelay, "Initial delay cannot be null");
+        Objects.requireNonNull(interval, "Interval cannot be null");
+        Objects.requireNonNull(jitter, "Jitter cannot be null");
+        Objects.requireNonNull(timeout, "Timeout cannot be null");
+        Objects.requireNonNull(instrumentBudget, "Instrument budget cannot be null");
+        Objects.requireNonNull(openDuration, "Open duration cannot be null");
+        Objects.requireNonNull(polling, "Polling settings cannot be null");
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        if (initialDelay.isNegative() || jitter.isNegative()) {
+            throw new IllegalArgumentException("Delays must be non-negative");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+    }
+
+    public static AgentSettings resolve(Environment environment, String agentKey) {
+        Objects.requireNonNull(environment, "Environment cannot be null");
+        Objects.requireNonNull(agentKey, "Agent key cannot be null");
+        Duration interval = property(environment, agentKey, "interval", Duration.class, Duration.ofMinutes(15));
+        return new AgentSettings(
+                property(environment, agentKey, "enabled", Boolean.class, true),
+                property(environment, agentKey, "initial-delay", Duration.class, Duration.ZERO),
+                interval,
+                property(environment, agentKey, "jitter", Duration.class, Duration.ZERO),
+                property(environment, agentKey, "timeout", Duration.class, Duration.ofMinutes(5)),
+                property(environment, agentKey, "instrument-budget", Duration.class, Duration.ofSeconds(20)),
+                property(environment, agentKey, "concurrency", Integer.class, 1),
+                property(environment, agentKey, "circuit.failure-threshold", Integer.class, 3),
+                property(environment, agentKey, "circuit.open-duration", Duration.class, Duration.ofMinutes(30)),
+                new PollingSettings(
+                        property(environment, agentKey, "adaptive.enabled", Boolean.class, false),
+                        property(environment, agentKey, "adaptive.min-interval", Duration.class, interval),
+                        property(environment, agentKey, "adaptive.max-interval", Duration.class, interval),
+                        property(environment, agentKey, "adaptive.backoff", Double.class, 2.0),
+                        LocalTime.parse(property(environment, agentKey, "trading-hours.start", String.class, "00:00")),
+                        LocalTime.parse(property(environment, agentKey, "trading-hours.end", String.class, "00:00")),
+                        ZoneId.of(property(environment, agentKey, "trading-hours.zone", String.class, "Europe/Moscow"))
+                )
+        );
+    }
+
+    private static <T> T property(Environment environment, String agentKey, String name, Class<T> type, T fallback) {
+        T defaultValue = environment.getProperty(PREFIX + DEFAULTS + "." + name, type, fallback);
+        return environment.getProperty(PREFIX + agentKey + "." + name, type, defaultValue);
+    }
+}
@@ -0,0 +1,71 @@
+package prices.agent;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+@Component
+public final class JsoupSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(JsoupSupport.class);
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 " +
+            "(KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36";
+    private static final int MAX_BODY_SIZE = 8 * 1024 * 1024;
+
+    private final boolean enabled;
+    private final Duration timeout;
+
+    public JsoupSupport(@Value("${agent.jsoup.enabled:true}") boolean enabled,
+                        @Value("${agent.jsoup.timeout:PT10S}") Duration timeout) {
+        this.enabled = enabled;
+        this.timeout = Objects.requireNonNull(timeout, "Timeout cannot be null");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<Document> load(String url) {
+        Objects.requireNonNull(url, "Url cannot be null");
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            Document document = Jsoup.connect(url)
+                    .userAgent(USER_AGENT)
+                    .header("Accept-Language", "ru-RU,ru;q=0.9")
+                    .timeout((int) timeout.toMillis())
+                    .maxBodySize(MAX_BODY_SIZE)
+                    .followRedirects(true)
+                    .get();
+            return Optional.of(document);
+        } catch (IOException e) {
+            log.debug("Static fetch failed for {}: {}", url, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public static Document parse(String html, String baseUri) {
+        return Jsoup.parse(html, baseUri);
+    }
+
+    public static Optional<String> findText(Document document, String xpath) {
+        Objects.requireNonNull(document, "Document cannot be null");
+        Objects.requireNonNull(xpath, "XPath cannot be null");
+        Element element = document.selectXpath(xpath).first();
+        if (element == null) {
+            return Optional.empty();
+        }
+        String text = element.text();
+        return text.isBlank() ? Optional.empty() : Optional.of(text);
+    }
+}
@@ -0,0 +1,55 @@
+package prices.agent;
+
+import java.time.*;
+import java.util.Objects;
+
+public record PollingSettings(boolean adaptive, Duration minInterval, Duration maxInterval, double backoff,
+                              LocalTime tradingStart, LocalTime tradingEnd, ZoneId zone) {
+
+    public PollingSettings {
+        Objects.requireNonNull(minInterval, "Min interval cannot be null");
+        Objects.requireNonNull(maxInterval, "Max interval cannot be null");
+        Objects.requireNonNull(tradingStart, "Trading start cannot be null");
+        Objects.requireNonNull(tradingEnd, "Trading end cannot be null");
+        Objects.requireNonNull(zone, "Zone cannot be null");
+        if (minInterval.isZero() || minInterval.isNegative()) {
+            throw new IllegalArgumentException("Min interval must be positive");
+        }
+        if (maxInterval.compareTo(minInterval) < 0) {
+            throw new IllegalArgumentException("Max interval must not be less than min interval");
+        }
+        if (backoff < 1.0) {
+            throw new IllegalArgumentException("Backoff must be at least 1.0");
+        }
+    }
+
+    public Duration clamp(Duration interval) {
+        if (interval.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+    }
+
+    public boolean isTradingTime(Instant instant) {
+        if (tradingStart.equals(tradingEnd)) {
+            return true;
+        }
+        LocalTime time = instant.atZone(zone).toLocalTime();
+        if (tradingStart.isBefore(tradingEnd)) {
+            return !time.isBefore(tradingStart) && time.isBefore(tradingEnd);
+        }
+        return !time.isBefore(tradingStart) || time.isBefore(tradingEnd);
+    }
+
+    public Instant nextTradingStart(Instant instant) {
+        if (isTradingTime(instant)) {
+            return instant;
+        }
+        ZonedDateTime local = instant.atZone(zone);
+        ZonedDateTime start = local.with(tradingStart);
+        if (!start.isAfter(local)) {
+            start = start.plusDays(1);
+        }
+        return start.toInstant();
+    }
+}
@@ -0,0 +1,111 @@
+package prices.agent;
+
+import shared.dto.Price;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class ScrapeContext {
+
+    private static final Duration UNBOUNDED = Duration.ofDays(1);
+
+    private final Clock clock;
+    private final Instant startedAt;
+    private final Instant deadline;
+    private final Duration instrumentBudget;
+    private final Set<String> instruments;
+    private final Map<String, Price> collected = new ConcurrentHashMap<>();
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+    private final Set<String> unchanged = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean sealed = new AtomicBoolean();
+
+    private ScrapeContext(Clock clock, Duration total, Duration instrumentBudget, Collection<String> instruments) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        this.startedAt = clock.instant();
+        this.deadline = startedAt.plus(Objects.requireNonNull(total, "Total budget cannot be null"));
+        this.instrumentBudget = Objects.requireNonNull(instrumentBudget, "Instrument budget cannot be null");
+        this.instruments = Set.copyOf(Objects.requireNonNull(instruments, "Instruments cannot be null"));
+    }
+
+    public static ScrapeContext withDeadline(Clock clock, Duration total, Duration instrumentBudget) {
+        return new ScrapeContext(clock, total, instrumentBudget, Set.of());
+    }
+
+    public static ScrapeContext withDeadline(Clock clock, Duration total, Duration instrumentBudget,
+                                             Collection<String> instruments) {
+        return new ScrapeContext(clock, total, instrumentBudget, instruments);
+    }
+
+    public static ScrapeContext unbounded() {
+        return new ScrapeContext(Clock.systemUTC(), UNBOUNDED, UNBOUNDED, Set.of());
+    }
+
+    public boolean includes(String instrument) {
+        return instruments.isEmpty() || instruments.contains(instrument);
+    }
+
+    public Duration remaining() {
+        Duration remaining = Duration.between(clock.instant(), deadline);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public Duration elapsed() {
+        return Duration.between(startedAt, clock.instant());
+    }
+
+    public boolean isExpired() {
+        return remaining().isZero();
+    }
+
+    public Duration budget(int instruments) {
+        Duration share = instrumentBudget.multipliedBy(Math.max(1, instruments));
+        Duration remaining = remaining();
+        return share.compareTo(remaining) < 0 ? share : remaining;
+    }
+
+    public void collect(String name, Price price) {
+        if (!sealed.get()) {
+            collected.put(name, price);
+        }
+    }
+
+    public void collectAll(Map<String, Price> prices) {
+        prices.forEach(this::collect);
+    }
+
+    public Map<String, Price> getCollected() {
+        return Map.copyOf(collected);
+    }
+
+    public void fingerprint(String page, long fingerprint) {
+        if (!sealed.get()) {
+            fingerprints.put(page, fingerprint);
+        }
+    }
+
+    public Map<String, Long> getFingerprints() {
+        return Map.copyOf(fingerprints);
+    }
+
+    public void unchanged(Collection<String> names) {
+        if (!sealed.get()) {
+            unchanged.addAll(names);
+        }
+    }
+
+    public Set<String> getUnchanged() {
+        return Set.copyOf(unchanged);
+    }
+
+    public Optional<Map<String, Price>> seal() {
+        return sealed.compareAndSet(false, true) ? Optional.of(Map.copyOf(collected)) : Optional.empty();
+    }
+}
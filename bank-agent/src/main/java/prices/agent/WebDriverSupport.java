@@ -1,50 +1,53 @@
 package prices.agent;
 
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.WindowType;
 import org.openqa.selenium.support.ui.WebDriverWait;
-import org.springframework.stereotype.Component;
+import prices.agent.driver.PageLoadMetrics;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.FixtureRecorder;
+import prices.agent.extract.PageRequest;
+import prices.agent.metrics.ScrapeStep;
+import prices.agent.metrics.ScrapeTimer;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
-@Component
 public final class WebDriverSupport implements AutoCloseable {
 
-    private static final Duration IMPLICIT_WAIT = Duration.ofSeconds(5);
     private static final Duration EXPLICIT_WAIT = Duration.ofSeconds(10);
+    private static final String NAVIGATE_SCRIPT = "window.location.href = arguments[0];";
 
-    private final ChromeOptions options;
-    private WebDriver driver;
+    private final WebDriver driver;
+    private final Runnable onClose;
+    private final Consumer<WebDriver> prepareTarget;
+    private final PageLoadMetrics pageLoadMetrics;
+    private final FixtureRecorder fixtureRecorder;
+    private final ScrapeTimer scrapeTimer;
     private WebDriverWait webDriverWait;
+    private String pageUrl;
+    private long navigationStartNanos;
+    private boolean closed;
 
-    public WebDriverSupport() {
-        this.options = configureChromeOptions();
-    }
-
-    private ChromeOptions configureChromeOptions() {
-        ChromeOptions opts = new ChromeOptions();
-        opts.setBinary("/usr/bin/google-chrome");
-        opts.addArguments("--headless=new");
-        opts.addArguments("--no-sandbox");
-        opts.addArguments("--disable-dev-shm-usage");
-        opts.addArguments("--disable-gpu");
-        opts.addArguments("--window-size=1920,1080");
-        opts.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36");
-        opts.setExperimentalOption("useAutomationExtension", false);
-        opts.setExperimentalOption("excludeSwitches", new String[]{"enable-automation", "disable-extensions"});
-        return opts;
-    }
-
-    public void createDriver() {
-        if (driver == null) {
-            driver = new ChromeDriver(options);
-            driver.manage().timeouts().implicitlyWait(IMPLICIT_WAIT);
-        }
+    public WebDriverSupport(WebDriver driver, Runnable onClose, Consumer<WebDriver> prepareTarget,
+                            PageLoadMetrics pageLoadMetrics, FixtureRecorder fixtureRecorder, ScrapeTimer scrapeTimer) {
+        this.driver = Objects.requireNonNull(driver, "Driver cannot be null");
+        this.onClose = Objects.requireNonNull(onClose, "OnClose cannot be null");
+        this.prepareTarget = Objects.requireNonNull(prepareTarget, "PrepareTarget cannot be null");
+        this.pageLoadMetrics = Objects.requireNonNull(pageLoadMetrics, "PageLoadMetrics cannot be null");
+        this.fixtureRecorder = Objects.requireNonNull(fixtureRecorder, "FixtureRecorder cannot be null");
+        this.scrapeTimer = Objects.requireNonNull(scrapeTimer, "ScrapeTimer cannot be null");
     }
 
     public WebDriverWait getWebDriver() {
-        if (webDriverWait == null && driver != null) {
+        if (webDriverWait == null && !closed) {
             webDriverWait = new WebDriverWait(driver, EXPLICIT_WAIT);
         }
         return webDriverWait;
@@ -55,23 +58,150 @@ public final class WebDriverSupport implements AutoCloseable {
     }
 
     public void goToPage(String url) {
-        if (driver == null) {
-            createDriver();
+        if (closed) {
+            throw new IllegalStateException("WebDriver lease already returned");
+        }
+        markNavigation(url, System.nanoTime());
+        try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.NAVIGATE)) {
+            driver.get(url);
+            step.success();
         }
-        driver.get(url);
         webDriverWait = new WebDriverWait(driver, EXPLICIT_WAIT);
     }
 
+    public ExtractionResult extract(ExtractionPlan plan) {
+        Objects.requireNonNull(plan, "Plan cannot be null");
+        return extract(plan, plan.getReadyTimeout());
+    }
+
+    public ExtractionResult extract(ExtractionPlan plan, Duration budget) {
+        return extract(plan, budget, OptionalLong.empty());
+    }
+
+    public ExtractionResult extract(ExtractionPlan plan, Duration budget, OptionalLong expected) {
+        Objects.requireNonNull(plan, "Plan cannot be null");
+        Objects.requireNonNull(budget, "Budget cannot be null");
+        Objects.requireNonNull(expected, "Expected fingerprint cannot be null");
+        Duration wait = budget.compareTo(plan.getReadyTimeout()) < 0 ? budget : plan.getReadyTimeout();
+        JavascriptExecutor executor = javascript();
+        ExtractionResult[] last = {plan.missingAll()};
+        long start = System.nanoTime();
+        try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.WAIT)) {
+            try {
+                new WebDriverWait(driver, wait).until(d -> {
+                    last[0] = plan.execute(executor, expected);
+                    return last[0].isComplete() || last[0].isUnchanged() ? last[0] : null;
+                });
+                step.outcome(last[0].isUnchanged() ? "unchanged" : "complete");
+            } catch (TimeoutException e) {
+                step.outcome(last[0].getMisses().size() < plan.getFields().size() ? "partial" : "timeout");
+            }
+        }
+        if (!last[0].isUnchanged()) {
+            for (ExtractionPlan.Field field : plan.getFields()) {
+                scrapeTimer.selector(field.instrument(), last[0].candidate(field.instrument(), field.side()));
+            }
+        }
+        recordPage(last[0].isComplete());
+        if (fixtureRecorder.isEnabled()) {
+            fixtureRecorder.record(plan.getSource(), driver.getCurrentUrl(), driver.getPageSource());
+        }
+        return last[0].withElapsed(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void markNavigation(String url, long startNanos) {
+        this.pageUrl = url;
+        this.navigationStartNanos = startNanos;
+    }
+
+    private void recordPage(boolean complete) {
+        if (pageUrl != null) {
+            pageLoadMetrics.record(driver, pageUrl, navigationStartNanos, complete);
+            pageUrl = null;
+        }
+    }
+
+    public List<ExtractionResult> extractAll(List<PageRequest> pages, int parallelism) {
+        return extractAll(pages, parallelism, ScrapeContext.unbounded());
+    }
+
+    public List<ExtractionResult> extractAll(List<PageRequest> pages, int parallelism, ScrapeContext context) {
+        Objects.requireNonNull(pages, "Pages cannot be null");
+        Objects.requireNonNull(context, "Context cannot be null");
+        List<ExtractionResult> results = new ArrayList<>(pages.size());
+        if (parallelism <= 1 || pages.size() <= 1) {
+            for (PageRequest page : pages) {
+                if (context.isExpired()) {
+                    results.add(page.plan().missingAll());
+                    continue;
+                }
+                goToPage(page.url());
+                results.add(extract(page.plan(), context.budget(page.plan().instrumentCount()), page.fingerprint()));
+            }
+            return results;
+        }
+        JavascriptExecutor executor = javascript();
+        String origin = driver.getWindowHandle();
+        try {
+            for (int start = 0; start < pages.size(); start += parallelism) {
+                List<PageRequest> window = pages.subList(start, Math.min(start + parallelism, pages.size()));
+                long[] openedAt = new long[window.size()];
+                String[] handles = new String[window.size()];
+                for (int i = 0; i < window.size(); i++) {
+                    openedAt[i] = System.nanoTime();
+                    handles[i] = openTab(executor, window.get(i).url());
+                }
+                for (int i = 0; i < window.size(); i++) {
+                    driver.switchTo().window(handles[i]);
+                    markNavigation(window.get(i).url(), openedAt[i]);
+                    ExtractionPlan plan = window.get(i).plan();
+                    results.add(context.isExpired()
+                            ? plan.missingAll()
+                            : extract(plan, context.budget(plan.instrumentCount()), window.get(i).fingerprint()));
+                    driver.close();
+                }
+                driver.switchTo().window(origin);
+            }
+            return results;
+        } finally {
+            closeOtherTabs(origin);
+        }
+    }
+
+    private String openTab(JavascriptExecutor executor, String url) {
+        driver.switchTo().newWindow(WindowType.TAB);
+        prepareTarget.accept(driver);
+        executor.executeScript(NAVIGATE_SCRIPT, url);
+        return driver.getWindowHandle();
+    }
+
+    private void closeOtherTabs(String origin) {
+        for (String handle : driver.getWindowHandles()) {
+            if (!handle.equals(origin)) {
+                driver.switchTo().window(handle);
+                driver.close();
+            }
+        }
+        driver.switchTo().window(origin);
+    }
+
+    private JavascriptExecutor javascript() {
+        if (!(driver instanceof JavascriptExecutor executor)) {
+            throw new IllegalStateException("Driver does not support JavaScript: " + driver.getClass().getName());
+        }
+        return executor;
+    }
+
     public boolean isInitialized() {
-        return driver != null;
+        return !closed;
     }
 
     @Override
     public void close() {
-        if (driver != null) {
-            driver.quit();
-            driver = null;
+        if (!closed) {
+            closed = true;
             webDriverWait = null;
+            onClose.run();
         }
     }
-}
\ No newline at end of file
+}
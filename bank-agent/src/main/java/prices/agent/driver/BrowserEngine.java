@@ -0,0 +1,16 @@
+package prices.agent.driver;
+
+import java.util.Locale;
+
+public enum BrowserEngine {
+    CHROME,
+    HTMLUNIT;
+
+    public static BrowserEngine fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown browser engine: " + name, e);
+        }
+    }
+}
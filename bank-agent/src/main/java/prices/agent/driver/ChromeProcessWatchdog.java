@@ -0,0 +1,286 @@
+package prices.agent.driver;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import prices.agent.driver.ProcessInspector.ProcessInfo;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+@Component
+public final class ChromeProcessWatchdog {
+
+    private static final Logger log = LoggerFactory.getLogger(ChromeProcessWatchdog.class);
+    private static final String METRIC_PREFIX = "agent.driver.process";
+    private static final String USER_DATA_DIR_ARG = "--user-data-dir=";
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+    private static final long INIT_PID = 1;
+
+    private final ProcessInspector inspector;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long maxRssBytes;
+    private final double maxCpuPercent;
+    private final int maxChildren;
+    private final String processPrefix;
+    private final String profileMarker;
+
+    private final Map<PooledDriver, Tracked> tracked = new ConcurrentHashMap<>();
+    private final AtomicLong totalRss = new AtomicLong();
+    private final AtomicLong totalChildren = new AtomicLong();
+    private final AtomicLong zombies = new AtomicLong();
+    private volatile double totalCpuPercent;
+    private Set<Long> suspects = Set.of();
+
+    public ChromeProcessWatchdog(ProcessInspector inspector,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${agent.driver.watchdog.enabled:true}") boolean enabled,
+                                 @Value("${agent.driver.watchdog.max-rss-mb:1024}") long maxRssMb,
+                                 @Value("${agent.driver.watchdog.max-cpu-percent:0}") double maxCpuPercent,
+                                 @Value("${agent.driver.watchdog.max-children:40}") int maxChildren,
+                                 @Value("${agent.driver.watchdog.process-prefix:chrome}") String processPrefix,
+                                 @Value("${agent.driver.profile.dir:profiles}") String profileRoot) {
+        this.inspector = Objects.requireNonNull(inspector, "ProcessInspector cannot be null");
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "MeterRegistry cannot be null");
+        this.enabled = enabled && inspector.isSupported();
+        this.maxRssBytes = maxRssMb * 1024 * 1024;
+        this.maxCpuPercent = maxCpuPercent;
+        this.maxChildren = maxChildren;
+        this.processPrefix = processPrefix;
+        this.profileMarker = USER_DATA_DIR_ARG
+                + Path.of(Objects.requireNonNull(profileRoot, "Profile dir cannot be null")).toAbsolutePath();
+        Gauge.builder(METRIC_PREFIX + ".tracked", tracked, Map::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".rss", totalRss, AtomicLong::get).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".children", totalChildren, AtomicLong::get).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".cpu", this, watchdog -> watchdog.totalCpuPercent).baseUnit("percent")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".zombies", zombies, AtomicLong::get).register(meterRegistry);
+    }
+
+    public static ChromeProcessWatchdog disabled() {
+        return new ChromeProcessWatchdog(ProcessInspector.system(), new SimpleMeterRegistry(),
+                false, 0, 0, 0, "chrome", "profiles");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void track(PooledDriver pooled, BiConsumer<PooledDriver, String> recycler) {
+        Objects.requireNonNull(recycler, "Recycler cannot be null");
+        if (!enabled) {
+            return;
+        }
+        userDataDir(pooled.getDriver()).ifPresentOrElse(
+                dir -> tracked.put(pooled, new Tracked(dir, recycler)),
+                () -> log.debug("WebDriver exposes no user data dir, process tree is not tracked"));
+    }
+
+    void untrack(PooledDriver pooled) {
+        Tracked removed = tracked.remove(pooled);
+        if (!enabled || removed == null) {
+            return;
+        }
+        List<ProcessInfo> processes = inspector.list();
+        findRoot(processes, removed).ifPresent(root -> {
+            int killed = killTree(processes, root);
+            if (killed > 0) {
+                log.warn("Killed {} Chrome processes left after WebDriver quit", killed);
+                meterRegistry.counter(METRIC_PREFIX + ".killed", "reason", "quit-failed").increment(killed);
+            }
+        });
+    }
+
+    public int reapOrphans() {
+        return reap();
+    }
+
+    private synchronized int reap() {
+        if (!enabled) {
+            return 0;
+        }
+        List<ProcessInfo> processes = inspector.list();
+        Set<Long> owned = new HashSet<>();
+        for (Tracked entry : tracked.values()) {
+            findRoot(processes, entry).ifPresent(root -> {
+                owned.add(root);
+                owned.addAll(ProcessInspector.descendants(processes, root));
+            });
+        }
+        Set<Long> ours = ProcessInspector.descendants(processes, ProcessHandle.current().pid());
+        Set<Long> candidates = new HashSet<>();
+        int reaped = 0;
+        long zombieCount = 0;
+        for (ProcessInfo process : processes) {
+            if (!process.name().startsWith(processPrefix) || owned.contains(process.pid())) {
+                continue;
+            }
+            if (process.isZombie()) {
+                zombieCount++;
+                continue;
+            }
+            if (!ours.contains(process.pid()) && !(process.ppid() == INIT_PID && isOurs(processes, process))) {
+                continue;
+            }
+            candidates.add(process.pid());
+            if (suspects.contains(process.pid()) && inspector.kill(process.pid())) {
+                reaped++;
+            }
+        }
+        suspects = candidates;
+        zombies.set(zombieCount);
+        if (reaped > 0) {
+            log.warn("Reaped {} orphaned Chrome processes", reaped);
+            meterRegistry.counter(METRIC_PREFIX + ".killed", "reason", "orphan").increment(reaped);
+        }
+        return reaped;
+    }
+
+    @Scheduled(initialDelayString = "${agent.driver.watchdog.interval:PT30S}",
+            fixedDelayString = "${agent.driver.watchdog.interval:PT30S}")
+    public void check() {
+        if (!enabled) {
+            return;
+        }
+        List<ProcessInfo> processes = inspector.list();
+        Map<Long, ProcessInfo> byPid = new HashMap<>(processes.size());
+        processes.forEach(process -> byPid.put(process.pid(), process));
+        long now = System.nanoTime();
+        long rss = 0;
+        long children = 0;
+        double cpu = 0;
+        for (Map.Entry<PooledDriver, Tracked> entry : tracked.entrySet()) {
+            Tracked state = entry.getValue();
+            Optional<Long> root = findRoot(processes, state);
+            if (root.isEmpty()) {
+                continue;
+            }
+            Set<Long> tree = ProcessInspector.descendants(processes, root.get());
+            long treeRss = byPid.get(root.get()).rssBytes();
+            long treeTicks = byPid.get(root.get()).cpuTicks();
+            for (long pid : tree) {
+                ProcessInfo process = byPid.get(pid);
+                treeRss += process.rssBytes();
+                treeTicks += process.cpuTicks();
+            }
+            double treeCpu = state.cpuPercent(treeTicks, now);
+            rss += treeRss;
+            children += tree.size();
+            cpu += treeCpu;
+            String reason = violation(treeRss, treeCpu, tree.size());
+            if (reason != null) {
+                log.warn("Chrome process tree {} over limit ({}): rss={}MB, cpu={}%, children={}",
+                        root.get(), reason, treeRss / (1024 * 1024), Math.round(treeCpu), tree.size());
+                state.recycler.accept(entry.getKey(), reason);
+            }
+        }
+        totalRss.set(rss);
+        totalChildren.set(children);
+        totalCpuPercent = cpu;
+        reap();
+    }
+
+    private boolean isOurs(List<ProcessInfo> processes, ProcessInfo process) {
+        if (process.commandLine().contains(profileMarker)) {
+            return true;
+        }
+        Set<Long> tree = ProcessInspector.descendants(processes, process.pid());
+        return processes.stream()
+                .anyMatch(child -> tree.contains(child.pid()) && child.commandLine().contains(profileMarker));
+    }
+
+    private String violation(long rss, double cpuPercent, int children) {
+        if (maxRssBytes > 0 && rss > maxRssBytes) {
+            return "rss";
+        }
+        if (maxCpuPercent > 0 && cpuPercent > maxCpuPercent) {
+            return "cpu";
+        }
+        if (maxChildren > 0 && children > maxChildren) {
+            return "children";
+        }
+        return null;
+    }
+
+    private Optional<Long> findRoot(List<ProcessInfo> processes, Tracked state) {
+        String marker = USER_DATA_DIR_ARG + state.userDataDir;
+        Map<Long, ProcessInfo> withMarker = new HashMap<>();
+        Map<Long, ProcessInfo> byPid = new HashMap<>(processes.size());
+        for (ProcessInfo process : processes) {
+            byPid.put(process.pid(), process);
+            if ((process.commandLine() + " ").contains(marker + " ")) {
+                withMarker.put(process.pid(), process);
+            }
+        }
+        for (ProcessInfo process : withMarker.values()) {
+            if (withMarker.containsKey(process.ppid())) {
+                continue;
+            }
+            ProcessInfo parent = byPid.get(process.ppid());
+            return Optional.of(parent != null && parent.name().startsWith(processPrefix) ? parent.pid() : process.pid());
+        }
+        return Optional.empty();
+    }
+
+    private int killTree(List<ProcessInfo> processes, long root) {
+        List<Long> tree = new ArrayList<>(ProcessInspector.descendants(processes, root));
+        Collections.reverse(tree);
+        tree.add(root);
+        int killed = 0;
+        for (long pid : tree) {
+            if (inspector.kill(pid)) {
+                killed++;
+            }
+        }
+        return killed;
+    }
+
+    private static Optional<String> userDataDir(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities capabilities)) {
+            return Optional.empty();
+        }
+        try {
+            Object chrome = capabilities.getCapabilities().getCapability("chrome");
+            return chrome instanceof Map<?, ?> map && map.get("userDataDir") instanceof String dir && !dir.isBlank()
+                    ? Optional.of(dir)
+                    : Optional.empty();
+        } catch (WebDriverException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static final class Tracked {
+        private final String userDataDir;
+        private final BiConsumer<PooledDriver, String> recycler;
+        private long lastTicks = -1;
+        private long lastSampleNanos;
+
+        private Tracked(String userDataDir, BiConsumer<PooledDriver, String> recycler) {
+            this.userDataDir = userDataDir;
+            this.recycler = recycler;
+        }
+
+        private synchronized double cpuPercent(long ticks, long now) {
+            double percent = 0;
+            if (lastTicks >= 0 && now > lastSampleNanos) {
+                double seconds = (now - lastSampleNanos) / 1e9;
+                percent = (ticks - lastTicks) * 100.0 / CLOCK_TICKS_PER_SECOND / seconds;
+            }
+            lastTicks = ticks;
+            lastSampleNanos = now;
+            return percent;
+        }
+    }
+}
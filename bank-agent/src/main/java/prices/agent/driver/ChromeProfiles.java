@@ -0,0 +1,140 @@
+package prices.agent.driver;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Component
+public final class ChromeProfiles {
+
+    private static final Logger log = LoggerFactory.getLogger(ChromeProfiles.class);
+    private static final String METRIC_PREFIX = "agent.driver.profile";
+    private static final String SLOT_PREFIX = "slot-";
+    private static final List<String> LOCK_FILES = List.of("SingletonLock", "SingletonSocket", "SingletonCookie");
+
+    private final boolean enabled;
+    private final Path root;
+    private final long diskCacheBytes;
+    private final long maxProfileBytes;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<Integer> claimed = new HashSet<>();
+    private final AtomicLong profileBytes = new AtomicLong();
+
+    public ChromeProfiles(MeterRegistry meterRegistry,
+                          @Value("${agent.driver.profile.enabled:false}") boolean enabled,
+                          @Value("${agent.driver.profile.dir:profiles}") String root,
+                          @Value("${agent.driver.profile.disk-cache-mb:256}") long diskCacheMb,
+                          @Value("${agent.driver.profile.max-size-mb:512}") long maxProfileMb) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "MeterRegistry cannot be null");
+        this.enabled = enabled;
+        this.root = Path.of(Objects.requireNonNull(root, "Profile dir cannot be null")).toAbsolutePath();
+        this.diskCacheBytes = diskCacheMb * 1024 * 1024;
+        this.maxProfileBytes = maxProfileMb * 1024 * 1024;
+        Gauge.builder(METRIC_PREFIX + ".bytes", profileBytes, AtomicLong::get).baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public static ChromeProfiles disabled() {
+        return new ChromeProfiles(new SimpleMeterRegistry(), false, "profiles", 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getDiskCacheBytes() {
+        return diskCacheBytes;
+    }
+
+    public Optional<Profile> claim() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        int slot;
+        synchronized (claimed) {
+            slot = 0;
+            while (claimed.contains(slot)) {
+                slot++;
+            }
+            claimed.add(slot);
+        }
+        Path dir = root.resolve(SLOT_PREFIX + slot);
+        try {
+            prepare(dir);
+            return Optional.of(new Profile(slot, dir));
+        } catch (IOException | UncheckedIOException e) {
+            release(slot);
+            log.warn("Failed to prepare Chrome profile {}, using a throwaway one: {}", dir, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void release(Profile profile) {
+        release(profile.slot());
+    }
+
+    private void release(int slot) {
+        synchronized (claimed) {
+            claimed.remove(slot);
+        }
+    }
+
+    private void prepare(Path dir) throws IOException {
+        if (Files.isDirectory(dir)) {
+            long bytes = sizeOf(dir);
+            if (maxProfileBytes > 0 && bytes > maxProfileBytes) {
+                log.info("Chrome profile {} is {} MB, over the limit, wiping it", dir, bytes / (1024 * 1024));
+                delete(dir);
+                meterRegistry.counter(METRIC_PREFIX + ".wiped").increment();
+            } else {
+                for (String lock : LOCK_FILES) {
+                    Files.deleteIfExists(dir.resolve(lock));
+                }
+            }
+        }
+        Files.createDirectories(dir);
+        try {
+            profileBytes.set(sizeOf(root));
+        } catch (IOException | UncheckedIOException e) {
+            log.debug("Failed to measure Chrome profiles in {}: {}", root, e.getMessage());
+        }
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile)
+                    .mapToLong(path -> {
+                        try {
+                            return Files.size(path);
+                        } catch (IOException e) {
+                            return 0;
+                        }
+                    })
+                    .sum();
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    public record Profile(int slot, Path dir) {
+    }
+}
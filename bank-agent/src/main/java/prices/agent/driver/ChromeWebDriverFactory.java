@@ -0,0 +1,78 @@
+package prices.agent.driver;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public final class ChromeWebDriverFactory implements WebDriverFactory {
+
+    private final ResourcePolicy resourcePolicy;
+    private final ChromeProfiles profiles;
+    private final Map<WebDriver, ChromeProfiles.Profile> claimed = new ConcurrentHashMap<>();
+
+    public ChromeWebDriverFactory(ResourcePolicy resourcePolicy, ChromeProfiles profiles) {
+        this.resourcePolicy = Objects.requireNonNull(resourcePolicy, "ResourcePolicy cannot be null");
+        this.profiles = Objects.requireNonNull(profiles, "ChromeProfiles cannot be null");
+    }
+
+    private ChromeOptions configureChromeOptions(Optional<ChromeProfiles.Profile> profile) {
+        ChromeOptions opts = new ChromeOptions();
+        opts.setBinary("/usr/bin/google-chrome");
+        opts.addArguments("--headless=new");
+        opts.addArguments("--no-sandbox");
+        opts.addArguments("--disable-dev-shm-usage");
+        opts.addArguments("--disable-gpu");
+        opts.addArguments("--window-size=1920,1080");
+        opts.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36");
+        opts.setExperimentalOption("useAutomationExtension", false);
+        opts.setExperimentalOption("excludeSwitches", new String[]{"enable-automation", "disable-extensions"});
+        opts.setPageLoadStrategy(resourcePolicy.getPageLoadStrategy());
+        profile.ifPresent(p -> {
+            opts.addArguments("--user-data-dir=" + p.dir());
+            opts.addArguments("--disk-cache-size=" + profiles.getDiskCacheBytes());
+        });
+        return opts;
+    }
+
+    @Override
+    public BrowserEngine getEngine() {
+        return BrowserEngine.CHROME;
+    }
+
+    @Override
+    public WebDriver create() {
+        Optional<ChromeProfiles.Profile> profile = profiles.claim();
+        WebDriver driver;
+        try {
+            driver = new ChromeDriver(configureChromeOptions(profile));
+        } catch (RuntimeException e) {
+            profile.ifPresent(profiles::release);
+            throw e;
+        }
+        profile.ifPresent(p -> claimed.put(driver, p));
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        prepareTarget(driver);
+        return driver;
+    }
+
+    @Override
+    public void prepareTarget(WebDriver driver) {
+        resourcePolicy.apply(driver);
+    }
+
+    @Override
+    public void release(WebDriver driver) {
+        ChromeProfiles.Profile profile = claimed.remove(driver);
+        if (profile != null) {
+            profiles.release(profile);
+        }
+    }
+}
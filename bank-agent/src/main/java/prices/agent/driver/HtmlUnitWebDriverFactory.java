@@ -0,0 +1,96 @@
+package prices.agent.driver;
+
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.StringWebResponse;
+import org.htmlunit.WebClient;
+import org.htmlunit.WebRequest;
+import org.htmlunit.WebResponse;
+import org.htmlunit.util.WebConnectionWrapper;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+@Component
+public final class HtmlUnitWebDriverFactory implements WebDriverFactory {
+
+    private final List<Pattern> blockedUrls;
+    private final Duration timeout;
+    private final Duration scriptTimeout;
+
+    public HtmlUnitWebDriverFactory(ResourcePolicy resourcePolicy,
+                                    @Value("${agent.driver.htmlunit.timeout:PT30S}") Duration timeout,
+                                    @Value("${agent.driver.htmlunit.script-timeout:PT10S}") Duration scriptTimeout) {
+        Objects.requireNonNull(resourcePolicy, "ResourcePolicy cannot be null");
+        this.blockedUrls = resourcePolicy.getBlockedUrls().stream()
+                .map(HtmlUnitWebDriverFactory::globToPattern)
+                .toList();
+        this.timeout = Objects.requireNonNull(timeout, "Timeout cannot be null");
+        this.scriptTimeout = Objects.requireNonNull(scriptTimeout, "Script timeout cannot be null");
+    }
+
+    @Override
+    public BrowserEngine getEngine() {
+        return BrowserEngine.HTMLUNIT;
+    }
+
+    @Override
+    public WebDriver create() {
+        WebDriver driver = new HtmlUnitDriver(BrowserVersion.CHROME, true) {
+            @Override
+            protected WebClient modifyWebClient(WebClient client) {
+                client.getOptions().setCssEnabled(false);
+                client.getOptions().setDownloadImages(false);
+                client.getOptions().setThrowExceptionOnScriptError(false);
+                client.getOptions().setThrowExceptionOnFailingStatusCode(false);
+                client.getOptions().setPrintContentOnFailingStatusCode(false);
+                client.getOptions().setTimeout((int) timeout.toMillis());
+                client.setJavaScriptTimeout(scriptTimeout.toMillis());
+                if (!blockedUrls.isEmpty()) {
+                    client.setWebConnection(new BlockingConnection(client, blockedUrls));
+                }
+                return client;
+            }
+        };
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        return driver;
+    }
+
+    static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : glob.split("\\*", -1)) {
+            if (!regex.isEmpty()) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static final class BlockingConnection extends WebConnectionWrapper {
+
+        private final List<Pattern> blockedUrls;
+
+        private BlockingConnection(WebClient client, List<Pattern> blockedUrls) {
+            super(client);
+            this.blockedUrls = blockedUrls;
+        }
+
+        @Override
+        public WebResponse getResponse(WebRequest request) throws IOException {
+            String url = request.getUrl().toExternalForm();
+            for (Pattern blocked : blockedUrls) {
+                if (blocked.matcher(url).matches()) {
+                    return new StringWebResponse("", request.getUrl());
+                }
+            }
+            return super.getResponse(request);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package prices.agent.driver;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public final class PageLoadMetrics {
+
+    private static final String METRIC_PREFIX = "agent.page";
+    private static final String TRANSFER_STATS_SCRIPT =
+            "if (!window.performance || !performance.getEntriesByType) { return null; }" +
+            "var stats = {bytes: 0, hit: 0, revalidated: 0, miss: 0};" +
+            "var entries = performance.getEntriesByType('navigation').concat(performance.getEntriesByType('resource'));" +
+            "for (var i = 0; i < entries.length; i++) {" +
+            "  var e = entries[i]; stats.bytes += e.transferSize || 0;" +
+            "  if (e.entryType !== 'resource' || !e.decodedBodySize) { continue; }" +
+            "  if (!e.transferSize) { stats.hit++; }" +
+            "  else if (e.transferSize < e.encodedBodySize) { stats.revalidated++; }" +
+            "  else { stats.miss++; }" +
+            "}" +
+            "return stats;";
+    private static final List<String> CACHE_RESULTS = List.of("hit", "revalidated", "miss");
+
+    private final MeterRegistry meterRegistry;
+
+    public PageLoadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "MeterRegistry cannot be null");
+    }
+
+    public void record(WebDriver driver, String url, long navigationStartNanos, boolean complete) {
+        String host = hostOf(url);
+        Timer.builder(METRIC_PREFIX + ".time-to-data")
+                .tag("host", host)
+                .tag("outcome", complete ? "complete" : "partial")
+                .register(meterRegistry)
+                .record(System.nanoTime() - navigationStartNanos, TimeUnit.NANOSECONDS);
+        Map<?, ?> stats = transferStats(driver);
+        if (stats.isEmpty()) {
+            return;
+        }
+        DistributionSummary.builder(METRIC_PREFIX + ".bytes")
+                .baseUnit("bytes")
+                .tag("host", host)
+                .register(meterRegistry)
+                .record(count(stats, "bytes"));
+        long resources = 0;
+        for (String result : CACHE_RESULTS) {
+            long count = count(stats, result);
+            resources += count;
+            meterRegistry.counter(METRIC_PREFIX + ".cache", "host", host, "result", result).increment(count);
+        }
+        if (resources > 0) {
+            DistributionSummary.builder(METRIC_PREFIX + ".cache.hit-ratio")
+                    .tag("host", host)
+                    .register(meterRegistry)
+                    .record((double) count(stats, "hit") / resources);
+        }
+    }
+
+    private Map<?, ?> transferStats(WebDriver driver) {
+        if (!(driver instanceof JavascriptExecutor executor)) {
+            return Map.of();
+        }
+        try {
+            return executor.executeScript(TRANSFER_STATS_SCRIPT) instanceof Map<?, ?> map ? map : Map.of();
+        } catch (WebDriverException e) {
+            return Map.of();
+        }
+    }
+
+    private static long count(Map<?, ?> stats, String key) {
+        return stats.get(key) instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : "unknown";
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package prices.agent.driver;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Objects;
+
+final class PooledDriver {
+
+    private static final String HEAP_SCRIPT =
+            "return window.performance && performance.memory ? performance.memory.usedJSHeapSize : 0;";
+
+    private final WebDriver driver;
+    private final long createdAt = System.currentTimeMillis();
+    private int useCount;
+    private volatile String recycleReason;
+
+    PooledDriver(WebDriver driver) {
+        this.driver = Objects.requireNonNull(driver, "Driver cannot be null");
+    }
+
+    WebDriver getDriver() {
+        return driver;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    int getUseCount() {
+        return useCount;
+    }
+
+    void markUsed() {
+        useCount++;
+    }
+
+    String getRecycleReason() {
+        return recycleReason;
+    }
+
+    void requestRecycle(String reason) {
+        this.recycleReason = reason;
+    }
+
+    boolean isHealthy() {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    long usedHeapBytes() {
+        if (!(driver instanceof JavascriptExecutor executor)) {
+            return 0;
+        }
+        try {
+            Object value = executor.executeScript(HEAP_SCRIPT);
+            return value instanceof Number number ? number.longValue() : 0;
+        } catch (WebDriverException e) {
+            return 0;
+        }
+    }
+
+    void reset() {
+        driver.get("about:blank");
+    }
+
+    void quit() {
+        try {
+            driver.quit();
+        } catch (WebDriverException ignored) {
+        }
+    }
+}
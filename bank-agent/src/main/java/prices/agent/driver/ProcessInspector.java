@@ -0,0 +1,111 @@
+package prices.agent.driver;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+@Component
+public final class ProcessInspector {
+
+    private static final long PAGE_SIZE = 4096;
+
+    private final Path procRoot;
+
+    public ProcessInspector(@Value("${agent.driver.watchdog.proc-root:/proc}") String procRoot) {
+        this.procRoot = Path.of(Objects.requireNonNull(procRoot, "Proc root cannot be null"));
+    }
+
+    public static ProcessInspector system() {
+        return new ProcessInspector("/proc");
+    }
+
+    public boolean isSupported() {
+        return Files.isDirectory(procRoot);
+    }
+
+    public List<ProcessInfo> list() {
+        if (!isSupported()) {
+            return List.of();
+        }
+        List<ProcessInfo> processes = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(procRoot, ProcessInspector::isPidDirectory)) {
+            for (Path entry : entries) {
+                read(entry).ifPresent(processes::add);
+            }
+        } catch (IOException e) {
+            return List.of();
+        }
+        return processes;
+    }
+
+    public boolean kill(long pid) {
+        return ProcessHandle.of(pid)
+                .map(ProcessHandle::destroyForcibly)
+                .orElse(false);
+    }
+
+    public static Set<Long> descendants(Collection<ProcessInfo> processes, long rootPid) {
+        Map<Long, List<Long>> children = new HashMap<>();
+        for (ProcessInfo process : processes) {
+            children.computeIfAbsent(process.ppid(), ppid -> new ArrayList<>()).add(process.pid());
+        }
+        Set<Long> result = new LinkedHashSet<>();
+        Deque<Long> pending = new ArrayDeque<>(children.getOrDefault(rootPid, List.of()));
+        while (!pending.isEmpty()) {
+            long pid = pending.pop();
+            if (result.add(pid)) {
+                pending.addAll(children.getOrDefault(pid, List.of()));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isPidDirectory(Path path) {
+        String name = path.getFileName().toString();
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return !name.isEmpty();
+    }
+
+    private Optional<ProcessInfo> read(Path dir) {
+        try {
+            String stat = Files.readString(dir.resolve("stat"), StandardCharsets.UTF_8);
+            String cmdline = Files.exists(dir.resolve("cmdline"))
+                    ? Files.readString(dir.resolve("cmdline"), StandardCharsets.UTF_8).replace('\0', ' ').trim()
+                    : "";
+            return Optional.of(parseStat(stat, cmdline));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    static ProcessInfo parseStat(String stat, String commandLine) {
+        int open = stat.indexOf('(');
+        int close = stat.lastIndexOf(')');
+        long pid = Long.parseLong(stat.substring(0, open).trim());
+        String name = stat.substring(open + 1, close);
+        String[] fields = stat.substring(close + 2).trim().split("\\s+");
+        char state = fields[0].charAt(0);
+        long ppid = Long.parseLong(fields[1]);
+        long cpuTicks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+        long rssBytes = Long.parseLong(fields[21]) * PAGE_SIZE;
+        return new ProcessInfo(pid, ppid, name, state, rssBytes, cpuTicks, commandLine);
+    }
+
+    public record ProcessInfo(long pid, long ppid, String name, char state, long rssBytes, long cpuTicks,
+                              String commandLine) {
+
+        public boolean isZombie() {
+            return state == 'Z';
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package prices.agent.driver;
+
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/** Blocks heavy resources by URL extension, since {@code Network.setBlockedURLs} only takes URL globs. */
+@Component
+public final class ResourcePolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourcePolicy.class);
+
+    private final PageLoadStrategy pageLoadStrategy;
+    private final List<String> blockedUrls;
+
+    public ResourcePolicy(@Value("${agent.driver.page-load-strategy:eager}") String pageLoadStrategy,
+                          @Value("${agent.driver.block.resource-types:image,font,media}") List<String> resourceTypes,
+                          @Value("${agent.driver.block.url-patterns:}") List<String> urlPatterns) {
+        this.pageLoadStrategy = parseStrategy(pageLoadStrategy);
+        Set<String> urls = new LinkedHashSet<>();
+        for (String type : resourceTypes) {
+            if (!type.isBlank()) {
+                urls.addAll(ResourceType.fromName(type).getUrlPatterns());
+            }
+        }
+        urlPatterns.stream()
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .forEach(urls::add);
+        this.blockedUrls = List.copyOf(urls);
+    }
+
+    public PageLoadStrategy getPageLoadStrategy() {
+        return pageLoadStrategy;
+    }
+
+    public List<String> getBlockedUrls() {
+        return blockedUrls;
+    }
+
+    public void apply(WebDriver driver) {
+        if (blockedUrls.isEmpty()) {
+            return;
+        }
+        if (!(driver instanceof HasCdp cdp)) {
+            log.debug("Driver {} has no CDP support, resource blocking skipped", driver.getClass().getSimpleName());
+            return;
+        }
+        try {
+            cdp.executeCdpCommand("Network.enable", Map.of());
+            cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blockedUrls));
+        } catch (WebDriverException e) {
+            log.warn("Failed to apply resource blocking: {}", e.getMessage());
+        }
+    }
+
+    private static PageLoadStrategy parseStrategy(String value) {
+        for (PageLoadStrategy strategy : PageLoadStrategy.values()) {
+            if (strategy.toString().equalsIgnoreCase(value.trim())) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown page load strategy: " + value);
+    }
+
+    public enum ResourceType {
+        IMAGE(List.of("png", "jpg", "jpeg", "gif", "webp", "avif", "svg", "ico")),
+        FONT(List.of("woff", "woff2", "ttf", "otf", "eot")),
+        MEDIA(List.of("mp4", "webm", "mp3", "ogg", "m3u8")),
+        STYLESHEET(List.of("css"));
+
+        private final List<String> urlPatterns;
+
+        ResourceType(List<String> extensions) {
+            this.urlPatterns = extensions.stream()
+                    .flatMap(extension -> Stream.of("*." + extension, "*." + extension + "?*"))
+                    .toList();
+        }
+
+        public List<String> getUrlPatterns() {
+            return urlPatterns;
+        }
+
+        public static ResourceType fromName(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown resource type: " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package prices.agent.driver;
+
+import org.openqa.selenium.WebDriver;
+
+public interface WebDriverFactory {
+
+    WebDriver create();
+
+    BrowserEngine getEngine();
+
+    default void prepareTarget(WebDriver driver) {
+    }
+
+    default void release(WebDriver driver) {
+    }
+}
@@ -0,0 +1,236 @@
+package prices.agent.driver;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import prices.agent.WebDriverSupport;
+import prices.agent.extract.FixtureRecorder;
+import prices.agent.metrics.ScrapeStep;
+import prices.agent.metrics.ScrapeTimer;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class WebDriverPool {
+
+    private static final Logger log = LoggerFactory.getLogger(WebDriverPool.class);
+    private static final String METRIC_PREFIX = "agent.driver.pool";
+
+    private final WebDriverFactory factory;
+    private final String engine;
+    private final MeterRegistry meterRegistry;
+    private final FixtureRecorder fixtureRecorder;
+    private final ChromeProcessWatchdog watchdog;
+    private final int size;
+    private final int maxUses;
+    private final long maxHeapBytes;
+    private final Duration leaseTimeout;
+
+    private final Semaphore permits;
+    private final BlockingDeque<PooledDriver> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final Counter created;
+    private final Timer leaseTimer;
+    private final PageLoadMetrics pageLoadMetrics;
+    private final ScrapeTimer scrapeTimer;
+    private volatile boolean closed;
+
+    public WebDriverPool(WebDriverFactory factory,
+                         MeterRegistry meterRegistry,
+                         FixtureRecorder fixtureRecorder,
+                         ChromeProcessWatchdog watchdog,
+                         int size,
+                         int maxUses,
+                         long maxHeapMb,
+                         Duration leaseTimeout) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("agent.driver.pool.size must be positive");
+        }
+        this.factory = Objects.requireNonNull(factory, "WebDriverFactory cannot be null");
+        this.engine = Objects.requireNonNull(factory.getEngine(), "Browser engine cannot be null")
+                .name().toLowerCase(Locale.ROOT);
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "MeterRegistry cannot be null");
+        this.fixtureRecorder = Objects.requireNonNull(fixtureRecorder, "FixtureRecorder cannot be null");
+        this.watchdog = Objects.requireNonNull(watchdog, "ChromeProcessWatchdog cannot be null");
+        this.size = size;
+        this.maxUses = maxUses;
+        this.maxHeapBytes = maxHeapMb * 1024 * 1024;
+        this.leaseTimeout = Objects.requireNonNull(leaseTimeout, "Lease timeout cannot be null");
+        this.permits = new Semaphore(size, true);
+        this.created = meterRegistry.counter(METRIC_PREFIX + ".created", "engine", engine);
+        this.leaseTimer = meterRegistry.timer(METRIC_PREFIX + ".lease", "engine", engine);
+        this.pageLoadMetrics = new PageLoadMetrics(meterRegistry);
+        this.scrapeTimer = new ScrapeTimer(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".idle", idle, BlockingDeque::size).tag("engine", engine)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".leased", leased, AtomicInteger::get).tag("engine", engine)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", () -> size).tag("engine", engine).register(meterRegistry);
+    }
+
+    public void warmUp() {
+        while (!closed && idle.size() + leased.get() < size) {
+            try {
+                idle.offerLast(create());
+            } catch (WebDriverException e) {
+                log.warn("Failed to warm up WebDriver pool: {}", e.getMessage());
+                return;
+            }
+        }
+        log.info("WebDriver pool warmed up: idle={}, size={}", idle.size(), size);
+    }
+
+    public WebDriverSupport lease() {
+        return lease(leaseTimeout);
+    }
+
+    public WebDriverSupport lease(Duration maxWait) {
+        if (closed) {
+            throw new IllegalStateException("WebDriver pool is closed");
+        }
+        Duration wait = maxWait.compareTo(leaseTimeout) < 0 ? maxWait : leaseTimeout;
+        long start = System.nanoTime();
+        try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.ACQUIRE)) {
+            acquirePermit(wait);
+            try {
+                PooledDriver pooled = takeHealthy();
+                leased.incrementAndGet();
+                step.success();
+                return new WebDriverSupport(pooled.getDriver(), () -> release(pooled), factory::prepareTarget,
+                        pageLoadMetrics, fixtureRecorder, scrapeTimer);
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        } finally {
+            leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getLeasedCount() {
+        return leased.get();
+    }
+
+    private void acquirePermit(Duration wait) {
+        try {
+            if (!permits.tryAcquire(wait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No WebDriver available within " + wait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for WebDriver", e);
+        }
+    }
+
+    private PooledDriver takeHealthy() {
+        PooledDriver pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.getRecycleReason() != null) {
+                discard(pooled, pooled.getRecycleReason());
+            } else if (pooled.isHealthy()) {
+                return pooled;
+            } else {
+                discard(pooled, "unhealthy");
+            }
+        }
+        return create();
+    }
+
+    private void release(PooledDriver pooled) {
+        try {
+            pooled.markUsed();
+            String reason = recycleReason(pooled);
+            if (reason != null) {
+                discard(pooled, reason);
+                return;
+            }
+            pooled.reset();
+            idle.offerFirst(pooled);
+        } catch (WebDriverException e) {
+            discard(pooled, "unhealthy");
+        } finally {
+            leased.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private void recycle(PooledDriver pooled, String reason) {
+        if (idle.remove(pooled)) {
+            discard(pooled, reason);
+            replenish();
+        } else {
+            pooled.requestRecycle(reason);
+        }
+    }
+
+    private void replenish() {
+        if (closed || idle.size() + leased.get() >= size) {
+            return;
+        }
+        try {
+            idle.offerLast(create());
+        } catch (WebDriverException e) {
+            log.warn("Failed to replace recycled WebDriver: {}", e.getMessage());
+        }
+    }
+
+    private String recycleReason(PooledDriver pooled) {
+        if (closed) {
+            return "closed";
+        }
+        if (pooled.getRecycleReason() != null) {
+            return pooled.getRecycleReason();
+        }
+        if (maxUses > 0 && pooled.getUseCount() >= maxUses) {
+            return "max-uses";
+        }
+        if (maxHeapBytes > 0 && pooled.usedHeapBytes() > maxHeapBytes) {
+            return "memory";
+        }
+        if (!pooled.isHealthy()) {
+            return "unhealthy";
+        }
+        return null;
+    }
+
+    private PooledDriver create() {
+        PooledDriver pooled = new PooledDriver(factory.create());
+        created.increment();
+        watchdog.track(pooled, this::recycle);
+        return pooled;
+    }
+
+    private void discard(PooledDriver pooled, String reason) {
+        log.debug("Recycling WebDriver after {} uses: {}", pooled.getUseCount(), reason);
+        meterRegistry.counter(METRIC_PREFIX + ".recycled", "engine", engine, "reason", reason).increment();
+        close(pooled);
+    }
+
+    public void destroy() {
+        closed = true;
+        PooledDriver pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            close(pooled);
+        }
+    }
+
+    private void close(PooledDriver pooled) {
+        pooled.quit();
+        watchdog.untrack(pooled);
+        factory.release(pooled.getDriver());
+    }
+}
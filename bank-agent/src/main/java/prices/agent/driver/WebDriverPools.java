@@ -0,0 +1,67 @@
+package prices.agent.driver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import prices.agent.extract.FixtureRecorder;
+
+import java.time.Duration;
+import java.util.*;
+
+@Component
+public final class WebDriverPools implements DisposableBean {
+
+    private final Map<BrowserEngine, WebDriverPool> pools = new EnumMap<>(BrowserEngine.class);
+    private final Set<BrowserEngine> inUse = Collections.synchronizedSet(EnumSet.noneOf(BrowserEngine.class));
+    private final ChromeProcessWatchdog watchdog;
+
+    public WebDriverPools(List<WebDriverFactory> factories,
+                          MeterRegistry meterRegistry,
+                          FixtureRecorder fixtureRecorder,
+                          ChromeProcessWatchdog watchdog,
+                          @Value("${agent.driver.pool.size:2}") int size,
+                          @Value("${agent.driver.pool.max-uses:50}") int maxUses,
+                          @Value("${agent.driver.pool.max-heap-mb:512}") long maxHeapMb,
+                          @Value("${agent.driver.pool.lease-timeout:PT3M}") Duration leaseTimeout) {
+        Objects.requireNonNull(factories, "Factories cannot be null");
+        this.watchdog = Objects.requireNonNull(watchdog, "ChromeProcessWatchdog cannot be null");
+        for (WebDriverFactory factory : factories) {
+            WebDriverPool pool = new WebDriverPool(factory, meterRegistry, fixtureRecorder, watchdog,
+                    size, maxUses, maxHeapMb, leaseTimeout);
+            if (pools.putIfAbsent(factory.getEngine(), pool) != null) {
+                throw new IllegalStateException("Duplicate WebDriver factory for engine " + factory.getEngine());
+            }
+        }
+    }
+
+    public WebDriverPool forEngine(BrowserEngine engine) {
+        WebDriverPool pool = pools.get(Objects.requireNonNull(engine, "Browser engine cannot be null"));
+        if (pool == null) {
+            throw new IllegalStateException("No WebDriver factory for engine " + engine);
+        }
+        inUse.add(engine);
+        return pool;
+    }
+
+    public Set<BrowserEngine> getEngines() {
+        return Collections.unmodifiableSet(pools.keySet());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        watchdog.reapOrphans();
+        List<BrowserEngine> engines;
+        synchronized (inUse) {
+            engines = List.copyOf(inUse);
+        }
+        engines.forEach(engine -> pools.get(engine).warmUp());
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(WebDriverPool::destroy);
+    }
+}
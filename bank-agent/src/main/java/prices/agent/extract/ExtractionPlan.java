@@ -0,0 +1,265 @@
+package prices.agent.extract;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openqa.selenium.JavascriptExecutor;
+import prices.agent.AgentConfig;
+import shared.enums.CurrentPrice;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Pattern;
+
+public final class ExtractionPlan {
+
+    private static final String SCRIPT =
+            "var args = arguments[0], fields = args.fields, fingerprint = null, out = [];" +
+            "if (args.container) {" +
+            "  try {" +
+            "    var root = document.evaluate(args.container, document, null," +
+            "        XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+            "    var content = root ? (root.textContent || '').replace(/\\s+/g, ' ').trim() : '';" +
+            "    if (content) {" +
+            "      fingerprint = 0x811c9dc5;" +
+            "      for (var k = 0; k < content.length; k++) {" +
+            "        fingerprint = Math.imul(fingerprint ^ content.charCodeAt(k), 0x01000193) >>> 0;" +
+            "      }" +
+            "    }" +
+            "  } catch (e) {}" +
+            "}" +
+            "if (fingerprint !== null && fingerprint === args.expected) {" +
+            "  return {fingerprint: fingerprint, unchanged: true};" +
+            "}" +
+            "for (var i = 0; i < fields.length; i++) {" +
+            "  var found = null;" +
+            "  for (var j = 0; j < fields[i].length && found === null; j++) {" +
+            "    var started = performance.now();" +
+            "    try {" +
+            "      var node = document.evaluate(fields[i][j], document, null," +
+            "          XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+            "      var text = node ? (node.innerText || node.textContent || '').trim() : '';" +
+            "      if (text) { found = [j, text, performance.now() - started]; }" +
+            "    } catch (e) {}" +
+            "  }" +
+            "  out.push(found);" +
+            "}" +
+            "return {fingerprint: fingerprint, fields: out};";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private static final String DEFAULT_SOURCE = "default";
+    private static final Duration DEFAULT_READY_TIMEOUT = Duration.ofSeconds(10);
+
+    private final String source;
+    private final List<Field> fields;
+    private final Duration readyTimeout;
+    private final String container;
+
+    private ExtractionPlan(String source, List<Field> fields, Duration readyTimeout, String container) {
+        this.source = Objects.requireNonNull(source, "Source cannot be null");
+        this.fields = List.copyOf(fields);
+        this.readyTimeout = Objects.requireNonNull(readyTimeout, "Ready timeout cannot be null");
+        this.container = container;
+    }
+
+    public static ExtractionPlan compile(AgentConfig agentConfig, Map<String, List<Object>> instruments) {
+        Objects.requireNonNull(agentConfig, "AgentConfig cannot be null");
+        Objects.requireNonNull(instruments, "Instruments cannot be null");
+        List<String> templates = new ArrayList<>();
+        templates.add(agentConfig.getWebElement());
+        templates.addAll(agentConfig.getAlternativeWebElements());
+        Builder builder = builder()
+                .source(agentConfig.getClass().getSimpleName())
+                .readyTimeout(agentConfig.getReadyTimeout())
+                .container(agentConfig.getRatesContainer().orElse(null));
+        for (Map.Entry<String, List<Object>> instrument : instruments.entrySet()) {
+            for (CurrentPrice side : CurrentPrice.values()) {
+                String index = switch (side) {
+                    case BUY -> agentConfig.getIndexBuy();
+                    case SELL -> agentConfig.getIndexSell();
+                };
+                List<Object> args = new ArrayList<>(instrument.getValue());
+                args.add(index);
+                List<String> xpaths = templates.stream()
+                        .map(template -> String.format(template, args.toArray()))
+                        .toList();
+                builder.field(instrument.getKey(), side, xpaths);
+            }
+        }
+        return builder.build();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    public Duration getReadyTimeout() {
+        return readyTimeout;
+    }
+
+    public Optional<String> getContainer() {
+        return Optional.ofNullable(container);
+    }
+
+    public int instrumentCount() {
+        return (int) fields.stream().map(Field::instrument).distinct().count();
+    }
+
+    public ExtractionResult execute(JavascriptExecutor executor) {
+        return execute(executor, OptionalLong.empty());
+    }
+
+    public ExtractionResult execute(JavascriptExecutor executor, OptionalLong expected) {
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        Objects.requireNonNull(expected, "Expected fingerprint cannot be null");
+        Map<String, Object> args = new HashMap<>();
+        args.put("fields", fields.stream().map(Field::xpaths).toList());
+        if (container != null) {
+            args.put("container", container);
+        }
+        if (expected.isPresent()) {
+            args.put("expected", expected.getAsLong());
+        }
+        long start = System.nanoTime();
+        Map<?, ?> raw = executor.executeScript(SCRIPT, args) instanceof Map<?, ?> map ? map : Map.of();
+        ExtractionResult.Builder result = ExtractionResult.builder();
+        if (raw.get("fingerprint") instanceof Number fingerprint) {
+            result.fingerprint(fingerprint.longValue());
+        }
+        if (Boolean.TRUE.equals(raw.get("unchanged"))) {
+            return result.unchanged().elapsed(Duration.ofNanos(System.nanoTime() - start)).build();
+        }
+        List<?> hits = raw.get("fields") instanceof List<?> list ? list : List.of();
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            if (i < hits.size() && hits.get(i) instanceof List<?> hit && hit.size() >= 2) {
+                result.hit(field, ((Number) hit.get(0)).intValue(), String.valueOf(hit.get(1)), cost(hit));
+            } else {
+                result.miss(field);
+            }
+        }
+        return result.elapsed(Duration.ofNanos(System.nanoTime() - start)).build();
+    }
+
+    public ExtractionResult execute(Document document) {
+        return execute(document, OptionalLong.empty());
+    }
+
+    public ExtractionResult execute(Document document, OptionalLong expected) {
+        Objects.requireNonNull(document, "Document cannot be null");
+        Objects.requireNonNull(expected, "Expected fingerprint cannot be null");
+        long start = System.nanoTime();
+        ExtractionResult.Builder result = ExtractionResult.builder();
+        OptionalLong fingerprint = fingerprint(document);
+        if (fingerprint.isPresent()) {
+            result.fingerprint(fingerprint.getAsLong());
+            if (expected.equals(fingerprint)) {
+                return result.unchanged().elapsed(Duration.ofNanos(System.nanoTime() - start)).build();
+            }
+        }
+        for (Field field : fields) {
+            boolean found = false;
+            for (int j = 0; j < field.xpaths().size() && !found; j++) {
+                long started = System.nanoTime();
+                Element element = document.selectXpath(field.xpaths().get(j)).first();
+                if (element != null && !element.text().isBlank()) {
+                    result.hit(field, j, element.text(), Duration.ofNanos(System.nanoTime() - started));
+                    found = true;
+                }
+            }
+            if (!found) {
+                result.miss(field);
+            }
+        }
+        return result.elapsed(Duration.ofNanos(System.nanoTime() - start)).build();
+    }
+
+    private static Duration cost(List<?> hit) {
+        if (hit.size() > 2 && hit.get(2) instanceof Number millis) {
+            return Duration.ofNanos(Math.round(millis.doubleValue() * 1_000_000));
+        }
+        return Duration.ZERO;
+    }
+
+    private OptionalLong fingerprint(Document document) {
+        if (container == null) {
+            return OptionalLong.empty();
+        }
+        Element root = document.selectXpath(container).first();
+        return root == null ? OptionalLong.empty() : fingerprint(root.text());
+    }
+
+    static OptionalLong fingerprint(String text) {
+        String content = WHITESPACE.matcher(text).replaceAll(" ").trim();
+        if (content.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        int hash = FNV_OFFSET;
+        for (int i = 0; i < content.length(); i++) {
+            hash = (hash ^ content.charAt(i)) * FNV_PRIME;
+        }
+        return OptionalLong.of(Integer.toUnsignedLong(hash));
+    }
+
+    public ExtractionResult missingAll() {
+        ExtractionResult.Builder result = ExtractionResult.builder();
+        fields.forEach(result::miss);
+        return result.build();
+    }
+
+    public record Field(String instrument, CurrentPrice side, List<String> xpaths) {
+
+        public Field {
+            Objects.requireNonNull(instrument, "Instrument cannot be null");
+            Objects.requireNonNull(side, "Side cannot be null");
+            xpaths = List.copyOf(xpaths);
+            if (xpaths.isEmpty()) {
+                throw new IllegalArgumentException("At least one XPath is required");
+            }
+        }
+
+        public String key() {
+            return ExtractionResult.key(instrument, side);
+        }
+    }
+
+    public static class Builder {
+        private final List<Field> fields = new ArrayList<>();
+        private String source = DEFAULT_SOURCE;
+        private Duration readyTimeout = DEFAULT_READY_TIMEOUT;
+        private String container;
+
+        public Builder source(String source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder field(String instrument, CurrentPrice side, List<String> xpaths) {
+            fields.add(new Field(instrument, side, xpaths));
+            return this;
+        }
+
+        public Builder readyTimeout(Duration readyTimeout) {
+            this.readyTimeout = readyTimeout;
+            return this;
+        }
+
+        public Builder container(String container) {
+            this.container = container;
+            return this;
+        }
+
+        public ExtractionPlan build() {
+            return new ExtractionPlan(source, fields, readyTimeout, container);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+}
@@ -0,0 +1,128 @@
+package prices.agent.extract;
+
+import shared.enums.CurrentPrice;
+
+import java.time.Duration;
+import java.util.*;
+
+public final class ExtractionResult {
+
+    private final Map<String, String> values;
+    private final Map<String, Integer> candidates;
+    private final Map<String, Duration> costs;
+    private final Set<String> misses;
+    private final Duration elapsed;
+    private final Long fingerprint;
+    private final boolean unchanged;
+
+    private ExtractionResult(Map<String, String> values, Map<String, Integer> candidates, Map<String, Duration> costs,
+                             Set<String> misses, Duration elapsed, Long fingerprint, boolean unchanged) {
+        this.values = Collections.unmodifiableMap(values);
+        this.candidates = Collections.unmodifiableMap(candidates);
+        this.costs = Collections.unmodifiableMap(costs);
+        this.misses = Collections.unmodifiableSet(misses);
+        this.elapsed = elapsed;
+        this.fingerprint = fingerprint;
+        this.unchanged = unchanged;
+    }
+
+    static String key(String instrument, CurrentPrice side) {
+        return instrument + ':' + side.name();
+    }
+
+    public Optional<String> text(String instrument, CurrentPrice side) {
+        return Optional.ofNullable(values.get(key(instrument, side)));
+    }
+
+    public OptionalInt candidate(String instrument, CurrentPrice side) {
+        Integer index = candidates.get(key(instrument, side));
+        return index == null ? OptionalInt.empty() : OptionalInt.of(index);
+    }
+
+    public Optional<Duration> cost(String instrument, CurrentPrice side) {
+        return Optional.ofNullable(costs.get(key(instrument, side)));
+    }
+
+    public boolean hasInstrument(String instrument) {
+        return text(instrument, CurrentPrice.BUY).isPresent() && text(instrument, CurrentPrice.SELL).isPresent();
+    }
+
+    public Set<String> getMisses() {
+        return misses;
+    }
+
+    public boolean isComplete() {
+        return misses.isEmpty();
+    }
+
+    public OptionalLong getFingerprint() {
+        return fingerprint == null ? OptionalLong.empty() : OptionalLong.of(fingerprint);
+    }
+
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public ExtractionResult withElapsed(Duration elapsed) {
+        return new ExtractionResult(values, candidates, costs, misses,
+                Objects.requireNonNull(elapsed, "Elapsed cannot be null"), fingerprint, unchanged);
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionResult{" +
+                "hits=" + values.size() +
+                ", misses=" + misses +
+                (unchanged ? ", unchanged" : "") +
+                '}';
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private final Map<String, String> values = new LinkedHashMap<>();
+        private final Map<String, Integer> candidates = new HashMap<>();
+        private final Map<String, Duration> costs = new HashMap<>();
+        private final Set<String> misses = new LinkedHashSet<>();
+        private Duration elapsed = Duration.ZERO;
+        private Long fingerprint;
+        private boolean unchanged;
+
+        Builder hit(ExtractionPlan.Field field, int candidate, String text, Duration cost) {
+            values.put(field.key(), text);
+            candidates.put(field.key(), candidate);
+            costs.put(field.key(), cost);
+            return this;
+        }
+
+        Builder miss(ExtractionPlan.Field field) {
+            misses.add(field.key());
+            return this;
+        }
+
+        Builder fingerprint(long fingerprint) {
+            this.fingerprint = fingerprint;
+            return this;
+        }
+
+        Builder unchanged() {
+            this.unchanged = true;
+            return this;
+        }
+
+        Builder elapsed(Duration elapsed) {
+            this.elapsed = elapsed;
+            return this;
+        }
+
+        ExtractionResult build() {
+            return new ExtractionResult(values, candidates, costs, misses, elapsed, fingerprint, unchanged);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package prices.agent.extract;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+@Component
+public final class FixtureRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(FixtureRecorder.class);
+
+    public static final String HEADER_PREFIX = "<!-- agent-fixture ";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private final boolean enabled;
+    private final Path directory;
+
+    public FixtureRecorder(@Value("${agent.fixtures.capture.enabled:false}") boolean enabled,
+                           @Value("${agent.fixtures.capture.dir:fixtures}") String directory) {
+        this.enabled = enabled;
+        this.directory = Path.of(Objects.requireNonNull(directory, "Directory cannot be null"));
+    }
+
+    public static FixtureRecorder disabled() {
+        return new FixtureRecorder(false, "fixtures");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String source, String url, String html) {
+        if (!enabled || html == null || html.isBlank()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Path target = directory.resolve(source)
+                .resolve(FILE_TIME.format(now) + "-" + Integer.toHexString(Objects.hashCode(url)) + ".html");
+        try {
+            Files.createDirectories(target.getParent());
+            String header = HEADER_PREFIX + "source=" + source + " url=" + url + " captured=" + now + " -->\n";
+            Files.writeString(target, header + html, StandardCharsets.UTF_8);
+            log.debug("Captured fixture {}", target);
+        } catch (IOException e) {
+            log.warn("Failed to capture fixture for {}: {}", source, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package prices.agent.extract;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import prices.agent.ScrapeContext;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public final class PageFingerprints {
+
+    private static final String METRIC_NAME = "agent.page.fingerprint";
+    private static final String STATIC_PREFIX = "static ";
+    private static final String BROWSER_PREFIX = "browser ";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, Long> committed = new ConcurrentHashMap<>();
+
+    public PageFingerprints(MeterRegistry meterRegistry,
+                            @Value("${agent.fingerprint.enabled:true}") boolean enabled) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "MeterRegistry cannot be null");
+        this.enabled = enabled;
+    }
+
+    public static PageFingerprints disabled() {
+        return new PageFingerprints(new SimpleMeterRegistry(), false);
+    }
+
+    public static String staticPage(String url) {
+        return STATIC_PREFIX + url;
+    }
+
+    public static String browserPage(String url) {
+        return BROWSER_PREFIX + url;
+    }
+
+    public OptionalLong expected(String page) {
+        Long fingerprint = enabled ? committed.get(page) : null;
+        return fingerprint == null ? OptionalLong.empty() : OptionalLong.of(fingerprint);
+    }
+
+    public boolean observe(String page, ExtractionResult result, Collection<String> instruments,
+                           ScrapeContext context) {
+        Objects.requireNonNull(result, "Result cannot be null");
+        if (!enabled) {
+            return false;
+        }
+        if (result.isUnchanged()) {
+            context.unchanged(instruments);
+            meterRegistry.counter(METRIC_NAME, "result", "unchanged").increment();
+            return true;
+        }
+        OptionalLong fingerprint = result.getFingerprint();
+        if (fingerprint.isPresent() && context.getCollected().keySet().containsAll(instruments)) {
+            context.fingerprint(page, fingerprint.getAsLong());
+            meterRegistry.counter(METRIC_NAME, "result", "changed").increment();
+        }
+        return false;
+    }
+
+    public void commit(ScrapeContext context) {
+        if (enabled) {
+            committed.putAll(context.getFingerprints());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package prices.agent.extract;
+
+import java.util.Objects;
+import java.util.OptionalLong;
+
+public record PageRequest(String url, ExtractionPlan plan, OptionalLong fingerprint) {
+
+    public PageRequest {
+        Objects.requireNonNull(url, "Url cannot be null");
+        Objects.requireNonNull(plan, "Plan cannot be null");
+        Objects.requireNonNull(fingerprint, "Fingerprint cannot be null");
+    }
+
+    public PageRequest(String url, ExtractionPlan plan) {
+        this(url, plan, OptionalLong.empty());
+    }
+}
@@ -0,0 +1,127 @@
+package prices.agent.extract;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+@Component
+public final class PriceParser {
+
+    private static final int MAX_SCALE = 18;
+    private static final Pattern SPACES = Pattern.compile("[\\s\u00A0\u2009\u202F]+");
+    private static final Pattern UNIT_SUFFIX = Pattern.compile("(₽|руб\\.?|р\\.)?(/(г|гр\\.?|кг|унц\\.?|oz))?");
+
+    public ParsedPrice parse(CharSequence text) {
+        if (text == null) {
+            return ParsedPrice.error(ParseError.EMPTY, 0);
+        }
+        int length = text.length();
+        int index = 0;
+        while (index < length && isSpace(text.charAt(index))) {
+            index++;
+        }
+        if (index == length) {
+            return ParsedPrice.error(ParseError.EMPTY, index);
+        }
+        if (text.charAt(index) == '-') {
+            return ParsedPrice.error(ParseError.NEGATIVE, index);
+        }
+        if (text.charAt(index) == '+') {
+            index++;
+        }
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        int lastDigit = -1;
+        for (; index < length; index++) {
+            char c = text.charAt(index);
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                if (unscaled > (Long.MAX_VALUE - digit) / 10 || scale >= MAX_SCALE) {
+                    return ParsedPrice.error(ParseError.OVERFLOW, index);
+                }
+                unscaled = unscaled * 10 + digit;
+                digits++;
+                lastDigit = index;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == ',' || c == '.') {
+                if (scale >= 0) {
+                    return ParsedPrice.error(ParseError.MULTIPLE_SEPARATORS, index);
+                }
+                if (digits == 0) {
+                    return ParsedPrice.error(ParseError.INVALID_CHARACTER, index);
+                }
+                scale = 0;
+            } else if (isSpace(c)) {
+                if (scale >= 0 || !isDigitAt(text, index + 1)) {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return ParsedPrice.error(ParseError.NO_DIGITS, index);
+        }
+        if (scale == 0) {
+            return ParsedPrice.error(ParseError.INVALID_CHARACTER, lastDigit + 1);
+        }
+        for (int tail = index; index < length; index++) {
+            char c = text.charAt(index);
+            if (!isSpace(c) && c != '₽') {
+                return isUnitSuffix(text, tail)
+                        ? ParsedPrice.of(unscaled, Math.max(scale, 0))
+                        : ParsedPrice.error(ParseError.INVALID_CHARACTER, index);
+            }
+        }
+        return ParsedPrice.of(unscaled, Math.max(scale, 0));
+    }
+
+    private static boolean isUnitSuffix(CharSequence text, int from) {
+        String tail = SPACES.matcher(text.subSequence(from, text.length())).replaceAll("");
+        return UNIT_SUFFIX.matcher(tail.toLowerCase(Locale.ROOT)).matches();
+    }
+
+    private static boolean isDigitAt(CharSequence text, int index) {
+        return index < text.length() && text.charAt(index) >= '0' && text.charAt(index) <= '9';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\u00A0' || c == '\u2009' || c == '\u202F' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    public enum ParseError {
+        EMPTY,
+        NO_DIGITS,
+        NEGATIVE,
+        INVALID_CHARACTER,
+        MULTIPLE_SEPARATORS,
+        OVERFLOW
+    }
+
+    public record ParsedPrice(long unscaled, int scale, ParseError error, int errorIndex) {
+
+        private static ParsedPrice of(long unscaled, int scale) {
+            return new ParsedPrice(unscaled, scale, null, -1);
+        }
+
+        private static ParsedPrice error(ParseError error, int errorIndex) {
+            return new ParsedPrice(0, 0, error, errorIndex);
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+
+        public BigDecimal toBigDecimal() {
+            if (!isValid()) {
+                throw new IllegalStateException("Price is not valid: " + error + " at " + errorIndex);
+            }
+            return BigDecimal.valueOf(unscaled, scale);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package prices.agent.extract;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+public final class ResponseCapture implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final String HOOK_SCRIPT =
+            "(function () {" +
+            "  var pattern = new RegExp(%s);" +
+            "  window.__agentCaptured = [];" +
+            "  function keep(url, body) {" +
+            "    try { if (body && pattern.test(url)) { window.__agentCaptured.push(body); } } catch (e) {}" +
+            "  }" +
+            "  if (window.fetch) {" +
+            "    var originalFetch = window.fetch;" +
+            "    window.fetch = function () {" +
+            "      return originalFetch.apply(this, arguments).then(function (response) {" +
+            "        try {" +
+            "          if (pattern.test(response.url)) {" +
+            "            response.clone().text().then(function (text) { keep(response.url, text); });" +
+            "          }" +
+            "        } catch (e) {}" +
+            "        return response;" +
+            "      });" +
+            "    };" +
+            "  }" +
+            "  var originalOpen = XMLHttpRequest.prototype.open;" +
+            "  XMLHttpRequest.prototype.open = function (method, url) {" +
+            "    this.addEventListener('load', function () {" +
+            "      try {" +
+            "        var type = this.responseType;" +
+            "        var body = type === '' || type === 'text' ? this.responseText" +
+            "            : type === 'json' ? JSON.stringify(this.response) : null;" +
+            "        keep(String(url), body);" +
+            "      } catch (e) {}" +
+            "    });" +
+            "    return originalOpen.apply(this, arguments);" +
+            "  };" +
+            "})();";
+
+    private static final String DRAIN_SCRIPT =
+            "var captured = window.__agentCaptured || [];" +
+            "window.__agentCaptured = [];" +
+            "return captured;";
+
+    private final WebDriver driver;
+    private final String identifier;
+
+    private ResponseCapture(WebDriver driver, String identifier) {
+        this.driver = driver;
+        this.identifier = identifier;
+    }
+
+    public static Optional<ResponseCapture> install(WebDriver driver, String urlPattern) {
+        Objects.requireNonNull(driver, "Driver cannot be null");
+        Objects.requireNonNull(urlPattern, "Url pattern cannot be null");
+        if (!(driver instanceof HasCdp cdp) || !(driver instanceof JavascriptExecutor)) {
+            return Optional.empty();
+        }
+        try {
+            String source = String.format(HOOK_SCRIPT, JSON.writeValueAsString(urlPattern));
+            Map<String, Object> result = cdp.executeCdpCommand(
+                    "Page.addScriptToEvaluateOnNewDocument", Map.of("source", source));
+            return Optional.of(new ResponseCapture(driver, String.valueOf(result.get("identifier"))));
+        } catch (JsonProcessingException | WebDriverException e) {
+            return Optional.empty();
+        }
+    }
+
+    public List<String> await(Duration timeout) {
+        JavascriptExecutor executor = (JavascriptExecutor) driver;
+        try {
+            return new WebDriverWait(driver, timeout).until(d -> {
+                List<String> bodies = drain(executor);
+                return bodies.isEmpty() ? null : bodies;
+            });
+        } catch (TimeoutException e) {
+            return List.of();
+        }
+    }
+
+    private List<String> drain(JavascriptExecutor executor) {
+        Object raw = executor.executeScript(DRAIN_SCRIPT);
+        if (!(raw instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(String::valueOf).toList();
+    }
+
+    @Override
+    public void close() {
+        try {
+            ((HasCdp) driver).executeCdpCommand(
+                    "Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", identifier));
+        } catch (WebDriverException ignored) {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package prices.agent.extract;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import prices.model.SelectorRank;
+import prices.repository.SelectorRankRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public final class SelectorRanking {
+
+    private static final Logger log = LoggerFactory.getLogger(SelectorRanking.class);
+
+    private final SelectorRankRepository repository;
+    private final Map<String, Map<String, SelectorRank>> winners = new ConcurrentHashMap<>();
+
+    public SelectorRanking(SelectorRankRepository repository) {
+        this.repository = Objects.requireNonNull(repository, "SelectorRankRepository cannot be null");
+    }
+
+    public ExtractionPlan rank(ExtractionPlan plan) {
+        Objects.requireNonNull(plan, "Plan cannot be null");
+        Map<String, SelectorRank> known = winnersOf(plan.getSource());
+        if (known.isEmpty()) {
+            return plan;
+        }
+        ExtractionPlan.Builder builder = ExtractionPlan.builder()
+                .source(plan.getSource())
+                .readyTimeout(plan.getReadyTimeout())
+                .container(plan.getContainer().orElse(null));
+        for (ExtractionPlan.Field field : plan.getFields()) {
+            SelectorRank winner = known.get(field.key());
+            List<String> xpaths = field.xpaths();
+            if (winner != null && xpaths.indexOf(winner.getXpath()) > 0) {
+                List<String> ordered = new ArrayList<>(xpaths.size());
+                ordered.add(winner.getXpath());
+                xpaths.stream().filter(xpath -> !xpath.equals(winner.getXpath())).forEach(ordered::add);
+                xpaths = ordered;
+            }
+            builder.field(field.instrument(), field.side(), xpaths);
+        }
+        return builder.build();
+    }
+
+    public void record(ExtractionPlan plan, ExtractionResult result) {
+        Objects.requireNonNull(plan, "Plan cannot be null");
+        Objects.requireNonNull(result, "Result cannot be null");
+        if (result.isUnchanged()) {
+            return;
+        }
+        Map<String, SelectorRank> known = winnersOf(plan.getSource());
+        long now = System.currentTimeMillis();
+        List<SelectorRank> changed = new ArrayList<>();
+        for (ExtractionPlan.Field field : plan.getFields()) {
+            OptionalInt candidate = result.candidate(field.instrument(), field.side());
+            if (candidate.isEmpty()) {
+                continue;
+            }
+            String xpath = field.xpaths().get(candidate.getAsInt());
+            long durationMicros = result.cost(field.instrument(), field.side())
+                    .map(cost -> cost.toNanos() / 1_000)
+                    .orElse(0L);
+            SelectorRank winner = known.get(field.key());
+            if (winner == null) {
+                winner = new SelectorRank(plan.getSource(), field.key(), xpath, durationMicros, now);
+                known.put(field.key(), winner);
+                changed.add(winner);
+            } else if (!winner.getXpath().equals(xpath)) {
+                log.info("Selector for {} {} switched to candidate {}", plan.getSource(), field.key(), candidate.getAsInt());
+                winner.win(xpath, durationMicros, now);
+                changed.add(winner);
+            } else {
+                winner.win(xpath, durationMicros, now);
+            }
+        }
+        save(changed);
+    }
+
+    private Map<String, SelectorRank> winnersOf(String source) {
+        return winners.computeIfAbsent(source, this::load);
+    }
+
+    private Map<String, SelectorRank> load(String source) {
+        Map<String, SelectorRank> known = new ConcurrentHashMap<>();
+        try {
+            for (SelectorRank rank : repository.findBySource(source)) {
+                known.put(rank.getFieldKey(), rank);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to load selector ranking for {}: {}", source, e.getMessage());
+        }
+        return known;
+    }
+
+    private void save(List<SelectorRank> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            repository.saveAll(changed);
+        } catch (DataAccessException e) {
+            log.warn("Failed to persist selector ranking: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package prices.agent.metrics;
+
+public enum ScrapeStep {
+    SCRAPE("scrape"),
+    ACQUIRE("acquire"),
+    STATIC_FETCH("static-fetch"),
+    NAVIGATE("navigate"),
+    WAIT("wait"),
+    PARSE("parse"),
+    PERSIST("persist");
+
+    private final String tag;
+
+    ScrapeStep(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
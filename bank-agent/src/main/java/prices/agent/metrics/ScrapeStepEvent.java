@@ -0,0 +1,26 @@
+package prices.agent.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("prices.agent.ScrapeStep")
+@Label("Scrape Step")
+@Category({"Bank Agent", "Scrape"})
+@StackTrace(false)
+final class ScrapeStepEvent extends Event {
+
+    @Label("Agent")
+    String agent;
+
+    @Label("Step")
+    String step;
+
+    @Label("Instrument")
+    String instrument;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,114 @@
+package prices.agent.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public final class ScrapeTimer {
+
+    public static final String ALL = "all";
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    private static final String METRIC_PREFIX = "agent.scrape";
+    private static final String UNKNOWN_AGENT = "unknown";
+    private static final ThreadLocal<String> AGENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public ScrapeTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "MeterRegistry cannot be null");
+    }
+
+    public Binding bind(String agent) {
+        String previous = AGENT.get();
+        AGENT.set(Objects.requireNonNull(agent, "Agent cannot be null"));
+        return () -> {
+            if (previous == null) {
+                AGENT.remove();
+            } else {
+                AGENT.set(previous);
+            }
+        };
+    }
+
+    public Step start(ScrapeStep step) {
+        return start(step, ALL);
+    }
+
+    public Step start(ScrapeStep step, String instrument) {
+        return new Step(step, instrument, currentAgent());
+    }
+
+    public void selector(String instrument, OptionalInt candidate) {
+        String selector = candidate.isEmpty() ? "miss" : candidate.getAsInt() == 0 ? "primary" : "fallback";
+        meterRegistry.counter(METRIC_PREFIX + ".selector",
+                "agent", currentAgent(), "instrument", instrument, "selector", selector).increment();
+    }
+
+    private static String currentAgent() {
+        String agent = AGENT.get();
+        return agent != null ? agent : UNKNOWN_AGENT;
+    }
+
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    public final class Step implements AutoCloseable {
+
+        private final ScrapeStep step;
+        private final String instrument;
+        private final String agent;
+        private final long startNanos;
+        private final ScrapeStepEvent event;
+        private String outcome = ERROR;
+
+        private Step(ScrapeStep step, String instrument, String agent) {
+            this.step = Objects.requireNonNull(step, "Step cannot be null");
+            this.instrument = Objects.requireNonNull(instrument, "Instrument cannot be null");
+            this.agent = agent;
+            this.event = new ScrapeStepEvent();
+            this.event.begin();
+            this.startNanos = System.nanoTime();
+        }
+
+        public Step success() {
+            return outcome(SUCCESS);
+        }
+
+        public Step outcome(String outcome) {
+            this.outcome = Objects.requireNonNull(outcome, "Outcome cannot be null");
+            return this;
+        }
+
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - startNanos;
+            Timer.builder(METRIC_PREFIX + ".step")
+                    .tag("agent", agent)
+                    .tag("step", step.getTag())
+                    .tag("instrument", instrument)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            event.end();
+            if (event.shouldCommit()) {
+                event.agent = agent;
+                event.step = step.getTag();
+                event.instrument = instrument;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+}
@@ -1,24 +1,36 @@
 package prices.agent.sber.currency;
 
-import org.openqa.selenium.By;
-import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.TimeoutException;
-import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import prices.agent.Agent;
 import prices.agent.AgentConfig;
 import prices.agent.EnumAgentsConfig;
+import prices.agent.JsoupSupport;
+import prices.agent.ScrapeContext;
 import prices.agent.WebDriverSupport;
+import prices.agent.driver.WebDriverPool;
+import prices.agent.driver.WebDriverPools;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.PageFingerprints;
+import prices.agent.extract.PageRequest;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.PriceParser.ParsedPrice;
+import prices.agent.extract.ResponseCapture;
+import prices.agent.extract.SelectorRanking;
+import prices.agent.metrics.ScrapeStep;
+import prices.agent.metrics.ScrapeTimer;
 import shared.dto.Price;
 import shared.enums.Banks;
 import shared.enums.Currency;
 import shared.enums.CurrentPrice;
+import shared.enums.TypePrice;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 
 @Component(CurrencySberAgent.AGENT_NAME)
@@ -27,168 +39,266 @@ public final class CurrencySberAgent implements Agent {
     private static final Logger log = LoggerFactory.getLogger(CurrencySberAgent.class);
 
     public static final String AGENT_NAME = "sber agent current";
-    private static final int MAX_COUNT_CURRENCY = 5;
+    private static final String URL_PLACEHOLDER = "%s";
 
     private final AgentConfig agentConfig;
-    private final WebDriverSupport webDriverSupport;
+    private final String urlTemplate;
+    private final WebDriverPool webDriverPool;
+    private final JsoupSupport jsoupSupport;
+    private final SelectorRanking selectorRanking;
+    private final PriceParser priceParser;
+    private final ScrapeTimer scrapeTimer;
+    private final PageFingerprints pageFingerprints;
+    private final int batchSize;
+    private final int parallelism;
+    private final SberRatesPayloadMapper payloadMapper;
+    private final boolean networkCapture;
+    private final String capturePattern;
+    private final Duration captureTimeout;
 
-    public CurrencySberAgent(@Qualifier("webDriverSupport") WebDriverSupport webDriverSupport) {
+    public CurrencySberAgent(WebDriverPools webDriverPools,
+                             JsoupSupport jsoupSupport,
+                             SelectorRanking selectorRanking,
+                             PriceParser priceParser,
+                             ScrapeTimer scrapeTimer,
+                             PageFingerprints pageFingerprints,
+                             ObjectMapper objectMapper,
+                             @Value("${agent.sber.currency.parallelism:3}") int parallelism,
+                             @Value("${agent.sber.currency.network-capture.enabled:false}") boolean networkCapture,
+                             @Value("${agent.sber.currency.network-capture.url-pattern:rates}") String capturePattern,
+                             @Value("${agent.sber.currency.network-capture.timeout:PT5S}") Duration captureTimeout,
+                             @Value("${agent.sber.base-url:}") String baseUrl,
+                             @Value("${agent.sber.currency.engine:}") String engine) {
         this.agentConfig = EnumAgentsConfig.SBER_CURRENT.getAgentConfig();
-        this.webDriverSupport = webDriverSupport;
+        this.urlTemplate = agentConfig.resolveUrl(baseUrl);
+        this.webDriverPool = webDriverPools.forEngine(agentConfig.resolveEngine(engine));
+        this.jsoupSupport = jsoupSupport;
+        this.selectorRanking = selectorRanking;
+        this.priceParser = priceParser;
+        this.scrapeTimer = scrapeTimer;
+        this.pageFingerprints = pageFingerprints;
+        this.batchSize = countPlaceholders(urlTemplate);
+        this.parallelism = parallelism;
+        this.payloadMapper = new SberRatesPayloadMapper(objectMapper, priceParser);
+        this.networkCapture = networkCapture;
+        this.capturePattern = capturePattern;
+        this.captureTimeout = captureTimeout;
     }
 
     @Override
     public Map<String, Price> getPrices() {
-        webDriverSupport.createDriver();
-        try {
-            List<Currency> currenciesForBank = Currency.getCurrencyByBanks(Banks.SBER);
-            if (currenciesForBank.isEmpty()) {
-                log.warn("No currencies available for bank {}", Banks.SBER);
-                return Map.of();
+        return getPrices(ScrapeContext.unbounded());
+    }
+
+    @Override
+    public Map<String, Price> getPrices(ScrapeContext context) {
+        List<Currency> currenciesForBank = Currency.getCurrencyByBanks(Banks.SBER).stream()
+                .filter(currency -> context.includes(currency.name()))
+                .toList();
+        if (currenciesForBank.isEmpty()) {
+            log.warn("No currencies available for bank {}", Banks.SBER);
+            return Map.of();
+        }
+        List<List<Currency>> fallbackBatches = new ArrayList<>();
+        List<PageRequest> fallbackPages = new ArrayList<>();
+        for (List<Currency> batch : splitIntoBatches(currenciesForBank)) {
+            if (context.isExpired()) {
+                log.warn("Deadline reached before static pass for {}", batch.stream().map(Currency::name).toList());
+                return context.getCollected();
+            }
+            String url = buildUrl(batch);
+            log.debug("Fetching currencies batch: {}",
+                    batch.stream().map(Currency::name).toList());
+            ExtractionPlan plan = compilePlan(batch);
+            String staticPage = PageFingerprints.staticPage(url);
+            Optional<ExtractionResult> staticResult = fetchStatic(url, plan, pageFingerprints.expected(staticPage));
+            staticResult.ifPresent(extracted -> selectorRanking.record(plan, extracted));
+            List<Currency> missing = collectPrices(batch, staticResult.orElseGet(plan::missingAll), context);
+            if (staticResult.isPresent()
+                    && pageFingerprints.observe(staticPage, staticResult.get(), names(batch), context)) {
+                continue;
             }
-            int iterations = calculateIterations(currenciesForBank.size());
-            int index = 0;
-            Map<String, Price> result = new HashMap<>(currenciesForBank.size());
-            while (iterations > 0) {
-                List<Currency> batch = getNextBatch(currenciesForBank, index);
-                String url = buildUrl(batch);
-                log.debug("Fetching currencies batch: {}",
-                        batch.stream().map(Currency::name).toList());
-                webDriverSupport.goToPage(url);
-                for (Currency currency : batch) {
-                    try {
-                        Price price = fetchCurrencyPrice(currency);
-                        if (price != null) {
-                            result.put(currency.name(), price);
+            if (!missing.isEmpty()) {
+                log.debug("Static HTML has no rates for {}, falling back to WebDriver",
+                        missing.stream().map(Currency::name).toList());
+                fallbackBatches.add(missing);
+                fallbackPages.add(new PageRequest(url, compilePlan(missing),
+                        pageFingerprints.expected(PageFingerprints.browserPage(url))));
+            }
+        }
+        if (!fallbackPages.isEmpty() && !context.isExpired()) {
+            try (WebDriverSupport webDriverSupport = webDriverPool.lease(context.remaining())) {
+                if (networkCapture) {
+                    captureAll(webDriverSupport, fallbackBatches, fallbackPages, context);
+                } else {
+                    List<ExtractionResult> extracted = webDriverSupport.extractAll(fallbackPages, parallelism, context);
+                    for (int i = 0; i < extracted.size(); i++) {
+                        if (!extracted.get(i).isComplete()) {
+                            log.warn("Rates not found on page for {}", extracted.get(i).getMisses());
                         }
-                    } catch (Exception e) {
-                        log.error("Failed to fetch price for currency {}: {}",
-                                currency.name(), e.getMessage());
+                        selectorRanking.record(fallbackPages.get(i).plan(), extracted.get(i));
+                        collectPrices(fallbackBatches.get(i), extracted.get(i), context);
+                        pageFingerprints.observe(PageFingerprints.browserPage(fallbackPages.get(i).url()),
+                                extracted.get(i), names(fallbackBatches.get(i)), context);
                     }
                 }
-                index += MAX_COUNT_CURRENCY;
-                iterations--;
             }
-            log.info("Successfully fetched prices for {} currencies", result.size());
-            return result;
-        } finally {
-            webDriverSupport.close();
+        }
+        Map<String, Price> result = context.getCollected();
+        log.info("Successfully fetched prices for {} currencies", result.size());
+        return result;
+    }
+
+    private void captureAll(WebDriverSupport webDriverSupport, List<List<Currency>> batches,
+                            List<PageRequest> pages, ScrapeContext context) {
+        for (int i = 0; i < pages.size() && !context.isExpired(); i++) {
+            List<Currency> batch = batches.get(i);
+            PageRequest page = pages.get(i);
+            Optional<ResponseCapture> capture = ResponseCapture.install(webDriverSupport.getDriver(), capturePattern);
+            try {
+                webDriverSupport.goToPage(page.url());
+                Map<String, Price> captured = capture
+                        .map(c -> payloadMapper.map(c.await(shorter(captureTimeout, context.remaining())), batch))
+                        .orElseGet(Map::of);
+                context.collectAll(captured);
+                List<Currency> missing = batch.stream()
+                        .filter(currency -> !captured.containsKey(currency.name()))
+                        .toList();
+                if (missing.isEmpty()) {
+                    continue;
+                }
+                log.debug("Rates payload has no data for {}, reading rendered DOM",
+                        missing.stream().map(Currency::name).toList());
+                ExtractionPlan plan = compilePlan(missing);
+                ExtractionResult extracted = webDriverSupport.extract(plan, context.budget(missing.size()));
+                selectorRanking.record(plan, extracted);
+                if (!extracted.isComplete()) {
+                    log.warn("Rates not found on page for {}", extracted.getMisses());
+                }
+                collectPrices(missing, extracted, context);
+            } finally {
+                capture.ifPresent(ResponseCapture::close);
+            }
         }
     }
 
+    @Override
+    public List<List<String>> getBatches() {
+        return splitIntoBatches(Currency.getCurrencyByBanks(Banks.SBER)).stream()
+                .map(CurrencySberAgent::names)
+                .toList();
+    }
+
     @Override
     public String getName() {
         return AGENT_NAME;
     }
 
-    private int calculateIterations(int totalCurrencies) {
-        if (totalCurrencies <= 0) {
-            return 0;
-        }
-        return (int) Math.ceil((double) totalCurrencies / MAX_COUNT_CURRENCY);
+    @Override
+    public Banks getBank() {
+        return Banks.SBER;
     }
 
-    private List<Currency> getNextBatch(List<Currency> allCurrencies, int startIndex) {
-        List<Currency> batch = new ArrayList<>(MAX_COUNT_CURRENCY);
-        for (int i = 0; i < MAX_COUNT_CURRENCY && startIndex + i < allCurrencies.size(); i++) {
-            batch.add(allCurrencies.get(startIndex + i));
+    @Override
+    public TypePrice getTypePrice() {
+        return TypePrice.CURRENCY;
+    }
+
+    private List<List<Currency>> splitIntoBatches(List<Currency> allCurrencies) {
+        List<List<Currency>> batches = new ArrayList<>();
+        for (int index = 0; index < allCurrencies.size(); index += batchSize) {
+            batches.add(allCurrencies.subList(index, Math.min(index + batchSize, allCurrencies.size())));
         }
-        return batch;
+        return batches;
     }
 
     private String buildUrl(List<Currency> batch) {
-        String[] currencyCodes = new String[MAX_COUNT_CURRENCY];
-        for (int i = 0; i < MAX_COUNT_CURRENCY; i++) {
+        Object[] currencyCodes = new Object[batchSize];
+        for (int i = 0; i < batchSize; i++) {
             currencyCodes[i] = (i < batch.size()) ? batch.get(i).name() : "";
         }
-        return String.format(agentConfig.getUrl(),
-                currencyCodes[0], currencyCodes[1], currencyCodes[2],
-                currencyCodes[3], currencyCodes[4]);
+        return String.format(urlTemplate, currencyCodes);
+    }
+
+    private static int countPlaceholders(String urlTemplate) {
+        int count = 0;
+        for (int index = urlTemplate.indexOf(URL_PLACEHOLDER); index >= 0;
+             index = urlTemplate.indexOf(URL_PLACEHOLDER, index + URL_PLACEHOLDER.length())) {
+            count++;
+        }
+        if (count == 0) {
+            throw new IllegalStateException("Currency URL template has no placeholders: " + urlTemplate);
+        }
+        return count;
+    }
+
+    private ExtractionPlan compilePlan(List<Currency> currencies) {
+        Map<String, List<Object>> instruments = new LinkedHashMap<>(currencies.size());
+        for (Currency currency : currencies) {
+            instruments.put(currency.name(), List.of(currency.getDisplayName(), currency.name()));
+        }
+        return selectorRanking.rank(ExtractionPlan.compile(agentConfig, instruments));
     }
 
-    private Price fetchCurrencyPrice(Currency currency) {
-        try {
-            BigDecimal buyPrice = getCurrencyPrice(currency, CurrentPrice.BUY);
-            BigDecimal sellPrice = getCurrencyPrice(currency, CurrentPrice.SELL);
+    private static Duration shorter(Duration first, Duration second) {
+        return first.compareTo(second) < 0 ? first : second;
+    }
 
+    private List<Currency> collectPrices(List<Currency> currencies, ExtractionResult extracted,
+                                         ScrapeContext context) {
+        List<Currency> missing = new ArrayList<>(currencies.size());
+        for (Currency currency : currencies) {
+            BigDecimal buyPrice = extracted.text(currency.name(), CurrentPrice.BUY)
+                    .map(text -> parsePrice(currency, CurrentPrice.BUY, text))
+                    .orElse(null);
+            BigDecimal sellPrice = extracted.text(currency.name(), CurrentPrice.SELL)
+                    .map(text -> parsePrice(currency, CurrentPrice.SELL, text))
+                    .orElse(null);
             if (buyPrice != null && sellPrice != null) {
-                return Price.createWithCurrentTime(
+                context.collect(currency.name(), Price.createWithCurrentTime(
                         Banks.SBER,
                         currency.getDisplayName(),
                         buyPrice,
                         sellPrice
-                );
+                ));
+            } else {
+                missing.add(currency);
             }
-            return null;
-        } catch (TimeoutException e) {
-            log.warn("Timeout fetching price for {}: {}", currency.name(), e.getMessage());
-            return null;
-        } catch (NoSuchElementException e) {
-            log.warn("Element not found for {}: {}", currency.name(), e.getMessage());
-            return null;
-        } catch (Exception e) {
-            log.error("Unexpected error fetching price for {}: {}", currency.name(), e.getMessage());
-            return null;
         }
+        return missing;
     }
 
-    private BigDecimal getCurrencyPrice(Currency currency, CurrentPrice currentPrice) {
-        Optional<WebElement> webElementOpt = getWebElement(currency, currentPrice);
-        if (webElementOpt.isEmpty()) {
-            log.debug("WebElement not found for {} {}", currency.name(), currentPrice);
-            return null;
-        }
-        WebElement webElement = webElementOpt.get();
-        String text = webElement.getText();
-        if (text == null || text.isBlank()) {
-            log.debug("Empty text for {} {}", currency.name(), currentPrice);
-            return null;
-        }
-        try {
-            String clean = text.replaceAll("[^\\d,\\.]", "").replace(',', '.');
-            return new BigDecimal(clean);
-        } catch (NumberFormatException e) {
-            log.warn("Invalid price format for {} {}: '{}'",
-                    currency.name(), currentPrice, text);
-            return null;
+    private Optional<ExtractionResult> fetchStatic(String url, ExtractionPlan plan, OptionalLong expected) {
+        try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.STATIC_FETCH)) {
+            Optional<ExtractionResult> result = jsoupSupport.load(url)
+                    .map(document -> plan.execute(document, expected));
+            step.outcome(result.map(CurrencySberAgent::outcomeOf).orElse("unavailable"));
+            return result;
         }
     }
 
-    private Optional<WebElement> getWebElement(Currency currency, CurrentPrice currentPrice) {
-        String index = switch (currentPrice) {
-            case BUY -> agentConfig.getIndexBuy();
-            case SELL -> agentConfig.getIndexSell();
-        };
-        try {
-            WebElement element = webDriverSupport.getWebDriver()
-                    .until(ExpectedConditions.presenceOfElementLocated(
-                            By.xpath(String.format(agentConfig.getWebElement(),
-                                    currency.getDisplayName(), currency.name(), index))
-                    ));
-            return Optional.of(element);
-        } catch (TimeoutException e) {
-            log.debug("Primary XPath failed for {} {}, trying alternative...",
-                    currency.name(), currentPrice);
-            return tryAlternativeXPath(currency, index);
+    private static String outcomeOf(ExtractionResult extracted) {
+        if (extracted.isUnchanged()) {
+            return "unchanged";
         }
+        return extracted.isComplete() ? "complete" : "partial";
+    }
+
+    private static List<String> names(List<Currency> currencies) {
+        return currencies.stream().map(Currency::name).toList();
     }
 
-    private Optional<WebElement> tryAlternativeXPath(Currency currency, String index) {
-        try {
-            String alternativeXPath = String.format(
-                    "//div[contains(@class, 'rates') or contains(@class, 'currency')]" +
-                            "//div[contains(., '%s')]" +
-                            "//div[contains(@class, 'price') or contains(@class, 'value')][%s]",
-                    currency.name(), index
-            );
-            WebElement element = webDriverSupport.getWebDriver()
-                    .until(ExpectedConditions.presenceOfElementLocated(
-                            By.xpath(alternativeXPath)
-                    ));
-            return Optional.of(element);
-        } catch (TimeoutException e) {
-            log.debug("Alternative XPath also failed for {} {}", currency.name(), index);
-            return Optional.empty();
+    private BigDecimal parsePrice(Currency currency, CurrentPrice currentPrice, String text) {
+        try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.PARSE, currency.name())) {
+            ParsedPrice parsed = priceParser.parse(text);
+            if (!parsed.isValid()) {
+                step.outcome("invalid");
+                log.warn("Invalid price format for {} {}: '{}' ({} at {})",
+                        currency.name(), currentPrice, text, parsed.error(), parsed.errorIndex());
+                return null;
+            }
+            step.success();
+            return parsed.toBigDecimal();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,9 @@
 package prices.agent.sber.currency;
 
 import prices.agent.AgentConfig;
-import prices.agent.sber.metal.SberAgentMetalConfig;
+
+import java.util.List;
+import java.util.Optional;
 
 public enum SberAgentCurrencyConfig implements AgentConfig {
     SBER_AGENT_CURRENCY(CurrencySberAgent.AGENT_NAME),
@@ -18,6 +20,10 @@ public enum SberAgentCurrencyConfig implements AgentConfig {
             + "//div[contains(@class, 'rates-form-new-table-row__col-wrap')]"
             + "//div[%s]"
             + "//div[contains(@class, 'dk-sbol-text') and contains(text(), '₽')]"),
+    RATES_CONTAINER("//div[starts-with(@class, 'TabContainer') and not(contains(substring-after(@class, 'TabContainer'), ' '))]"),
+    ALTERNATIVE_WEB_ELEMENT("//div[contains(@class, 'rates') or contains(@class, 'currency')]"
+            + "//div[contains(., '%2$s')]"
+            + "//div[contains(@class, 'price') or contains(@class, 'value')][%3$s]"),
     INDEX_BUY("1"),
     INDEX_SELL("2");
 
@@ -41,6 +47,16 @@ public enum SberAgentCurrencyConfig implements AgentConfig {
         return WEB_ELEMENT.getConfig();
     }
 
+    @Override
+    public List<String> getAlternativeWebElements() {
+        return List.of(ALTERNATIVE_WEB_ELEMENT.getConfig());
+    }
+
+    @Override
+    public Optional<String> getRatesContainer() {
+        return Optional.of(RATES_CONTAINER.getConfig());
+    }
+
     @Override
     public String getIndexBuy() {
         return INDEX_BUY.getConfig();
@@ -0,0 +1,109 @@
+package prices.agent.sber.currency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.PriceParser.ParsedPrice;
+import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.Currency;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+public final class SberRatesPayloadMapper {
+
+    private static final Logger log = LoggerFactory.getLogger(SberRatesPayloadMapper.class);
+
+    private static final List<String> ISO_FIELDS = List.of("isoCode", "isoCur", "currencyCode", "iso");
+    private static final List<String> BUY_FIELDS = List.of("rateBuy", "buyValue", "buy");
+    private static final List<String> SELL_FIELDS = List.of("rateSell", "sellValue", "sell");
+    private static final String RATE_LIST_FIELD = "rateList";
+
+    private final ObjectMapper objectMapper;
+    private final PriceParser priceParser;
+
+    public SberRatesPayloadMapper(ObjectMapper objectMapper, PriceParser priceParser) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "ObjectMapper cannot be null");
+        this.priceParser = Objects.requireNonNull(priceParser, "PriceParser cannot be null");
+    }
+
+    public Map<String, Price> map(List<String> bodies, Collection<Currency> wanted) {
+        Map<String, Price> result = new HashMap<>(wanted.size());
+        for (String body : bodies) {
+            try {
+                collect(objectMapper.readTree(body), wanted, result);
+            } catch (JsonProcessingException e) {
+                log.debug("Skipping non-JSON rates payload: {}", e.getOriginalMessage());
+            }
+        }
+        return result;
+    }
+
+    private void collect(JsonNode node, Collection<Currency> wanted, Map<String, Price> result) {
+        if (node == null) {
+            return;
+        }
+        if (node.isObject()) {
+            findCurrency(node, wanted)
+                    .filter(currency -> !result.containsKey(currency.name()))
+                    .ifPresent(currency -> toPrice(node, currency)
+                            .ifPresent(price -> result.put(currency.name(), price)));
+        }
+        if (node.isContainerNode()) {
+            for (JsonNode child : node) {
+                collect(child, wanted, result);
+            }
+        }
+    }
+
+    private Optional<Currency> findCurrency(JsonNode node, Collection<Currency> wanted) {
+        return firstText(node, ISO_FIELDS)
+                .flatMap(Currency::fromCode)
+                .filter(wanted::contains);
+    }
+
+    private Optional<Price> toPrice(JsonNode node, Currency currency) {
+        JsonNode rates = node.path(RATE_LIST_FIELD).isArray() && !node.path(RATE_LIST_FIELD).isEmpty()
+                ? node.path(RATE_LIST_FIELD).get(0)
+                : node;
+        Optional<BigDecimal> buy = firstDecimal(rates, BUY_FIELDS);
+        Optional<BigDecimal> sell = firstDecimal(rates, SELL_FIELDS);
+        if (buy.isEmpty() || sell.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(Price.createWithCurrentTime(Banks.SBER, currency.getDisplayName(), buy.get(), sell.get()));
+    }
+
+    private Optional<String> firstText(JsonNode node, List<String> fields) {
+        for (String field : fields) {
+            JsonNode value = node.get(field);
+            if (value != null && value.isTextual() && !value.asText().isBlank()) {
+                return Optional.of(value.asText());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<BigDecimal> firstDecimal(JsonNode node, List<String> fields) {
+        for (String field : fields) {
+            JsonNode value = node.get(field);
+            if (value == null) {
+                continue;
+            }
+            if (value.isNumber()) {
+                return Optional.of(value.decimalValue());
+            }
+            if (value.isTextual()) {
+                ParsedPrice parsed = priceParser.parse(value.asText());
+                if (parsed.isValid()) {
+                    return Optional.of(parsed.toBigDecimal());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
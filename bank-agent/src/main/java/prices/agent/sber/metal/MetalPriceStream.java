@@ -0,0 +1,194 @@
+package prices.agent.sber.metal;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import prices.agent.ScrapeContext;
+import prices.agent.WebDriverSupport;
+import prices.agent.driver.WebDriverPool;
+import prices.agent.metrics.ScrapeStep;
+import prices.agent.metrics.ScrapeTimer;
+import prices.service.PriceService;
+import shared.dto.Price;
+import shared.enums.TypePrice;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Component
+@ConditionalOnProperty(name = "agent.sber.metal.streaming.enabled", havingValue = "true")
+public final class MetalPriceStream implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MetalPriceStream.class);
+    private static final Duration DEFAULT_SCRIPT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration SCRIPT_TIMEOUT_MARGIN = Duration.ofSeconds(5);
+
+    private static final String INSTALL_SCRIPT =
+            "var selector = arguments[0];" +
+            "if (window.__agentObserver) { window.__agentObserver.disconnect(); }" +
+            "window.__agentChanges = 0;" +
+            "window.__agentWake = null;" +
+            "window.__agentObserver = new MutationObserver(function (mutations) {" +
+            "  for (var i = 0; i < mutations.length; i++) {" +
+            "    var node = mutations[i].target;" +
+            "    var element = node.nodeType === 1 ? node : node.parentElement;" +
+            "    if (element && element.closest && element.closest(selector)) {" +
+            "      window.__agentChanges++;" +
+            "      if (window.__agentWake) { var wake = window.__agentWake; window.__agentWake = null; wake(true); }" +
+            "      return;" +
+            "    }" +
+            "  }" +
+            "});" +
+            "window.__agentObserver.observe(document.body, {subtree: true, childList: true, characterData: true});";
+
+    private static final String AWAIT_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+            "if (!window.__agentObserver) { done(null); return; }" +
+            "if (window.__agentChanges > 0) { window.__agentChanges = 0; done(true); return; }" +
+            "var timer = setTimeout(function () { window.__agentWake = null; done(false); }, arguments[0]);" +
+            "window.__agentWake = function (changed) { clearTimeout(timer); window.__agentChanges = 0; done(changed); };";
+
+    private final MetalSberAgent metalAgent;
+    private final ScrapeTimer scrapeTimer;
+    private final WebDriverPool webDriverPool;
+    private final PriceService priceService;
+    private final String cellSelector;
+    private final Duration idleTimeout;
+    private final Duration staleAfter;
+    private final Duration retryDelay;
+
+    private final Map<String, Price> lastPushed = new HashMap<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    public MetalPriceStream(MetalSberAgent metalAgent,
+                            PriceService priceService,
+                            ScrapeTimer scrapeTimer,
+                            @Value("${agent.sber.metal.streaming.cell-selector:.rfn-table-row__col}") String cellSelector,
+                            @Value("${agent.sber.metal.streaming.idle-timeout:PT1M}") Duration idleTimeout,
+                            @Value("${agent.sber.metal.streaming.stale-after:PT15M}") Duration staleAfter,
+                            @Value("${agent.sber.metal.streaming.retry-delay:PT30S}") Duration retryDelay) {
+        this.metalAgent = Objects.requireNonNull(metalAgent, "MetalAgent cannot be null");
+        this.webDriverPool = metalAgent.getWebDriverPool();
+        this.priceService = Objects.requireNonNull(priceService, "PriceService cannot be null");
+        this.scrapeTimer = Objects.requireNonNull(scrapeTimer, "ScrapeTimer cannot be null");
+        this.cellSelector = cellSelector;
+        this.idleTimeout = idleTimeout;
+        this.staleAfter = staleAfter;
+        this.retryDelay = retryDelay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "sber-metal-stream");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Metal price streaming started for {}", metalAgent.getUrl());
+    }
+
+    @Override
+    public synchronized void destroy() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        try (ScrapeTimer.Binding ignored = scrapeTimer.bind(metalAgent.getKey())) {
+            while (running) {
+                try (WebDriverSupport webDriverSupport = webDriverPool.lease()) {
+                    stream(webDriverSupport);
+                    continue;
+                } catch (WebDriverException | IllegalStateException e) {
+                    log.warn("Metal price stream session lost: {}", e.getMessage());
+                }
+                if (running && !pause(retryDelay)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void stream(WebDriverSupport webDriverSupport) {
+        JavascriptExecutor executor = (JavascriptExecutor) webDriverSupport.getDriver();
+        webDriverSupport.getDriver().manage().timeouts().scriptTimeout(idleTimeout.plus(SCRIPT_TIMEOUT_MARGIN));
+        try {
+            openSession(webDriverSupport, executor);
+            long lastChange = System.currentTimeMillis();
+            while (running) {
+                Object changed = executor.executeAsyncScript(AWAIT_SCRIPT, idleTimeout.toMillis());
+                if (changed == null) {
+                    log.debug("Metal page lost its observer, reopening session");
+                    return;
+                }
+                if (Boolean.TRUE.equals(changed)) {
+                    lastChange = System.currentTimeMillis();
+                    publishChanges(webDriverSupport);
+                } else if (System.currentTimeMillis() - lastChange > staleAfter.toMillis()) {
+                    log.info("No metal quote changes for {}, reloading page on a fresh driver", staleAfter);
+                    return;
+                }
+            }
+        } finally {
+            webDriverSupport.getDriver().manage().timeouts().scriptTimeout(DEFAULT_SCRIPT_TIMEOUT);
+        }
+    }
+
+    private void openSession(WebDriverSupport webDriverSupport, JavascriptExecutor executor) {
+        webDriverSupport.goToPage(metalAgent.getUrl());
+        publishChanges(webDriverSupport);
+        executor.executeScript(INSTALL_SCRIPT, cellSelector);
+    }
+
+    private void publishChanges(WebDriverSupport webDriverSupport) {
+        Map<String, Price> current = metalAgent.getMetalsPrices(webDriverSupport.extract(metalAgent.getPlan()),
+                ScrapeContext.unbounded());
+        Map<String, Price> changed = new HashMap<>();
+        for (Map.Entry<String, Price> entry : current.entrySet()) {
+            Price previous = lastPushed.get(entry.getKey());
+            if (previous == null || !samePrice(previous, entry.getValue())) {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.PERSIST)) {
+            priceService.savePrices(TypePrice.METAL, changed);
+            step.success();
+            lastPushed.putAll(changed);
+            log.debug("Streamed metal quote changes: {}", changed.keySet());
+        } catch (Exception e) {
+            log.error("Failed to save streamed metal prices: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean samePrice(Price previous, Price current) {
+        return previous.buyPrice().compareTo(current.buyPrice()) == 0 &&
+                previous.sellPrice().compareTo(current.sellPrice()) == 0;
+    }
+
+    private boolean pause(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,87 +1,213 @@
 package prices.agent.sber.metal;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import shared.dto.Price;
 import shared.enums.Banks;
 import shared.enums.CurrentPrice;
+import shared.enums.TypePrice;
 import shared.enums.Metal;
-import org.openqa.selenium.By;
-import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import prices.agent.Agent;
 import prices.agent.AgentConfig;
 import prices.agent.EnumAgentsConfig;
+import prices.agent.JsoupSupport;
+import prices.agent.ScrapeContext;
 import prices.agent.WebDriverSupport;
+import prices.agent.driver.WebDriverPool;
+import prices.agent.driver.WebDriverPools;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.PageFingerprints;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.PriceParser.ParsedPrice;
+import prices.agent.extract.SelectorRanking;
+import prices.agent.metrics.ScrapeStep;
+import prices.agent.metrics.ScrapeTimer;
 
-import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Component(MetalSberAgent.AGENT_NAME)
 public final class MetalSberAgent implements Agent {
 
+    private static final Logger log = LoggerFactory.getLogger(MetalSberAgent.class);
+
     public static final String AGENT_NAME = "sber agent metal";
+    private static final List<String> INSTRUMENTS = Arrays.stream(Metal.values()).map(Metal::name).toList();
 
     private final AgentConfig agentConfig;
-    private final WebDriverSupport webDriverSupport;
+    private final String url;
+    private final WebDriverPool webDriverPool;
+    private final JsoupSupport jsoupSupport;
+    private final SelectorRanking selectorRanking;
+    private final PriceParser priceParser;
+    private final ScrapeTimer scrapeTimer;
+    private final PageFingerprints pageFingerprints;
+    private final ExtractionPlan plan;
+    private final boolean streaming;
 
-    public MetalSberAgent(@Qualifier("webDriverSupport") WebDriverSupport webDriverSupport) {
+    public MetalSberAgent(WebDriverPools webDriverPools, JsoupSupport jsoupSupport,
+                          SelectorRanking selectorRanking, PriceParser priceParser, ScrapeTimer scrapeTimer,
+                          PageFingerprints pageFingerprints,
+                          @Value("${agent.sber.base-url:}") String baseUrl,
+                          @Value("${agent.sber.metal.engine:}") String engine,
+                          @Value("${agent.sber.metal.streaming.enabled:false}") boolean streaming) {
         this.agentConfig = EnumAgentsConfig.SBER_METAL.getAgentConfig();
-        this.webDriverSupport = webDriverSupport;
+        this.url = agentConfig.resolveUrl(baseUrl);
+        this.webDriverPool = webDriverPools.forEngine(agentConfig.resolveEngine(engine));
+        this.jsoupSupport = jsoupSupport;
+        this.selectorRanking = selectorRanking;
+        this.priceParser = priceParser;
+        this.scrapeTimer = scrapeTimer;
+        this.pageFingerprints = pageFingerprints;
+        this.plan = compilePlan();
+        this.streaming = streaming;
     }
 
 
     @Override
     public Map<String, Price> getPrices() {
-        webDriverSupport.createDriver();
-        try {
-            webDriverSupport.goToPage(agentConfig.getUrl());
-            return getMetalsPrices();
-        } finally {
-            webDriverSupport.close();
+        return getPrices(ScrapeContext.unbounded());
+    }
+
+    @Override
+    public Map<String, Price> getPrices(ScrapeContext context) {
+        List<String> metals = INSTRUMENTS.stream().filter(context::includes).toList();
+        if (metals.isEmpty()) {
+            log.warn("No metals requested for bank {}", Banks.SBER);
+            return context.getCollected();
+        }
+        ExtractionPlan plan = getPlan();
+        String staticPage = PageFingerprints.staticPage(url);
+        Optional<ExtractionResult> staticResult;
+        try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.STATIC_FETCH)) {
+            staticResult = jsoupSupport.load(url)
+                    .map(document -> plan.execute(document, pageFingerprints.expected(staticPage)));
+            step.outcome(staticResult.map(MetalSberAgent::outcomeOf).orElse("unavailable"));
+        }
+        staticResult.ifPresent(result -> selectorRanking.record(plan, result));
+        if (staticResult.isPresent()) {
+            context.collectAll(getMetalsPrices(staticResult.get(), context));
+            if (pageFingerprints.observe(staticPage, staticResult.get(), metals, context)) {
+                log.debug("Metal rates page unchanged, skipping extraction");
+                return context.getCollected();
+            }
+            List<String> missing = missingMetals(metals, context);
+            if (missing.isEmpty()) {
+                return context.getCollected();
+            }
+            log.debug("Static HTML has no rates for metals {}, falling back to WebDriver", missing);
+        }
+        if (context.isExpired()) {
+            log.warn("Deadline reached before WebDriver fallback for metals");
+            return context.getCollected();
+        }
+        String browserPage = PageFingerprints.browserPage(url);
+        try (WebDriverSupport webDriverSupport = webDriverPool.lease(context.remaining())) {
+            webDriverSupport.goToPage(url);
+            ExtractionResult extracted = webDriverSupport.extract(plan, context.budget(plan.instrumentCount()),
+                    pageFingerprints.expected(browserPage));
+            selectorRanking.record(plan, extracted);
+            if (!extracted.isComplete()) {
+                log.warn("Rates not found on page for {}", extracted.getMisses());
+            }
+            context.collectAll(getMetalsPrices(extracted, context));
+            pageFingerprints.observe(browserPage, extracted, metals, context);
+            return context.getCollected();
         }
     }
 
+    private static List<String> missingMetals(List<String> metals, ScrapeContext context) {
+        Map<String, Price> collected = context.getCollected();
+        return metals.stream()
+                .filter(metal -> !collected.containsKey(metal))
+                .toList();
+    }
+
+    private static String outcomeOf(ExtractionResult extracted) {
+        if (extracted.isUnchanged()) {
+            return "unchanged";
+        }
+        return extracted.isComplete() ? "complete" : "partial";
+    }
+
+    @Override
+    public boolean isScheduled() {
+        return !streaming;
+    }
+
     @Override
     public String getName() {
         return AGENT_NAME;
     }
 
-    private Map<String, Price> getMetalsPrices() {
-        Map<String, Price> result = new HashMap<>(Metal.values().length);
-        for (Metal metal : Metal.values()) {
-            Price price = getMetalPrice(metal);
-            result.put(metal.name(), price);
-        }
-        return result;
+    @Override
+    public Banks getBank() {
+        return Banks.SBER;
+    }
+
+    @Override
+    public TypePrice getTypePrice() {
+        return TypePrice.METAL;
+    }
+
+    String getUrl() {
+        return url;
     }
 
-    private Price getMetalPrice(Metal metal) {
-        return Price.createWithCurrentTime(
-                Banks.SBER,
-                metal.getDisplayName(),
-                getMetalPriceValue(metal, CurrentPrice.BUY),
-                getMetalPriceValue(metal, CurrentPrice.SELL)
-        );
+    WebDriverPool getWebDriverPool() {
+        return webDriverPool;
     }
 
-    private BigDecimal getMetalPriceValue(Metal metal, CurrentPrice currentPrice) {
-        WebElement webElement = getWebElement(metal, currentPrice);
-        String clean = webElement.getText().replaceAll("[^\\d,\\.]", "").replace(',', '.');
-        return new BigDecimal(clean);
+    ExtractionPlan getPlan() {
+        return selectorRanking.rank(plan);
     }
 
-    private WebElement getWebElement(Metal metal, CurrentPrice currentPrice) {
-        String index = switch (currentPrice) {
-            case BUY -> agentConfig.getIndexBuy();
-            case SELL -> agentConfig.getIndexSell();
-        };
-        return webDriverSupport.getWebDriver().until(
-                ExpectedConditions.presenceOfElementLocated(
-                        By.xpath(String.format(agentConfig.getWebElement(),
-                                metal.getDisplayName(), index))
-                )
-        );
+    private ExtractionPlan compilePlan() {
+        Map<String, List<Object>> instruments = new LinkedHashMap<>(Metal.values().length);
+        for (Metal metal : Metal.values()) {
+            instruments.put(metal.name(), List.of(metal.getDisplayName()));
+        }
+        return ExtractionPlan.compile(agentConfig, instruments);
+    }
+
+    Map<String, Price> getMetalsPrices(ExtractionResult extracted, ScrapeContext context) {
+        Map<String, Price> result = new HashMap<>(Metal.values().length);
+        for (Metal metal : Metal.values()) {
+            if (!context.includes(metal.name())) {
+                continue;
+            }
+            Optional<String> buy = extracted.text(metal.name(), CurrentPrice.BUY);
+            Optional<String> sell = extracted.text(metal.name(), CurrentPrice.SELL);
+            if (buy.isEmpty() || sell.isEmpty()) {
+                continue;
+            }
+            ParsedPrice buyPrice;
+            ParsedPrice sellPrice;
+            try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.PARSE, metal.name())) {
+                buyPrice = priceParser.parse(buy.get());
+                sellPrice = priceParser.parse(sell.get());
+                if (!buyPrice.isValid() || !sellPrice.isValid()) {
+                    step.outcome("invalid");
+                    log.warn("Invalid price format for {}: buy='{}' ({}), sell='{}' ({})",
+                            metal.name(), buy.get(), buyPrice.error(), sell.get(), sellPrice.error());
+                    continue;
+                }
+                step.success();
+            }
+            result.put(metal.name(), Price.createWithCurrentTime(
+                    Banks.SBER,
+                    metal.getDisplayName(),
+                    buyPrice.toBigDecimal(),
+                    sellPrice.toBigDecimal()
+            ));
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
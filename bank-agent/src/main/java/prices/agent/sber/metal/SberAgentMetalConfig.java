@@ -2,6 +2,9 @@ package prices.agent.sber.metal;
 
 import prices.agent.AgentConfig;
 
+import java.time.Duration;
+import java.util.Optional;
+
 public enum SberAgentMetalConfig implements AgentConfig {
 
     SBER_AGENT_METAL(MetalSberAgent.AGENT_NAME),
@@ -12,6 +15,7 @@ public enum SberAgentMetalConfig implements AgentConfig {
             "//div[contains(@class, 'rfn-table-row__price_main')]" +
             "//div[contains(@class, 'rfn-table-row__col')]" +
             "[%s]"),
+    RATES_CONTAINER("//div[contains(concat(' ', normalize-space(@class), ' '), ' rfn-table ')]"),
     INDEX_BUY("3"),
     INDEX_SELL("2");
 
@@ -35,6 +39,16 @@ public enum SberAgentMetalConfig implements AgentConfig {
         return WEB_ELEMENT.getConfig();
     }
 
+    @Override
+    public Optional<String> getRatesContainer() {
+        return Optional.of(RATES_CONTAINER.getConfig());
+    }
+
+    @Override
+    public Duration getReadyTimeout() {
+        return Duration.ofSeconds(15);
+    }
+
     @Override
     public String getIndexBuy() {
         return INDEX_BUY.getConfig();
@@ -1,7 +1,9 @@
 package prices.builder;
 
+import shared.dto.Candle;
 import shared.dto.Price;
 import jakarta.validation.constraints.NotNull;
+import prices.model.PriceCandle;
 import prices.model.Priced;
 
 import java.util.Objects;
@@ -30,4 +32,23 @@ public final class PriceBuilder {
         }
         return Optional.of(buildPrice(priced));
     }
-}
\ No newline at end of file
+
+    public static Candle buildCandle(@NotNull PriceCandle candle) {
+        Objects.requireNonNull(candle, "Candle cannot be null");
+        return new Candle(
+                candle.getBank(),
+                candle.getName(),
+                candle.getBucketStart(),
+                candle.getBucketStart() + candle.getResolution().getMillis(),
+                candle.getBuyOpen(),
+                candle.getBuyHigh(),
+                candle.getBuyLow(),
+                candle.getBuyClose(),
+                candle.getSellOpen(),
+                candle.getSellHigh(),
+                candle.getSellLow(),
+                candle.getSellClose(),
+                candle.getSamples()
+        );
+    }
+}
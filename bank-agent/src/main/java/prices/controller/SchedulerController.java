@@ -0,0 +1,26 @@
+package prices.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import prices.scheduler.ScheduledPriceUpdater;
+import prices.scheduler.ScrapeJobStatus;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/agents")
+public final class SchedulerController {
+
+    private final ScheduledPriceUpdater scheduledPriceUpdater;
+
+    public SchedulerController(ScheduledPriceUpdater scheduledPriceUpdater) {
+        this.scheduledPriceUpdater = scheduledPriceUpdater;
+    }
+
+    @GetMapping("/schedule")
+    public ResponseEntity<List<ScrapeJobStatus>> getSchedule() {
+        return ResponseEntity.ok(scheduledPriceUpdater.getStatuses());
+    }
+}
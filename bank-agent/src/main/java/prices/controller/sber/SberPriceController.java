@@ -1,12 +1,19 @@
 package prices.controller.sber;
 
+import shared.dto.Candle;
 import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.TypePrice;
+import shared.exception.BadRequestException;
 import shared.exception.NotFoundException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import prices.builder.PriceBuilder;
+import prices.model.CandleResolution;
 import prices.repository.CurrencyPriceRepository;
+import prices.repository.LatestPriceRepository;
 import prices.repository.MetalPriceRepository;
+import prices.repository.PriceCandleRepository;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,16 +24,22 @@ public final class SberPriceController {
 
     private final MetalPriceRepository metalRepository;
     private final CurrencyPriceRepository currencyRepository;
+    private final LatestPriceRepository latestRepository;
+    private final PriceCandleRepository candleRepository;
 
     public SberPriceController(MetalPriceRepository metalRepository,
-                               CurrencyPriceRepository currencyRepository) {
+                               CurrencyPriceRepository currencyRepository,
+                               LatestPriceRepository latestRepository,
+                               PriceCandleRepository candleRepository) {
         this.metalRepository = metalRepository;
         this.currencyRepository = currencyRepository;
+        this.latestRepository = latestRepository;
+        this.candleRepository = candleRepository;
     }
 
     @GetMapping("/metal/lastprice/{metalName}")
     public ResponseEntity<Price> getSberLatestMetal(@PathVariable String metalName) {
-        return metalRepository.findLatestByName(metalName)
+        return latestRepository.findByBankAndTypeAndName(Banks.SBER.name(), TypePrice.METAL.name(), metalName)
                 .map(PriceBuilder::buildPrice)
                 .map(ResponseEntity::ok)
                 .orElseThrow(() -> new NotFoundException("Metal not found: " + metalName));
@@ -34,7 +47,7 @@ public final class SberPriceController {
 
     @GetMapping("/metal/all")
     public ResponseEntity<List<Price>> getSberAllMetal() {
-        List<Price> prices = metalRepository.findLatestUniqueByName()
+        List<Price> prices = latestRepository.findByBankAndTypeOrderByName(Banks.SBER.name(), TypePrice.METAL.name())
                 .stream()
                 .map(PriceBuilder::buildPrice)
                 .collect(Collectors.toUnmodifiableList());
@@ -53,9 +66,18 @@ public final class SberPriceController {
         return ResponseEntity.ok(prices);
     }
 
+    @GetMapping(value = "/metal/history/{metalName}", params = {"resolution", "resolution!=raw"})
+    public ResponseEntity<List<Candle>> getCandlesMetal(
+            @PathVariable String metalName,
+            @RequestParam Long from,
+            @RequestParam Long to,
+            @RequestParam String resolution) {
+        return ResponseEntity.ok(candles(TypePrice.METAL, metalName, resolution, from, to));
+    }
+
     @GetMapping("/currency/lastprice/{currencyName}")
     public ResponseEntity<Price> getSberLatestCurrency(@PathVariable String currencyName) {
-        return currencyRepository.findLatestByName(currencyName)
+        return latestRepository.findByBankAndTypeAndName(Banks.SBER.name(), TypePrice.CURRENCY.name(), currencyName)
                 .map(PriceBuilder::buildPrice)
                 .map(ResponseEntity::ok)
                 .orElseThrow(() -> new NotFoundException("Currency not found: " + currencyName));
@@ -63,7 +85,7 @@ public final class SberPriceController {
 
     @GetMapping("/currency/all")
     public ResponseEntity<List<Price>> getSberAllCurrency() {
-        List<Price> prices = currencyRepository.findLatestUniqueByName()
+        List<Price> prices = latestRepository.findByBankAndTypeOrderByName(Banks.SBER.name(), TypePrice.CURRENCY.name())
                 .stream()
                 .map(PriceBuilder::buildPrice)
                 .collect(Collectors.toUnmodifiableList());
@@ -75,10 +97,30 @@ public final class SberPriceController {
             @PathVariable String currencyName,
             @RequestParam Long from,
             @RequestParam Long to) {
-        List<Price> prices = currencyRepository.findByNameAndTimestampBetweenOrderByTimestampAsc(currencyName, from, to)
+        List<Price> prices = currencyRepository
+                .findByNameAndTimestampBetweenOrderByTimestampAsc(currencyName, from, to)
                 .stream()
                 .map(PriceBuilder::buildPrice)
                 .collect(Collectors.toUnmodifiableList());
         return ResponseEntity.ok(prices);
     }
-}
\ No newline at end of file
+
+    @GetMapping(value = "/currency/history/{currencyName}", params = {"resolution", "resolution!=raw"})
+    public ResponseEntity<List<Candle>> getCandlesCurrency(
+            @PathVariable String currencyName,
+            @RequestParam Long from,
+            @RequestParam Long to,
+            @RequestParam String resolution) {
+        return ResponseEntity.ok(candles(TypePrice.CURRENCY, currencyName, resolution, from, to));
+    }
+
+    private List<Candle> candles(TypePrice typePrice, String name, String resolution, Long from, Long to) {
+        CandleResolution candleResolution = CandleResolution.fromName(resolution)
+                .orElseThrow(() -> new BadRequestException("Unknown resolution: " + resolution));
+        return candleRepository.findRange(Banks.SBER.name(), typePrice.name(), name, candleResolution.name(),
+                        candleResolution.bucketStart(from), to)
+                .stream()
+                .map(PriceBuilder::buildCandle)
+                .collect(Collectors.toUnmodifiableList());
+    }
+}
@@ -0,0 +1,36 @@
+package prices.model;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+public enum CandleResolution {
+    MINUTE(Duration.ofMinutes(1)),
+    HOUR(Duration.ofHours(1)),
+    DAY(Duration.ofDays(1));
+
+    private final long millis;
+
+    CandleResolution(Duration duration) {
+        this.millis = duration.toMillis();
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long bucketStart(long timestamp) {
+        return Math.floorDiv(timestamp, millis) * millis;
+    }
+
+    public static Optional<CandleResolution> fromName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
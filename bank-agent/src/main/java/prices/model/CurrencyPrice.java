@@ -10,8 +10,7 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "currency_prices", indexes = {
-        @Index(name = "currency_prices_idx_name", columnList = "name"),
-        @Index(name = "currency_prices_idx_timestamp", columnList = "timestamp")
+        @Index(name = "currency_prices_idx_name_timestamp", columnList = "name, timestamp DESC")
 })
 public final class CurrencyPrice implements Priced {
 
@@ -0,0 +1,108 @@
+package prices.model;
+
+import shared.enums.Banks;
+import shared.enums.TypePrice;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+@Entity
+@Table(name = "latest_prices", uniqueConstraints = {
+        @UniqueConstraint(name = "latest_prices_uk_bank_type_name", columnNames = {"bank", "type", "name"})
+})
+public final class LatestPrice implements Priced {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String bank;
+
+    @Column(nullable = false, length = 16)
+    private String type;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal buyPrice;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal sellPrice;
+
+    @Column(nullable = false)
+    private Long timestamp;
+
+    protected LatestPrice() {
+    }
+
+    public LatestPrice(String bank, TypePrice type, String name, BigDecimal buyPrice, BigDecimal sellPrice,
+                       Long timestamp) {
+        this.bank = Objects.requireNonNull(bank, "Bank cannot be null");
+        this.type = Objects.requireNonNull(type, "Type cannot be null").name();
+        this.name = Objects.requireNonNull(name, "Name cannot be null");
+        this.buyPrice = Objects.requireNonNull(buyPrice, "Buy price cannot be null");
+        this.sellPrice = Objects.requireNonNull(sellPrice, "Sell price cannot be null");
+        this.timestamp = Objects.requireNonNull(timestamp, "Timestamp cannot be null");
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public TypePrice getType() {
+        return TypePrice.valueOf(type);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public BigDecimal getBuyPrice() {
+        return buyPrice;
+    }
+
+    @Override
+    public BigDecimal getSellPrice() {
+        return sellPrice;
+    }
+
+    @Override
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public Banks getBank() {
+        return Banks.valueOf(bank);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LatestPrice that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "LatestPrice{" +
+                "id=" + id +
+                ", bank='" + bank + '\'' +
+                ", type='" + type + '\'' +
+                ", name='" + name + '\'' +
+                ", buyPrice=" + buyPrice +
+                ", sellPrice=" + sellPrice +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -10,8 +10,7 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "metal_prices", indexes = {
-        @Index(name = "metal_prices_idx_name", columnList = "name"),
-        @Index(name = "metal_prices_idx_timestamp", columnList = "timestamp")
+        @Index(name = "metal_prices_idx_name_timestamp", columnList = "name, timestamp DESC")
 })
 public final class MetalPrice implements Priced {
 
@@ -0,0 +1,161 @@
+package prices.model;
+
+import shared.enums.Banks;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+@Entity
+@Table(name = "price_candles", uniqueConstraints = {
+        @UniqueConstraint(name = "price_candles_uk_bucket",
+                columnNames = {"bank", "type", "name", "resolution", "bucketStart"})
+})
+public final class PriceCandle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String bank;
+
+    @Column(nullable = false, length = 16)
+    private String type;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, length = 16)
+    private String resolution;
+
+    @Column(nullable = false)
+    private Long bucketStart;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal buyOpen;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal buyHigh;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal buyLow;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal buyClose;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal sellOpen;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal sellHigh;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal sellLow;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal sellClose;
+
+    @Column(nullable = false)
+    private Integer samples;
+
+    @Column(nullable = false)
+    private Long openedAt;
+
+    @Column(nullable = false)
+    private Long closedAt;
+
+    protected PriceCandle() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Banks getBank() {
+        return Banks.valueOf(bank);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CandleResolution getResolution() {
+        return CandleResolution.valueOf(resolution);
+    }
+
+    public Long getBucketStart() {
+        return bucketStart;
+    }
+
+    public BigDecimal getBuyOpen() {
+        return buyOpen;
+    }
+
+    public BigDecimal getBuyHigh() {
+        return buyHigh;
+    }
+
+    public BigDecimal getBuyLow() {
+        return buyLow;
+    }
+
+    public BigDecimal getBuyClose() {
+        return buyClose;
+    }
+
+    public BigDecimal getSellOpen() {
+        return sellOpen;
+    }
+
+    public BigDecimal getSellHigh() {
+        return sellHigh;
+    }
+
+    public BigDecimal getSellLow() {
+        return sellLow;
+    }
+
+    public BigDecimal getSellClose() {
+        return sellClose;
+    }
+
+    public Integer getSamples() {
+        return samples;
+    }
+
+    public Long getOpenedAt() {
+        return openedAt;
+    }
+
+    public Long getClosedAt() {
+        return closedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PriceCandle that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceCandle{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", resolution='" + resolution + '\'' +
+                ", bucketStart=" + bucketStart +
+                ", samples=" + samples +
+                '}';
+    }
+}
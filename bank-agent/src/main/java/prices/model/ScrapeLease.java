@@ -0,0 +1,136 @@
+package prices.model;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+@Entity
+@Table(name = "scrape_leases", uniqueConstraints = {
+        @UniqueConstraint(name = "scrape_leases_uk_agent_cycle_batch",
+                columnNames = {"agentKey", "cycleIndex", "batchIndex"})
+})
+public final class ScrapeLease {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String agentKey;
+
+    @Column(nullable = false)
+    private Long cycleIndex;
+
+    @Column(nullable = false)
+    private Integer batchIndex;
+
+    @Column(nullable = false, length = 1024)
+    private String instruments;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private String leaseOwner;
+
+    private Long leaseUntil;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private Long updatedAt;
+
+    protected ScrapeLease() {
+    }
+
+    public ScrapeLease(String agentKey, long cycleIndex, int batchIndex, String instruments, long updatedAt) {
+        this.agentKey = Objects.requireNonNull(agentKey, "Agent key cannot be null");
+        this.cycleIndex = cycleIndex;
+        this.batchIndex = batchIndex;
+        this.instruments = Objects.requireNonNull(instruments, "Instruments cannot be null");
+        this.status = Status.PENDING;
+        this.attempts = 0;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAgentKey() {
+        return agentKey;
+    }
+
+    public Long getCycleIndex() {
+        return cycleIndex;
+    }
+
+    public Integer getBatchIndex() {
+        return batchIndex;
+    }
+
+    public String getInstruments() {
+        return instruments;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public Long getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public Long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void claim(String leaseOwner, long leaseUntil, long updatedAt) {
+        this.leaseOwner = Objects.requireNonNull(leaseOwner, "Lease owner cannot be null");
+        this.leaseUntil = leaseUntil;
+        this.status = Status.RUNNING;
+        this.attempts++;
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScrapeLease that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ScrapeLease{" +
+                "id=" + id +
+                ", agentKey='" + agentKey + '\'' +
+                ", cycleIndex=" + cycleIndex +
+                ", batchIndex=" + batchIndex +
+                ", status=" + status +
+                ", leaseOwner='" + leaseOwner + '\'' +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,95 @@
+package prices.model;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+@Entity
+@Table(name = "selector_ranks", uniqueConstraints = {
+        @UniqueConstraint(name = "selector_ranks_uk_source_field", columnNames = {"source", "fieldKey"})
+})
+public final class SelectorRank {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String source;
+
+    @Column(nullable = false)
+    private String fieldKey;
+
+    @Column(nullable = false, length = 2048)
+    private String xpath;
+
+    @Column(nullable = false)
+    private Long durationMicros;
+
+    @Column(nullable = false)
+    private Long updatedAt;
+
+    protected SelectorRank() {
+    }
+
+    public SelectorRank(String source, String fieldKey, String xpath, long durationMicros, long updatedAt) {
+        this.source = Objects.requireNonNull(source, "Source cannot be null");
+        this.fieldKey = Objects.requireNonNull(fieldKey, "Field key cannot be null");
+        this.xpath = Objects.requireNonNull(xpath, "XPath cannot be null");
+        this.durationMicros = durationMicros;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getFieldKey() {
+        return fieldKey;
+    }
+
+    public String getXpath() {
+        return xpath;
+    }
+
+    public Long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public Long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void win(String xpath, long durationMicros, long updatedAt) {
+        this.xpath = Objects.requireNonNull(xpath, "XPath cannot be null");
+        this.durationMicros = durationMicros;
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SelectorRank that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "SelectorRank{" +
+                "id=" + id +
+                ", source='" + source + '\'' +
+                ", fieldKey='" + fieldKey + '\'' +
+                ", xpath='" + xpath + '\'' +
+                ", durationMicros=" + durationMicros +
+                '}';
+    }
+}
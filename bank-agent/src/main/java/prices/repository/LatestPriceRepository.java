@@ -0,0 +1,18 @@
+package prices.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import prices.model.LatestPrice;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LatestPriceRepository extends JpaRepository<LatestPrice, Long> {
+
+    Optional<LatestPrice> findByBankAndTypeAndName(String bank, String type, String name);
+
+    List<LatestPrice> findByBankAndTypeOrderByName(String bank, String type);
+
+    List<LatestPrice> findByType(String type);
+}
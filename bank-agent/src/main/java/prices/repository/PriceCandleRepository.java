@@ -0,0 +1,33 @@
+package prices.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import prices.model.PriceCandle;
+
+import java.util.List;
+
+@Repository
+public interface PriceCandleRepository extends JpaRepository<PriceCandle, Long> {
+
+    /**
+     * Candles starting within {@code [from, to]}, both bounds inclusive like the raw history queries.
+     * Pass {@code from} aligned to its bucket start to include the candle it falls into.
+     */
+    @Query("SELECT c FROM PriceCandle c " +
+            "WHERE c.bank = :bank " +
+            "AND c.type = :type " +
+            "AND c.name = :name " +
+            "AND c.resolution = :resolution " +
+            "AND c.bucketStart >= :from " +
+            "AND c.bucketStart <= :to " +
+            "ORDER BY c.bucketStart ASC")
+    List<PriceCandle> findRange(
+            @Param("bank") String bank,
+            @Param("type") String type,
+            @Param("name") String name,
+            @Param("resolution") String resolution,
+            @Param("from") Long from,
+            @Param("to") Long to);
+}
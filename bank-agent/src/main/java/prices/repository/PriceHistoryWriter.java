@@ -0,0 +1,145 @@
+package prices.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import prices.model.CandleResolution;
+import shared.dto.Price;
+import shared.enums.TypePrice;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+@Repository
+public class PriceHistoryWriter {
+
+    private static final String INSERT = "INSERT INTO %s (name, buy_price, sell_price, timestamp, bank) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String UPSERT_LATEST = "INSERT INTO latest_prices "
+            + "(bank, type, name, buy_price, sell_price, timestamp) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT ON CONSTRAINT latest_prices_uk_bank_type_name DO UPDATE "
+            + "SET buy_price = EXCLUDED.buy_price, sell_price = EXCLUDED.sell_price, timestamp = EXCLUDED.timestamp "
+            + "WHERE latest_prices.timestamp <= EXCLUDED.timestamp";
+    private static final String UPSERT_CANDLE = "INSERT INTO price_candles "
+            + "(bank, type, name, resolution, bucket_start, buy_open, buy_high, buy_low, buy_close, "
+            + "sell_open, sell_high, sell_low, sell_close, samples, opened_at, closed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT ON CONSTRAINT price_candles_uk_bucket DO UPDATE SET "
+            + "buy_open = CASE WHEN EXCLUDED.opened_at < price_candles.opened_at "
+            + "THEN EXCLUDED.buy_open ELSE price_candles.buy_open END, "
+            + "sell_open = CASE WHEN EXCLUDED.opened_at < price_candles.opened_at "
+            + "THEN EXCLUDED.sell_open ELSE price_candles.sell_open END, "
+            + "buy_high = greatest(price_candles.buy_high, EXCLUDED.buy_high), "
+            + "buy_low = least(price_candles.buy_low, EXCLUDED.buy_low), "
+            + "sell_high = greatest(price_candles.sell_high, EXCLUDED.sell_high), "
+            + "sell_low = least(price_candles.sell_low, EXCLUDED.sell_low), "
+            + "buy_close = CASE WHEN EXCLUDED.closed_at >= price_candles.closed_at "
+            + "THEN EXCLUDED.buy_close ELSE price_candles.buy_close END, "
+            + "sell_close = CASE WHEN EXCLUDED.closed_at >= price_candles.closed_at "
+            + "THEN EXCLUDED.sell_close ELSE price_candles.sell_close END, "
+            + "samples = price_candles.samples + EXCLUDED.samples, "
+            + "opened_at = least(price_candles.opened_at, EXCLUDED.opened_at), "
+            + "closed_at = greatest(price_candles.closed_at, EXCLUDED.closed_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceHistoryWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate, "JdbcTemplate cannot be null");
+    }
+
+    public void insertAll(TypePrice typePrice, Collection<Price> prices) {
+        Objects.requireNonNull(typePrice, "TypePrice cannot be null");
+        List<Object[]> rows = new ArrayList<>(prices.size());
+        for (Price price : prices) {
+            rows.add(new Object[]{price.name(), price.buyPrice(), price.sellPrice(), price.timestamp(),
+                    price.bank().name()});
+        }
+        jdbcTemplate.batchUpdate(INSERT.formatted(table(typePrice)), rows);
+        upsertLatest(typePrice, prices);
+        upsertCandles(typePrice, prices);
+    }
+
+    public void upsertLatest(TypePrice typePrice, Collection<Price> prices) {
+        Objects.requireNonNull(typePrice, "TypePrice cannot be null");
+        Map<String, Price> newest = new LinkedHashMap<>();
+        for (Price price : prices) {
+            newest.merge(price.bank().name() + ":" + price.name(), price,
+                    (current, next) -> next.timestamp() >= current.timestamp() ? next : current);
+        }
+        List<Object[]> rows = new ArrayList<>(newest.size());
+        for (Price price : newest.values()) {
+            rows.add(new Object[]{price.bank().name(), typePrice.name(), price.name(), price.buyPrice(),
+                    price.sellPrice(), price.timestamp()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_LATEST, rows);
+    }
+
+    public void upsertCandles(TypePrice typePrice, Collection<Price> prices) {
+        Objects.requireNonNull(typePrice, "TypePrice cannot be null");
+        Map<String, CandleDraft> drafts = new LinkedHashMap<>();
+        for (CandleResolution resolution : CandleResolution.values()) {
+            for (Price price : prices) {
+                long bucketStart = resolution.bucketStart(price.timestamp());
+                drafts.computeIfAbsent(price.bank().name() + ":" + price.name() + ":" + resolution + ":" + bucketStart,
+                                key -> new CandleDraft(price, resolution, bucketStart))
+                        .add(price);
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(drafts.size());
+        for (CandleDraft draft : drafts.values()) {
+            rows.add(draft.toRow(typePrice));
+        }
+        jdbcTemplate.batchUpdate(UPSERT_CANDLE, rows);
+    }
+
+    private static String table(TypePrice typePrice) {
+        return switch (typePrice) {
+            case METAL -> "metal_prices";
+            case CURRENCY -> "currency_prices";
+        };
+    }
+
+    private static final class CandleDraft {
+        private final Price first;
+        private final CandleResolution resolution;
+        private final long bucketStart;
+        private Price open;
+        private Price close;
+        private BigDecimal buyHigh;
+        private BigDecimal buyLow;
+        private BigDecimal sellHigh;
+        private BigDecimal sellLow;
+        private int samples;
+
+        private CandleDraft(Price first, CandleResolution resolution, long bucketStart) {
+            this.first = first;
+            this.resolution = resolution;
+            this.bucketStart = bucketStart;
+        }
+
+        private void add(Price price) {
+            if (samples == 0) {
+                open = price;
+                close = price;
+                buyHigh = price.buyPrice();
+                buyLow = price.buyPrice();
+                sellHigh = price.sellPrice();
+                sellLow = price.sellPrice();
+            } else {
+                open = price.timestamp() < open.timestamp() ? price : open;
+                close = price.timestamp() >= close.timestamp() ? price : close;
+                buyHigh = buyHigh.max(price.buyPrice());
+                buyLow = buyLow.min(price.buyPrice());
+                sellHigh = sellHigh.max(price.sellPrice());
+                sellLow = sellLow.min(price.sellPrice());
+            }
+            samples++;
+        }
+
+        private Object[] toRow(TypePrice typePrice) {
+            return new Object[]{first.bank().name(), typePrice.name(), first.name(), resolution.name(), bucketStart,
+                    open.buyPrice(), buyHigh, buyLow, close.buyPrice(),
+                    open.sellPrice(), sellHigh, sellLow, close.sellPrice(),
+                    samples, open.timestamp(), close.timestamp()};
+        }
+    }
+}
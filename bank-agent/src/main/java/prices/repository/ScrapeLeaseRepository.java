@@ -0,0 +1,49 @@
+package prices.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import prices.model.ScrapeLease;
+import prices.model.ScrapeLease.Status;
+
+import java.util.Optional;
+
+@Repository
+public interface ScrapeLeaseRepository extends JpaRepository<ScrapeLease, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO scrape_leases "
+            + "(agent_key, cycle_index, batch_index, instruments, status, attempts, updated_at) "
+            + "VALUES (:agentKey, :cycleIndex, :batchIndex, :instruments, 'PENDING', 0, :now) "
+            + "ON CONFLICT ON CONSTRAINT scrape_leases_uk_agent_cycle_batch DO NOTHING",
+            nativeQuery = true)
+    int enqueue(@Param("agentKey") String agentKey, @Param("cycleIndex") long cycleIndex,
+                @Param("batchIndex") int batchIndex, @Param("instruments") String instruments,
+                @Param("now") long now);
+
+    @Query(value = "SELECT * FROM scrape_leases "
+            + "WHERE agent_key = :agentKey AND cycle_index = :cycleIndex AND attempts < :maxAttempts "
+            + "AND (status = 'PENDING' OR (status = 'RUNNING' AND lease_until < :now)) "
+            + "ORDER BY batch_index LIMIT 1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<ScrapeLease> findClaimable(@Param("agentKey") String agentKey, @Param("cycleIndex") long cycleIndex,
+                                        @Param("maxAttempts") int maxAttempts, @Param("now") long now);
+
+    @Modifying
+    @Query("UPDATE ScrapeLease l SET l.leaseUntil = :leaseUntil, l.updatedAt = :now "
+            + "WHERE l.id = :id AND l.leaseOwner = :owner AND l.status = :status")
+    int extend(@Param("id") long id, @Param("owner") String owner, @Param("status") Status status,
+               @Param("leaseUntil") long leaseUntil, @Param("now") long now);
+
+    @Modifying
+    @Query("UPDATE ScrapeLease l SET l.status = :status, l.attempts = :attempts, l.leaseUntil = null, "
+            + "l.updatedAt = :now WHERE l.id = :id AND l.leaseOwner = :owner AND l.status = :held")
+    int settle(@Param("id") long id, @Param("owner") String owner, @Param("held") Status held,
+               @Param("status") Status status, @Param("attempts") int attempts, @Param("now") long now);
+
+    @Modifying
+    @Query("DELETE FROM ScrapeLease l WHERE l.updatedAt < :before")
+    int purge(@Param("before") long before);
+}
@@ -0,0 +1,13 @@
+package prices.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import prices.model.SelectorRank;
+
+import java.util.List;
+
+@Repository
+public interface SelectorRankRepository extends JpaRepository<SelectorRank, Long> {
+
+    List<SelectorRank> findBySource(String source);
+}
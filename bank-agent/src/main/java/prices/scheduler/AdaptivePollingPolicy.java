@@ -0,0 +1,64 @@
+package prices.scheduler;
+
+import prices.agent.AgentSettings;
+import prices.agent.PollingSettings;
+import prices.service.SaveResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class AdaptivePollingPolicy {
+
+    private final Duration baseInterval;
+    private final PollingSettings polling;
+    private final Map<String, Duration> instrumentIntervals = new ConcurrentHashMap<>();
+
+    public AdaptivePollingPolicy(AgentSettings settings) {
+        Objects.requireNonNull(settings, "Settings cannot be null");
+        this.polling = settings.polling();
+        this.baseInterval = polling.clamp(settings.interval());
+    }
+
+    public Duration baseInterval() {
+        return baseInterval;
+    }
+
+    public Duration currentInterval() {
+        if (!polling.adaptive() || instrumentIntervals.isEmpty()) {
+            return baseInterval;
+        }
+        return instrumentIntervals.values().stream()
+                .min(Duration::compareTo)
+                .orElse(baseInterval);
+    }
+
+    public Duration intervalOf(String instrument) {
+        return instrumentIntervals.getOrDefault(instrument, baseInterval);
+    }
+
+    public void record(SaveResult result) {
+        Objects.requireNonNull(result, "Result cannot be null");
+        if (!polling.adaptive()) {
+            return;
+        }
+        for (String instrument : result.changed()) {
+            instrumentIntervals.put(instrument, polling.minInterval());
+        }
+        for (String instrument : result.unchanged()) {
+            instrumentIntervals.merge(instrument, backOff(baseInterval), (current, ignored) -> backOff(current));
+        }
+    }
+
+    public Instant nextFireAt(Instant previous) {
+        Objects.requireNonNull(previous, "Previous fire time cannot be null");
+        return polling.nextTradingStart(previous.plus(currentInterval()));
+    }
+
+    private Duration backOff(Duration interval) {
+        long millis = (long) Math.ceil(interval.toMillis() * polling.backoff());
+        return polling.clamp(Duration.ofMillis(millis));
+    }
+}
@@ -0,0 +1,11 @@
+package prices.scheduler;
+
+public enum RunOutcome {
+    SUCCESS,
+    PARTIAL,
+    FAILED,
+    TIMED_OUT,
+    SKIPPED,
+    CIRCUIT_OPEN,
+    CLAIMED_ELSEWHERE
+}
@@ -1,55 +1,338 @@
 package prices.scheduler;
 
-import shared.enums.TypePrice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import prices.agent.Agent;
-import prices.agent.sber.currency.CurrencySberAgent;
-import prices.agent.sber.metal.MetalSberAgent;
+import prices.agent.AgentRegistry;
+import prices.agent.AgentSettings;
+import prices.agent.ScrapeContext;
+import prices.agent.extract.PageFingerprints;
+import prices.agent.metrics.ScrapeStep;
+import prices.agent.metrics.ScrapeTimer;
 import prices.service.PriceService;
+import prices.service.SaveResult;
+import prices.service.ScrapeQueue;
+import prices.service.ScrapeQueue.Lease;
+import shared.dto.Price;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
-public final class ScheduledPriceUpdater {
+public final class ScheduledPriceUpdater implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(ScheduledPriceUpdater.class);
-    private static final int METAL_DELAY_MAX = 120001;
-    private static final int CURRENCY_DELAY_MIN = 80000;
-    private static final int CURRENCY_DELAY_MAX = 220001;
-    private static final long UPDATE_INTERVAL_MS = 900_000;
 
-    private final Agent metalAgent;
-    private final Agent currencyAgent;
+    private final AgentRegistry agentRegistry;
     private final PriceService priceService;
+    private final ScrapeTimer scrapeTimer;
+    private final PageFingerprints pageFingerprints;
+    private final ScrapeQueue scrapeQueue;
+    private final Clock clock;
+    private final Duration cancelGrace;
+    private final ScheduledExecutorService triggers;
+    private final ExecutorService workers;
+    private final Map<String, ScrapeJob> jobs = new ConcurrentHashMap<>();
 
-    public ScheduledPriceUpdater(@Qualifier(MetalSberAgent.AGENT_NAME) Agent metalAgent,
-                                 @Qualifier(CurrencySberAgent.AGENT_NAME) Agent currencyAgent,
-                                 PriceService priceService) {
-        this.metalAgent = metalAgent;
-        this.currencyAgent = currencyAgent;
-        this.priceService = priceService;
+    public ScheduledPriceUpdater(AgentRegistry agentRegistry,
+                                 PriceService priceService,
+                                 ScrapeTimer scrapeTimer,
+                                 PageFingerprints pageFingerprints,
+                                 ScrapeQueue scrapeQueue,
+                                 @Value("${agent.scheduler.workers:4}") int workers,
+                                 @Value("${agent.scheduler.cancel-grace:PT30S}") Duration cancelGrace) {
+        this.agentRegistry = Objects.requireNonNull(agentRegistry, "AgentRegistry cannot be null");
+        this.priceService = Objects.requireNonNull(priceService, "PriceService cannot be null");
+        this.scrapeTimer = Objects.requireNonNull(scrapeTimer, "ScrapeTimer cannot be null");
+        this.pageFingerprints = Objects.requireNonNull(pageFingerprints, "PageFingerprints cannot be null");
+        this.scrapeQueue = Objects.requireNonNull(scrapeQueue, "ScrapeQueue cannot be null");
+        this.clock = Clock.systemUTC();
+        this.cancelGrace = Objects.requireNonNull(cancelGrace, "Cancel grace cannot be null");
+        this.triggers = Executors.newSingleThreadScheduledExecutor(namedThreads("agent-trigger"));
+        this.workers = Executors.newFixedThreadPool(workers, namedThreads("agent-worker"));
     }
 
-    @Scheduled(fixedRate = UPDATE_INTERVAL_MS)
-    public void updatePrices() {
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (Agent agent : agentRegistry.getAgents()) {
+            AgentSettings settings = agentRegistry.getSettings(agent.getKey());
+            if (!settings.enabled()) {
+                log.info("Agent {} is disabled", agent.getKey());
+                continue;
+            }
+            if (!agent.isScheduled()) {
+                log.info("Agent {} is streamed, not scheduled", agent.getKey());
+                continue;
+            }
+            ScrapeJob job = new ScrapeJob(agent, settings, clock, scrapeQueue.isEnabled());
+            jobs.put(agent.getKey(), job);
+            schedule(job, job.planFirst(clock.instant()));
+            log.info("Agent {} scheduled every {} (timeout {}, concurrency {})",
+                    agent.getKey(), settings.interval(), settings.timeout(), settings.concurrency());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${agent.queue.sweep-interval:PT30S}",
+            fixedDelayString = "${agent.queue.sweep-interval:PT30S}")
+    public void sweep() {
+        if (scrapeQueue.isEnabled()) {
+            jobs.values().forEach(job -> launch(job, false));
+        }
+    }
+
+    public List<ScrapeJobStatus> getStatuses() {
+        return jobs.values().stream()
+                .map(ScrapeJob::status)
+                .sorted(Comparator.comparing(ScrapeJobStatus::agent))
+                .toList();
+    }
+
+    private void schedule(ScrapeJob job, Instant fireAt) {
+        long delay = Math.max(0, Duration.between(clock.instant(), fireAt).toMillis());
+        try {
+            job.setPending(triggers.schedule(() -> fire(job), delay, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            log.debug("Scheduler stopped, agent {} not rescheduled", job.getAgent().getKey());
+        }
+    }
+
+    private void fire(ScrapeJob job) {
+        schedule(job, job.planNext());
+        launch(job, true);
+    }
+
+    private void launch(ScrapeJob job, boolean scheduled) {
+        if (!job.tryStart()) {
+            if (scheduled) {
+                job.skipped(RunOutcome.SKIPPED);
+                log.warn("Agent {} still running, skipping this cycle", job.getAgent().getKey());
+            }
+            return;
+        }
+        OptionalLong cycle = job.currentCycle();
         try {
-            Thread.sleep(ThreadLocalRandom.current().nextInt(METAL_DELAY_MAX));
-            priceService.updatePrices(TypePrice.METAL, metalAgent);
+            workers.execute(() -> begin(job, cycle, scheduled));
+        } catch (RejectedExecutionException e) {
+            job.release();
+        }
+    }
 
-            Thread.sleep(CURRENCY_DELAY_MIN +
-                    ThreadLocalRandom.current().nextInt(CURRENCY_DELAY_MAX - CURRENCY_DELAY_MIN));
-            priceService.updatePrices(TypePrice.CURRENCY, currencyAgent);
+    private void begin(ScrapeJob job, OptionalLong cycle, boolean scheduled) {
+        Optional<Lease> lease = Optional.empty();
+        if (scrapeQueue.isEnabled()) {
+            lease = claim(job, cycle, scheduled);
+            if (lease.isEmpty()) {
+                job.release();
+                if (scheduled) {
+                    job.skipped(RunOutcome.CLAIMED_ELSEWHERE);
+                    log.debug("Agent {} has no unclaimed batches left in this cycle", job.getAgent().getKey());
+                }
+                return;
+            }
+        }
+        if (!job.getCircuitBreaker().tryAcquire()) {
+            job.release();
+            lease.ifPresent(this::release);
+            if (scheduled) {
+                job.skipped(RunOutcome.CIRCUIT_OPEN);
+                log.debug("Circuit open for agent {} until {}",
+                        job.getAgent().getKey(), job.getCircuitBreaker().getOpenUntil());
+            }
+            return;
+        }
+        AgentSettings settings = job.getSettings();
+        ScrapeContext context = ScrapeContext.withDeadline(clock, settings.timeout(), settings.instrumentBudget(),
+                lease.map(Lease::instruments).orElse(List.of()));
+        AtomicBoolean started = new AtomicBoolean();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        Optional<Lease> held = lease;
+        try {
+            Future<?> run = workers.submit(() -> run(job, context, started, timedOut, held));
+            triggers.schedule(() -> {
+                timedOut.set(true);
+                if (run.cancel(true)) {
+                    log.warn("Agent {} cancelled after {}", job.getAgent().getKey(), context.elapsed());
+                    if (started.compareAndSet(false, true)) {
+                        finish(job, context, RunOutcome.TIMED_OUT, held);
+                    }
+                }
+            }, settings.timeout().plus(cancelGrace).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            job.release();
+            lease.ifPresent(this::release);
+        }
+    }
 
-            log.info("Prices updated successfully.");
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Price update interrupted", e);
+    private Optional<Lease> claim(ScrapeJob job, OptionalLong cycle, boolean scheduled) {
+        Agent agent = job.getAgent();
+        if (cycle.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            if (scheduled) {
+                scrapeQueue.enqueue(agent.getKey(), cycle.getAsLong(), agent.getBatches());
+            }
+            return scrapeQueue.claim(agent.getKey(), cycle.getAsLong());
         } catch (Exception e) {
-            log.error("Error during price update", e);
+            log.warn("Failed to claim work for agent {}: {}", agent.getKey(), e.getMessage());
+            return Optional.empty();
         }
     }
-}
\ No newline at end of file
+
+    private void release(Lease lease) {
+        try {
+            scrapeQueue.release(lease);
+        } catch (Exception e) {
+            log.warn("Failed to release lease for agent {}, it expires on its own: {}",
+                    lease.agentKey(), e.getMessage());
+        }
+    }
+
+    private void run(ScrapeJob job, ScrapeContext context, AtomicBoolean started, AtomicBoolean timedOut,
+                     Optional<Lease> lease) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Agent agent = job.getAgent();
+        job.started(clock.instant());
+        RunOutcome outcome;
+        try (ScrapeTimer.Binding ignored = scrapeTimer.bind(agent.getKey())) {
+            try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.SCRAPE)) {
+                agent.getPrices(context);
+                outcome = context.isExpired() ? RunOutcome.PARTIAL : RunOutcome.SUCCESS;
+                step.outcome(outcome.name().toLowerCase(Locale.ROOT));
+            } catch (Exception e) {
+                log.error("Error during price update for {}", agent.getKey(), e);
+                outcome = RunOutcome.FAILED;
+            }
+            boolean interrupted = Thread.interrupted();
+            try {
+                if (timedOut.get()) {
+                    outcome = RunOutcome.TIMED_OUT;
+                    log.warn("Agent {} timed out after {}, dropping {} collected prices",
+                            agent.getKey(), context.elapsed(), context.getCollected().size());
+                    return;
+                }
+                int committed = commit(job, context);
+                int unchanged = context.getUnchanged().size();
+                if (committed == 0 && unchanged == 0) {
+                    outcome = RunOutcome.FAILED;
+                } else if (outcome == RunOutcome.FAILED) {
+                    outcome = RunOutcome.PARTIAL;
+                }
+                log.info("Agent {} finished in {}: {} prices, {} unchanged, {}",
+                        agent.getKey(), context.elapsed(), committed, unchanged, outcome);
+            } finally {
+                finish(job, context, outcome, lease);
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private int commit(ScrapeJob job, ScrapeContext context) {
+        Map<String, Price> prices = context.seal().orElse(Map.of());
+        Set<String> unchanged = context.getUnchanged();
+        try {
+            if (prices.isEmpty()) {
+                if (!unchanged.isEmpty()) {
+                    record(job, new SaveResult(Set.of(), unchanged, 0));
+                }
+                return 0;
+            }
+            SaveResult result;
+            try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.PERSIST)) {
+                result = priceService.savePrices(job.getAgent().getTypePrice(), prices);
+                step.success();
+            }
+            if (result.failed() == 0) {
+                pageFingerprints.commit(context);
+            }
+            Set<String> skipped = new HashSet<>(result.unchanged());
+            skipped.addAll(unchanged);
+            record(job, new SaveResult(result.changed(), skipped, result.failed()));
+        } catch (Exception e) {
+            log.error("Failed to commit prices for {}", job.getAgent().getKey(), e);
+            return 0;
+        }
+        return prices.size();
+    }
+
+    private void record(ScrapeJob job, SaveResult result) {
+        if (job.record(result)) {
+            try {
+                triggers.execute(() -> reschedule(job));
+            } catch (RejectedExecutionException e) {
+                log.debug("Scheduler stopped, agent {} not rescheduled", job.getAgent().getKey());
+            }
+        }
+    }
+
+    private void reschedule(ScrapeJob job) {
+        if (job.cancelPending()) {
+            Instant fireAt = job.replan();
+            log.info("Agent {} interval adapted to {}, next run at {}",
+                    job.getAgent().getKey(), job.status().interval(), fireAt);
+            schedule(job, fireAt);
+        }
+    }
+
+    private void finish(ScrapeJob job, ScrapeContext context, RunOutcome outcome, Optional<Lease> lease) {
+        job.finished(clock.instant(), outcome, context.elapsed(), context.getCollected().size());
+        if (outcome == RunOutcome.SUCCESS || outcome == RunOutcome.PARTIAL) {
+            job.getCircuitBreaker().onSuccess();
+        } else {
+            job.getCircuitBreaker().onFailure();
+            if (job.getCircuitBreaker().getState() == CircuitBreaker.State.OPEN) {
+                log.warn("Circuit opened for agent {} until {}",
+                        job.getAgent().getKey(), job.getCircuitBreaker().getOpenUntil());
+            }
+        }
+        lease.ifPresent(held -> complete(job, held, outcome));
+    }
+
+    private void complete(ScrapeJob job, Lease lease, RunOutcome outcome) {
+        boolean succeeded = outcome == RunOutcome.SUCCESS || outcome == RunOutcome.PARTIAL;
+        try {
+            scrapeQueue.complete(lease, succeeded);
+        } catch (Exception e) {
+            log.warn("Failed to complete lease for agent {}, it expires on its own: {}",
+                    job.getAgent().getKey(), e.getMessage());
+        }
+        if (!succeeded) {
+            return;
+        }
+        try {
+            triggers.execute(() -> launch(job, false));
+        } catch (RejectedExecutionException e) {
+            log.debug("Scheduler stopped, agent {} not drained", job.getAgent().getKey());
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        triggers.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,137 @@
+package prices.scheduler;
+
+import prices.agent.Agent;
+import prices.agent.AgentSettings;
+import prices.service.SaveResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class ScrapeJob {
+
+    private final Agent agent;
+    private final AgentSettings settings;
+    private final Semaphore permits;
+    private final AdaptivePollingPolicy policy;
+    private final CircuitBreaker circuitBreaker;
+    private final boolean aligned;
+    private ScheduledFuture<?> pending;
+    private Instant nextSlot;
+    private volatile Instant lastSlot;
+    private volatile Instant nextRunAt;
+    private volatile Instant lastStartedAt;
+    private volatile Instant lastFinishedAt;
+    private volatile RunOutcome lastOutcome;
+    private volatile Duration lastDuration;
+    private volatile int lastCollected;
+
+    ScrapeJob(Agent agent, AgentSettings settings, Clock clock, boolean aligned) {
+        this.agent = Objects.requireNonNull(agent, "Agent cannot be null");
+        this.settings = Objects.requireNonNull(settings, "Settings cannot be null");
+        this.permits = new Semaphore(settings.concurrency());
+        this.policy = new AdaptivePollingPolicy(settings);
+        this.circuitBreaker = new CircuitBreaker(settings.failureThreshold(), settings.openDuration(), clock);
+        this.aligned = aligned;
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    Agent getAgent() {
+        return agent;
+    }
+
+    AgentSettings getSettings() {
+        return settings;
+    }
+
+    Instant planFirst(Instant now) {
+        Instant start = settings.polling().nextTradingStart(now.plus(settings.initialDelay()));
+        nextSlot = aligned ? alignDown(start) : start;
+        nextRunAt = start.plus(jitter());
+        return nextRunAt;
+    }
+
+    Instant planNext() {
+        lastSlot = nextSlot;
+        return replan();
+    }
+
+    Instant replan() {
+        Instant candidate = policy.nextFireAt(lastSlot);
+        nextSlot = aligned ? alignUp(candidate) : candidate;
+        nextRunAt = nextSlot.plus(jitter());
+        return nextRunAt;
+    }
+
+    OptionalLong currentCycle() {
+        Instant slot = lastSlot;
+        return slot == null ? OptionalLong.empty() : OptionalLong.of(slot.toEpochMilli());
+    }
+
+    void setPending(ScheduledFuture<?> pending) {
+        this.pending = pending;
+    }
+
+    boolean cancelPending() {
+        return pending != null && pending.cancel(false);
+    }
+
+    boolean record(SaveResult result) {
+        Duration before = policy.currentInterval();
+        policy.record(result);
+        return !before.equals(policy.currentInterval());
+    }
+
+    boolean tryStart() {
+        return permits.tryAcquire();
+    }
+
+    void started(Instant now) {
+        lastStartedAt = now;
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    void finished(Instant now, RunOutcome outcome, Duration duration, int collected) {
+        lastFinishedAt = now;
+        lastOutcome = outcome;
+        lastDuration = duration;
+        lastCollected = collected;
+        permits.release();
+    }
+
+    void skipped(RunOutcome outcome) {
+        lastOutcome = outcome;
+    }
+
+    ScrapeJobStatus status() {
+        return new ScrapeJobStatus(agent.getKey(), nextRunAt, lastStartedAt, lastFinishedAt,
+                lastOutcome, permits.availablePermits() < settings.concurrency(), policy.currentInterval(),
+                lastDuration, lastCollected, circuitBreaker.getState(), circuitBreaker.getOpenUntil());
+    }
+
+    private Instant alignDown(Instant instant) {
+        long interval = policy.baseInterval().toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(instant.toEpochMilli(), interval) * interval);
+    }
+
+    private Instant alignUp(Instant instant) {
+        Instant floor = alignDown(instant);
+        return floor.equals(instant) ? floor : floor.plus(policy.baseInterval());
+    }
+
+    private Duration jitter() {
+        long bound = settings.jitter().toMillis();
+        return bound > 0 ? Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1)) : Duration.ZERO;
+    }
+}
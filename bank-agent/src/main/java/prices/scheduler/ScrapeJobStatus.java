@@ -0,0 +1,10 @@
+package prices.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public record ScrapeJobStatus(String agent, Instant nextRunAt, Instant lastStartedAt, Instant lastFinishedAt,
+                              RunOutcome lastOutcome, boolean running, Duration interval,
+                              Duration lastDuration, int lastCollected,
+                              CircuitBreaker.State circuitState, Instant circuitOpenUntil) {
+}
@@ -0,0 +1,53 @@
+package prices.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import prices.model.Priced;
+import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.TypePrice;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public final class LatestPriceCache {
+
+    private final boolean shared;
+    private final Map<Key, Price> latest = new ConcurrentHashMap<>();
+    private final Set<TypePrice> warmed = ConcurrentHashMap.newKeySet();
+
+    public LatestPriceCache(@Value("${agent.price-cache.shared:${agent.queue.enabled:false}}") boolean shared) {
+        this.shared = shared;
+    }
+
+    public boolean isWarm(TypePrice typePrice) {
+        return !shared && warmed.contains(typePrice);
+    }
+
+    public void warm(TypePrice typePrice, Collection<? extends Priced> rows) {
+        Objects.requireNonNull(typePrice, "TypePrice cannot be null");
+        for (Priced row : rows) {
+            Price price = Price.createWithTimestamp(row.getBank(), row.getName(), row.getBuyPrice(),
+                    row.getSellPrice(), row.getTimestamp());
+            latest.merge(new Key(row.getBank(), typePrice, row.getName()), price,
+                    (current, loaded) -> loaded.timestamp() > current.timestamp() ? loaded : current);
+        }
+        warmed.add(typePrice);
+    }
+
+    public Optional<Price> get(Banks bank, TypePrice typePrice, String name) {
+        return Optional.ofNullable(latest.get(new Key(bank, typePrice, name)));
+    }
+
+    public void put(TypePrice typePrice, Price price) {
+        latest.put(new Key(price.bank(), typePrice, price.name()), price);
+    }
+
+    private record Key(Banks bank, TypePrice typePrice, String name) {
+    }
+}
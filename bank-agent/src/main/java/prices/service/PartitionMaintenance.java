@@ -0,0 +1,74 @@
+package prices.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+@Component
+public final class PartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenance.class);
+    private static final List<String> TABLES = List.of("metal_prices", "currency_prices");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final Duration retention;
+    private final Clock clock;
+
+    public PartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                @Value("${agent.history.partitions.months-ahead:3}") int monthsAhead,
+                                @Value("${agent.history.retention:P0D}") Duration retention) {
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate, "JdbcTemplate cannot be null");
+        this.monthsAhead = monthsAhead;
+        this.retention = Objects.requireNonNull(retention, "Retention cannot be null");
+        this.clock = Clock.systemUTC();
+        if (monthsAhead < 0) {
+            throw new IllegalArgumentException("Months ahead must be non-negative");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${agent.history.partitions.cron:0 0 3 * * *}", zone = "UTC")
+    public void maintain() {
+        for (String table : TABLES) {
+            try {
+                int created = createPartitions(table);
+                int dropped = dropExpiredPartitions(table);
+                if (created > 0 || dropped > 0) {
+                    log.info("Partitions of {}: {} created, {} dropped", table, created, dropped);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to maintain partitions of {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    public int createPartitions(String table) {
+        LocalDate today = LocalDate.now(clock);
+        Integer created = jdbcTemplate.queryForObject("SELECT create_monthly_partitions(?, ?, ?)", Integer.class,
+                table, today, today.plusMonths(monthsAhead));
+        return created == null ? 0 : created;
+    }
+
+    public int dropExpiredPartitions(String table) {
+        if (retention.isZero() || retention.isNegative()) {
+            return 0;
+        }
+        long before = clock.instant().minus(retention).toEpochMilli();
+        Integer dropped = jdbcTemplate.queryForObject("SELECT drop_monthly_partitions(?, ?)", Integer.class,
+                table, before);
+        return dropped == null ? 0 : dropped;
+    }
+}
@@ -2,21 +2,24 @@ package prices.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import prices.agent.sber.currency.CurrencySberAgent;
 import shared.dto.Price;
-import shared.enums.Banks;
 import shared.enums.TypePrice;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import prices.agent.Agent;
-import prices.model.CurrencyPrice;
-import prices.model.MetalPrice;
+import prices.builder.PriceBuilder;
 import prices.model.Priced;
 import prices.repository.CurrencyPriceRepository;
+import prices.repository.LatestPriceRepository;
 import prices.repository.MetalPriceRepository;
+import prices.repository.PriceHistoryWriter;
 
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
 @Service
 public class PriceService {
@@ -25,117 +28,133 @@ public class PriceService {
 
     private final MetalPriceRepository metalPriceRepository;
     private final CurrencyPriceRepository currencyPriceRepository;
+    private final LatestPriceRepository latestPriceRepository;
+    private final PriceHistoryWriter priceHistoryWriter;
+    private final LatestPriceCache latestPriceCache;
 
     public PriceService(MetalPriceRepository metalPriceRepository,
-                        CurrencyPriceRepository currencyPriceRepository) {
+                        CurrencyPriceRepository currencyPriceRepository,
+                        LatestPriceRepository latestPriceRepository,
+                        PriceHistoryWriter priceHistoryWriter,
+                        LatestPriceCache latestPriceCache) {
         this.metalPriceRepository = metalPriceRepository;
         this.currencyPriceRepository = currencyPriceRepository;
+        this.latestPriceRepository = latestPriceRepository;
+        this.priceHistoryWriter = priceHistoryWriter;
+        this.latestPriceCache = latestPriceCache;
     }
 
     @Transactional
-    public void updatePrices(TypePrice typePrice, Agent agent) {
+    public SaveResult updatePrices(TypePrice typePrice, Agent agent) {
         Objects.requireNonNull(typePrice, "TypePrice cannot be null");
         Objects.requireNonNull(agent, "Agent cannot be null");
 
-        Map<String, Price> currentPrices = agent.getPrices();
+        return savePrices(typePrice, agent.getPrices());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (TypePrice typePrice : TypePrice.values()) {
+            try {
+                ensureWarm(typePrice);
+            } catch (Exception e) {
+                log.warn("Failed to warm latest {} prices, retrying on first save: {}", typePrice, e.getMessage());
+            }
+        }
+    }
+
+    @Transactional
+    public SaveResult savePrices(TypePrice typePrice, Map<String, Price> currentPrices) {
+        Objects.requireNonNull(typePrice, "TypePrice cannot be null");
         Objects.requireNonNull(currentPrices, "Prices cannot be null");
 
         if (currentPrices.isEmpty()) {
             log.warn("No prices received from agent for {}", typePrice);
-            return;
+            return SaveResult.empty();
         }
 
-        int savedCount = 0;
-        int skippedCount = 0;
+        ensureWarm(typePrice);
+        Set<String> changed = new HashSet<>();
+        Set<String> unchanged = new HashSet<>();
+        List<Price> rows = new ArrayList<>();
+        int failedCount = 0;
 
         for (Map.Entry<String, Price> entry : currentPrices.entrySet()) {
             String name = entry.getKey();
             Price price = entry.getValue();
 
             if (price == null) {
-                skippedCount++;
+                failedCount++;
                 log.debug("Null price for {}", name);
                 continue;
             }
 
+            Optional<Price> latest = latestPriceCache.get(price.bank(), typePrice, name);
+            if (latest.isPresent() && pricesEqual(latest.get(), price)) {
+                log.debug("{} price unchanged for {}", typePrice, name);
+                unchanged.add(name);
+                continue;
+            }
+            rows.add(Price.createWithTimestamp(price.bank(), name, price.buyPrice(), price.sellPrice(),
+                    price.timestamp()));
+            changed.add(name);
+        }
+
+        if (!rows.isEmpty()) {
             try {
-                boolean saved = switch (typePrice) {
-                    case METAL -> saveMetalPrice(name, price);
-                    case CURRENCY -> saveCurrencyPrice(name, price);
-                };
-
-                if (saved) {
-                    savedCount++;
-                } else {
-                    skippedCount++;
-                }
+                priceHistoryWriter.insertAll(typePrice, rows);
+                afterCommit(() -> rows.forEach(row -> latestPriceCache.put(typePrice, row)));
             } catch (Exception e) {
-                log.error("Failed to save price for {} {}: {}", typePrice, name, e.getMessage(), e);
-                skippedCount++;
+                log.error("Failed to save {} {} prices: {}", rows.size(), typePrice, e.getMessage(), e);
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                failedCount += rows.size();
+                changed.clear();
             }
         }
 
+        SaveResult result = new SaveResult(changed, unchanged, failedCount);
         log.info("Price update completed for {}: saved={}, skipped={}",
-                typePrice, savedCount, skippedCount);
-    }
-
-    private boolean saveMetalPrice(String name, Price price) {
-        Objects.requireNonNull(name, "Name cannot be null");
-        Objects.requireNonNull(price, "Price cannot be null");
-
-        return metalPriceRepository.findLatestByName(name)
-                .map(latest -> {
-                    if (!pricesEqual(latest, price)) {
-                        metalPriceRepository.save(createMetalPrice(name, price));
-                        log.debug("New metal price saved for {}: buy={}, sell={}",
-                                name, price.buyPrice(), price.sellPrice());
-                        return true;
-                    }
-                    log.debug("Metal price unchanged for {}", name);
-                    return false;
-                })
-                .orElseGet(() -> {
-                    metalPriceRepository.save(createMetalPrice(name, price));
-                    log.debug("First metal price saved for {}", name);
-                    return true;
-                });
+                typePrice, result.saved(), result.skipped());
+        return result;
     }
 
-    private boolean saveCurrencyPrice(String name, Price price) {
-        Objects.requireNonNull(name, "Name cannot be null");
-        Objects.requireNonNull(price, "Price cannot be null");
-
-        return currencyPriceRepository.findLatestByName(name)
-                .map(latest -> {
-                    if (!pricesEqual(latest, price)) {
-                        currencyPriceRepository.save(createCurrencyPrice(name, price));
-                        log.debug("New currency price saved for {}: buy={}, sell={}",
-                                name, price.buyPrice(), price.sellPrice());
-                        return true;
-                    }
-                    log.debug("Currency price unchanged for {}", name);
-                    return false;
-                })
-                .orElseGet(() -> {
-                    currencyPriceRepository.save(createCurrencyPrice(name, price));
-                    log.debug("First currency price saved for {}", name);
-                    return true;
-                });
-    }
-
-    private MetalPrice createMetalPrice(String name, Price price) {
-        return new MetalPrice(name, price.buyPrice(), price.sellPrice(), Banks.SBER.name(), price.timestamp());
+    private void ensureWarm(TypePrice typePrice) {
+        if (latestPriceCache.isWarm(typePrice)) {
+            return;
+        }
+        List<? extends Priced> rows = latestPriceRepository.findByType(typePrice.name());
+        if (rows.isEmpty()) {
+            rows = switch (typePrice) {
+                case METAL -> metalPriceRepository.findLatestUniqueByName();
+                case CURRENCY -> currencyPriceRepository.findLatestUniqueByName();
+            };
+            if (!rows.isEmpty()) {
+                priceHistoryWriter.upsertLatest(typePrice, rows.stream().map(PriceBuilder::buildPrice).toList());
+                log.info("Backfilled {} latest {} prices from history", rows.size(), typePrice);
+            }
+        }
+        latestPriceCache.warm(typePrice, rows);
+        log.debug("Latest {} prices loaded: {}", typePrice, rows.size());
     }
 
-    private CurrencyPrice createCurrencyPrice(String name, Price price) {
-        return new CurrencyPrice(name, price.buyPrice(), price.sellPrice(), Banks.SBER.name(), price.timestamp());
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
-    private boolean pricesEqual(Priced existing, Price newPrice) {
+    private boolean pricesEqual(Price existing, Price newPrice) {
         Objects.requireNonNull(existing, "Existing price cannot be null");
         Objects.requireNonNull(newPrice, "New price cannot be null");
 
-        return existing.getBuyPrice().compareTo(newPrice.buyPrice()) == 0 &&
-                existing.getSellPrice().compareTo(newPrice.sellPrice()) == 0;
+        return existing.buyPrice().compareTo(newPrice.buyPrice()) == 0 &&
+                existing.sellPrice().compareTo(newPrice.sellPrice()) == 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package prices.service;
+
+import java.util.Set;
+
+public record SaveResult(Set<String> changed, Set<String> unchanged, int failed) {
+
+    public SaveResult {
+        changed = Set.copyOf(changed);
+        unchanged = Set.copyOf(unchanged);
+    }
+
+    public static SaveResult empty() {
+        return new SaveResult(Set.of(), Set.of(), 0);
+    }
+
+    public int saved() {
+        return changed.size();
+    }
+
+    public int skipped() {
+        return unchanged.size() + failed;
+    }
+}
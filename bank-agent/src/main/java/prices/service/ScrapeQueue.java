@@ -0,0 +1,174 @@
+package prices.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import prices.model.ScrapeLease;
+import prices.model.ScrapeLease.Status;
+import prices.repository.ScrapeLeaseRepository;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ScrapeQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ScrapeQueue.class);
+    private static final String METRIC_NAME = "agent.queue.lease";
+    private static final String SEPARATOR = ",";
+
+    private final ScrapeLeaseRepository repository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long retentionMillis;
+    private final String owner;
+    private final Clock clock;
+    private final Map<Long, Lease> held = new ConcurrentHashMap<>();
+
+    public ScrapeQueue(ScrapeLeaseRepository repository,
+                       MeterRegistry meterRegistry,
+                       @Value("${agent.queue.enabled:false}") boolean enabled,
+                       @Value("${agent.queue.lease:PT1M}") Duration lease,
+                       @Value("${agent.queue.max-attempts:3}") int maxAttempts,
+                       @Value("${agent.queue.retention:P1D}") Duration retention,
+                       @Value("${agent.queue.owner:}") String owner) {
+        this.repository = enabled
+                ? Objects.requireNonNull(repository, "ScrapeLeaseRepository cannot be null")
+                : repository;
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "MeterRegistry cannot be null");
+        this.enabled = enabled;
+        this.leaseMillis = Objects.requireNonNull(lease, "Lease duration cannot be null").toMillis();
+        this.maxAttempts = maxAttempts;
+        this.retentionMillis = Objects.requireNonNull(retention, "Retention cannot be null").toMillis();
+        this.owner = owner == null || owner.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : owner;
+        this.clock = Clock.systemUTC();
+        if (enabled && leaseMillis <= 0) {
+            throw new IllegalArgumentException("Lease duration must be positive");
+        }
+        if (enabled && maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+    }
+
+    public static ScrapeQueue disabled() {
+        return new ScrapeQueue(null, new SimpleMeterRegistry(), false, Duration.ZERO, 0, Duration.ZERO, "");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    @Transactional
+    public void enqueue(String agentKey, long cycle, List<List<String>> batches) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.millis();
+        int created = 0;
+        for (int batch = 0; batch < batches.size(); batch++) {
+            created += repository.enqueue(agentKey, cycle, batch, String.join(SEPARATOR, batches.get(batch)), now);
+        }
+        if (created > 0) {
+            log.debug("Enqueued {} batches of agent {} for cycle {}", created, agentKey, cycle);
+        }
+    }
+
+    @Transactional
+    public Optional<Lease> claim(String agentKey, long cycle) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long now = clock.millis();
+        Optional<ScrapeLease> claimable = repository.findClaimable(agentKey, cycle, maxAttempts, now);
+        if (claimable.isEmpty()) {
+            return Optional.empty();
+        }
+        ScrapeLease row = claimable.get();
+        boolean expired = row.getStatus() == Status.RUNNING;
+        if (expired) {
+            log.warn("Lease on batch {} of agent {} held by {} expired, reassigning to {}",
+                    row.getBatchIndex(), agentKey, row.getLeaseOwner(), owner);
+        }
+        row.claim(owner, now + leaseMillis, now);
+        Lease lease = new Lease(row.getId(), agentKey, cycle, row.getBatchIndex(), instruments(row.getInstruments()),
+                row.getAttempts());
+        held.put(lease.id(), lease);
+        meterRegistry.counter(METRIC_NAME, "agent", agentKey, "event", expired ? "reassigned" : "claimed")
+                .increment();
+        return Optional.of(lease);
+    }
+
+    @Transactional
+    public void complete(Lease lease, boolean succeeded) {
+        Status status = succeeded ? Status.DONE : lease.attempts() < maxAttempts ? Status.PENDING : Status.FAILED;
+        settle(lease, status, lease.attempts());
+    }
+
+    @Transactional
+    public void release(Lease lease) {
+        settle(lease, Status.PENDING, lease.attempts() - 1);
+    }
+
+    @Scheduled(initialDelayString = "${agent.queue.heartbeat:PT20S}",
+            fixedDelayString = "${agent.queue.heartbeat:PT20S}")
+    @Transactional
+    public void heartbeat() {
+        if (!enabled || held.isEmpty()) {
+            return;
+        }
+        long now = clock.millis();
+        for (Lease lease : held.values()) {
+            if (repository.extend(lease.id(), owner, Status.RUNNING, now + leaseMillis, now) == 0) {
+                held.remove(lease.id());
+                log.warn("Lost lease on batch {} of agent {}, another replica took it over",
+                        lease.batch(), lease.agentKey());
+                meterRegistry.counter(METRIC_NAME, "agent", lease.agentKey(), "event", "lost").increment();
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${agent.queue.purge-interval:PT1H}",
+            fixedDelayString = "${agent.queue.purge-interval:PT1H}")
+    @Transactional
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        int purged = repository.purge(clock.millis() - retentionMillis);
+        if (purged > 0) {
+            log.debug("Purged {} finished scrape leases", purged);
+        }
+    }
+
+    private void settle(Lease lease, Status status, int attempts) {
+        held.remove(lease.id());
+        if (repository.settle(lease.id(), owner, Status.RUNNING, status, attempts, clock.millis()) == 0) {
+            log.warn("Lease on batch {} of agent {} was reassigned before it finished",
+                    lease.batch(), lease.agentKey());
+            return;
+        }
+        meterRegistry.counter(METRIC_NAME, "agent", lease.agentKey(),
+                "event", status.name().toLowerCase(Locale.ROOT)).increment();
+    }
+
+    private static List<String> instruments(String joined) {
+        return joined.isEmpty() ? List.of() : List.of(joined.split(SEPARATOR));
+    }
+
+    public record Lease(long id, String agentKey, long cycle, int batch, List<String> instruments, int attempts) {
+    }
+}
@@ -0,0 +1,63 @@
+CREATE TABLE IF NOT EXISTS metal_prices
+(
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       varchar(255)   NOT NULL,
+    buy_price  numeric(19, 2) NOT NULL,
+    sell_price numeric(19, 2) NOT NULL,
+    timestamp  bigint         NOT NULL,
+    bank       varchar(255)   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS metal_prices_idx_name ON metal_prices (name);
+CREATE INDEX IF NOT EXISTS metal_prices_idx_timestamp ON metal_prices (timestamp);
+
+CREATE TABLE IF NOT EXISTS currency_prices
+(
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       varchar(255)   NOT NULL,
+    buy_price  numeric(19, 4) NOT NULL,
+    sell_price numeric(19, 4) NOT NULL,
+    timestamp  bigint         NOT NULL,
+    bank       varchar(255)   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS currency_prices_idx_name ON currency_prices (name);
+CREATE INDEX IF NOT EXISTS currency_prices_idx_timestamp ON currency_prices (timestamp);
+
+CREATE TABLE IF NOT EXISTS latest_prices
+(
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    bank       varchar(255)   NOT NULL,
+    type       varchar(16)    NOT NULL,
+    name       varchar(255)   NOT NULL,
+    buy_price  numeric(19, 4) NOT NULL,
+    sell_price numeric(19, 4) NOT NULL,
+    timestamp  bigint         NOT NULL,
+    CONSTRAINT latest_prices_uk_bank_type_name UNIQUE (bank, type, name)
+);
+
+CREATE TABLE IF NOT EXISTS selector_ranks
+(
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    source      varchar(255)  NOT NULL,
+    field_key   varchar(255)  NOT NULL,
+    xpath       varchar(2048) NOT NULL,
+    duration_ms bigint        NOT NULL,
+    updated_at  bigint        NOT NULL,
+    CONSTRAINT selector_ranks_uk_source_field UNIQUE (source, field_key)
+);
+
+CREATE TABLE IF NOT EXISTS scrape_leases
+(
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    agent_key   varchar(255)  NOT NULL,
+    cycle_index bigint        NOT NULL,
+    batch_index integer       NOT NULL,
+    instruments varchar(1024) NOT NULL,
+    status      varchar(16)   NOT NULL CHECK (status IN ('PENDING', 'RUNNING', 'DONE', 'FAILED')),
+    lease_owner varchar(255),
+    lease_until bigint,
+    attempts    integer       NOT NULL,
+    updated_at  bigint        NOT NULL,
+    CONSTRAINT scrape_leases_uk_agent_cycle_batch UNIQUE (agent_key, cycle_index, batch_index)
+);
@@ -0,0 +1,125 @@
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent text, first_day date, last_day date)
+    RETURNS integer
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    partition_month date := date_trunc('month', first_day)::date;
+    partition_name  text;
+    created         integer := 0;
+BEGIN
+    WHILE partition_month <= last_day
+        LOOP
+            partition_name := format('%s_y%s', parent, to_char(partition_month, 'YYYY"m"MM'));
+            IF to_regclass(partition_name) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%s) TO (%s)',
+                               partition_name, parent,
+                               (extract(EPOCH FROM partition_month::timestamp) * 1000)::bigint,
+                               (extract(EPOCH FROM (partition_month + interval '1 month')::timestamp) * 1000)::bigint);
+                created := created + 1;
+            END IF;
+            partition_month := (partition_month + interval '1 month')::date;
+        END LOOP;
+    RETURN created;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION drop_monthly_partitions(parent text, before_millis bigint)
+    RETURNS integer
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    stale   record;
+    dropped integer := 0;
+BEGIN
+    FOR stale IN
+        SELECT child.relname,
+               to_date(substring(child.relname FROM '_y(\d{4}m\d{2})$'), 'YYYY"m"MM') AS partition_month
+        FROM pg_inherits
+                 JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                 JOIN pg_class parent_table ON parent_table.oid = pg_inherits.inhparent
+        WHERE parent_table.relname = parent
+          AND child.relname ~ ('^' || parent || '_y\d{4}m\d{2}$')
+        LOOP
+            IF (extract(EPOCH FROM (stale.partition_month + interval '1 month')::timestamp) * 1000)::bigint
+                <= before_millis THEN
+                EXECUTE format('DROP TABLE %I', stale.relname);
+                dropped := dropped + 1;
+            END IF;
+        END LOOP;
+    RETURN dropped;
+END
+$$;
+
+ALTER TABLE metal_prices RENAME TO metal_prices_unpartitioned;
+
+CREATE SEQUENCE metal_prices_seq;
+
+CREATE TABLE metal_prices
+(
+    id         bigint         NOT NULL DEFAULT nextval('metal_prices_seq'),
+    name       varchar(255)   NOT NULL,
+    buy_price  numeric(19, 2) NOT NULL,
+    sell_price numeric(19, 2) NOT NULL,
+    timestamp  bigint         NOT NULL,
+    bank       varchar(255)   NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE metal_prices_seq OWNED BY metal_prices.id;
+
+CREATE INDEX metal_prices_idx_name_timestamp ON metal_prices (name, timestamp DESC);
+
+SELECT create_monthly_partitions('metal_prices',
+                                 coalesce((SELECT (to_timestamp(min(timestamp) / 1000.0) AT TIME ZONE 'UTC')::date
+                                           FROM metal_prices_unpartitioned), current_date),
+                                 greatest((SELECT (to_timestamp(max(timestamp) / 1000.0) AT TIME ZONE 'UTC')::date
+                                           FROM metal_prices_unpartitioned),
+                                          (current_date + interval '3 months')::date));
+
+INSERT INTO metal_prices (id, name, buy_price, sell_price, timestamp, bank)
+SELECT id, name, buy_price, sell_price, timestamp, bank
+FROM metal_prices_unpartitioned;
+
+SELECT setval('metal_prices_seq', coalesce((SELECT max(id) FROM metal_prices), 0) + 1, false);
+
+DROP TABLE metal_prices_unpartitioned;
+
+ALTER TABLE currency_prices RENAME TO currency_prices_unpartitioned;
+
+CREATE SEQUENCE currency_prices_seq;
+
+CREATE TABLE currency_prices
+(
+    id         bigint         NOT NULL DEFAULT nextval('currency_prices_seq'),
+    name       varchar(255)   NOT NULL,
+    buy_price  numeric(19, 4) NOT NULL,
+    sell_price numeric(19, 4) NOT NULL,
+    timestamp  bigint         NOT NULL,
+    bank       varchar(255)   NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE currency_prices_seq OWNED BY currency_prices.id;
+
+CREATE INDEX currency_prices_idx_name_timestamp ON currency_prices (name, timestamp DESC);
+
+SELECT create_monthly_partitions('currency_prices',
+                                 coalesce((SELECT (to_timestamp(min(timestamp) / 1000.0) AT TIME ZONE 'UTC')::date
+                                           FROM currency_prices_unpartitioned), current_date),
+                                 greatest((SELECT (to_timestamp(max(timestamp) / 1000.0) AT TIME ZONE 'UTC')::date
+                                           FROM currency_prices_unpartitioned),
+                                          (current_date + interval '3 months')::date));
+
+INSERT INTO currency_prices (id, name, buy_price, sell_price, timestamp, bank)
+SELECT id, name, buy_price, sell_price, timestamp, bank
+FROM currency_prices_unpartitioned;
+
+SELECT setval('currency_prices_seq', coalesce((SELECT max(id) FROM currency_prices), 0) + 1, false);
+
+DROP TABLE currency_prices_unpartitioned;
+
+ALTER TABLE latest_prices
+    ALTER COLUMN buy_price TYPE numeric(19, 4),
+    ALTER COLUMN sell_price TYPE numeric(19, 4);
@@ -0,0 +1,50 @@
+CREATE TABLE price_candles
+(
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    bank         varchar(255)   NOT NULL,
+    type         varchar(16)    NOT NULL,
+    name         varchar(255)   NOT NULL,
+    resolution   varchar(16)    NOT NULL,
+    bucket_start bigint         NOT NULL,
+    buy_open     numeric(19, 4) NOT NULL,
+    buy_high     numeric(19, 4) NOT NULL,
+    buy_low      numeric(19, 4) NOT NULL,
+    buy_close    numeric(19, 4) NOT NULL,
+    sell_open    numeric(19, 4) NOT NULL,
+    sell_high    numeric(19, 4) NOT NULL,
+    sell_low     numeric(19, 4) NOT NULL,
+    sell_close   numeric(19, 4) NOT NULL,
+    samples      integer        NOT NULL,
+    opened_at    bigint         NOT NULL,
+    closed_at    bigint         NOT NULL,
+    CONSTRAINT price_candles_uk_bucket UNIQUE (bank, type, name, resolution, bucket_start)
+);
+
+INSERT INTO price_candles (bank, type, name, resolution, bucket_start, buy_open, buy_high, buy_low, buy_close,
+                           sell_open, sell_high, sell_low, sell_close, samples, opened_at, closed_at)
+SELECT history.bank,
+       history.type,
+       history.name,
+       resolutions.resolution,
+       history.timestamp / resolutions.millis * resolutions.millis,
+       (array_agg(history.buy_price ORDER BY history.timestamp))[1],
+       max(history.buy_price),
+       min(history.buy_price),
+       (array_agg(history.buy_price ORDER BY history.timestamp DESC))[1],
+       (array_agg(history.sell_price ORDER BY history.timestamp))[1],
+       max(history.sell_price),
+       min(history.sell_price),
+       (array_agg(history.sell_price ORDER BY history.timestamp DESC))[1],
+       count(*),
+       min(history.timestamp),
+       max(history.timestamp)
+FROM (SELECT 'METAL' AS type, bank, name, buy_price, sell_price, timestamp
+      FROM metal_prices
+      UNION ALL
+      SELECT 'CURRENCY' AS type, bank, name, buy_price, sell_price, timestamp
+      FROM currency_prices) AS history
+         CROSS JOIN (VALUES ('MINUTE', 60000::bigint),
+                            ('HOUR', 3600000::bigint),
+                            ('DAY', 86400000::bigint)) AS resolutions (resolution, millis)
+GROUP BY history.bank, history.type, history.name, resolutions.resolution,
+         history.timestamp / resolutions.millis * resolutions.millis;
@@ -0,0 +1,5 @@
+ALTER TABLE selector_ranks
+    RENAME COLUMN duration_ms TO duration_micros;
+
+UPDATE selector_ranks
+SET duration_micros = duration_micros * 1000;
@@ -0,0 +1,61 @@
+package agent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+import prices.agent.Agent;
+import prices.agent.AgentRegistry;
+import prices.agent.AgentSettings;
+import shared.enums.Banks;
+import shared.enums.TypePrice;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AgentRegistry тесты")
+class AgentRegistryTest {
+
+    @Test
+    @DisplayName("Настройки агента переопределяют значения по умолчанию")
+    void shouldResolvePerAgentSettings() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("agent.schedule.defaults.interval", "PT15M")
+                .withProperty("agent.schedule.defaults.timeout", "PT5M")
+                .withProperty("agent.schedule.sber-metal.interval", "PT1M")
+                .withProperty("agent.schedule.sber-metal.concurrency", "2");
+        environment.setConversionService(new ApplicationConversionService());
+
+        AgentRegistry registry = new AgentRegistry(
+                List.of(agent(TypePrice.METAL), agent(TypePrice.CURRENCY)), environment);
+
+        AgentSettings metal = registry.getSettings("sber-metal");
+        AgentSettings currency = registry.getSettings("sber-currency");
+        assertThat(metal.interval()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(metal.concurrency()).isEqualTo(2);
+        assertThat(currency.interval()).isEqualTo(Duration.ofMinutes(15));
+        assertThat(currency.timeout()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(registry.find("sber-currency")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Ошибка при совпадении ключей агентов")
+    void shouldRejectDuplicateKeys() {
+        assertThatThrownBy(() -> new AgentRegistry(
+                List.of(agent(TypePrice.METAL), agent(TypePrice.METAL)), new MockEnvironment()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("sber-metal");
+    }
+
+    private Agent agent(TypePrice typePrice) {
+        Agent agent = mock(Agent.class);
+        when(agent.getBank()).thenReturn(Banks.SBER);
+        when(agent.getTypePrice()).thenReturn(typePrice);
+        when(agent.getKey()).thenCallRealMethod();
+        when(agent.getName()).thenReturn("agent " + typePrice.getValue());
+        return agent;
+    }
+}
@@ -0,0 +1,100 @@
+package agent;
+
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import prices.agent.AgentConfig;
+import prices.agent.EnumAgentsConfig;
+import prices.agent.JsoupSupport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("JsoupSupport тесты")
+class JsoupSupportTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private JsoupSupport jsoupSupport;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            try (InputStream in = getClass().getResourceAsStream("/fixtures" + path)) {
+                if (in == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                byte[] body = in.readAllBytes();
+                exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        jsoupSupport = new JsoupSupport(true, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Извлечение курса валюты из статического HTML")
+    void shouldExtractCurrencyRatesFromStaticHtml() {
+        AgentConfig config = EnumAgentsConfig.SBER_CURRENT.getAgentConfig();
+        Document document = jsoupSupport.load(baseUrl + "/sber-currency.html").orElseThrow();
+
+        Optional<String> buy = JsoupSupport.findText(document,
+                String.format(config.getWebElement(), "Доллар США", "USD", config.getIndexBuy()));
+        Optional<String> sell = JsoupSupport.findText(document,
+                String.format(config.getWebElement(), "Доллар США", "USD", config.getIndexSell()));
+
+        assertThat(buy).contains("78,50 ₽");
+        assertThat(sell).contains("82,10 ₽");
+    }
+
+    @Test
+    @DisplayName("Извлечение цены металла из статического HTML")
+    void shouldExtractMetalRatesFromStaticHtml() {
+        AgentConfig config = EnumAgentsConfig.SBER_METAL.getAgentConfig();
+        Document document = jsoupSupport.load(baseUrl + "/sber-metal.html").orElseThrow();
+
+        Optional<String> buy = JsoupSupport.findText(document,
+                String.format(config.getWebElement(), "Золото", config.getIndexBuy()));
+
+        assertThat(buy).contains("8 120,00 ₽");
+    }
+
+    @Test
+    @DisplayName("Пустой результат для отсутствующего элемента")
+    void shouldReturnEmptyForMissingElement() {
+        AgentConfig config = EnumAgentsConfig.SBER_METAL.getAgentConfig();
+        Document document = jsoupSupport.load(baseUrl + "/sber-metal.html").orElseThrow();
+
+        assertThat(JsoupSupport.findText(document,
+                String.format(config.getWebElement(), "Родий", config.getIndexBuy()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Пустой результат при ошибке загрузки")
+    void shouldReturnEmptyWhenPageUnavailable() {
+        assertThat(jsoupSupport.load(baseUrl + "/missing.html")).isEmpty();
+        assertThat(new JsoupSupport(false, Duration.ofSeconds(5)).load(baseUrl + "/sber-metal.html")).isEmpty();
+    }
+}
@@ -0,0 +1,124 @@
+package agent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import prices.agent.WebDriverSupport;
+import prices.agent.driver.PageLoadMetrics;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.FixtureRecorder;
+import prices.agent.extract.PageRequest;
+import prices.agent.metrics.ScrapeTimer;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("WebDriverSupport тесты")
+class WebDriverSupportTest {
+
+    private static final String NAVIGATE_SCRIPT = "window.location.href = arguments[0];";
+
+    private WebDriver driver;
+    private WebDriver.TargetLocator targetLocator;
+    private Consumer<WebDriver> prepareTarget;
+    private WebDriverSupport support;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        targetLocator = mock(WebDriver.TargetLocator.class);
+        when(driver.switchTo()).thenReturn(targetLocator);
+        when(targetLocator.newWindow(WindowType.TAB)).thenReturn(driver);
+        when(targetLocator.window(anyString())).thenReturn(driver);
+        when(driver.getWindowHandle()).thenReturn("origin", "tab-1", "tab-2");
+        prepareTarget = mock(Consumer.class);
+        support = new WebDriverSupport(driver, mock(Runnable.class), prepareTarget, mock(PageLoadMetrics.class),
+                FixtureRecorder.disabled(), new ScrapeTimer(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @DisplayName("Каждая вкладка готовится до перехода, результаты идут в порядке страниц")
+    void shouldPrepareTabsBeforeNavigation() {
+        ExtractionResult first = result();
+        ExtractionResult second = result();
+        List<PageRequest> pages = List.of(page("https://bank/1", first), page("https://bank/2", second));
+
+        List<ExtractionResult> results = support.extractAll(pages, 2);
+
+        assertThat(results).containsExactly(first, second);
+        InOrder inOrder = inOrder(targetLocator, prepareTarget, driver);
+        for (String url : List.of("https://bank/1", "https://bank/2")) {
+            inOrder.verify(targetLocator).newWindow(WindowType.TAB);
+            inOrder.verify(prepareTarget).accept(driver);
+            inOrder.verify((JavascriptExecutor) driver).executeScript(NAVIGATE_SCRIPT, url);
+        }
+        inOrder.verify(targetLocator).window("tab-1");
+        inOrder.verify(driver).close();
+        inOrder.verify(targetLocator).window("tab-2");
+        inOrder.verify(driver).close();
+        inOrder.verify(targetLocator).window("origin");
+    }
+
+    @Test
+    @DisplayName("Сбой одной вкладки закрывает остальные и возвращает на исходную")
+    void shouldCloseTabsWhenExtractionFails() {
+        ExtractionPlan failing = plan();
+        when(failing.execute(any(JavascriptExecutor.class), any(OptionalLong.class)))
+                .thenThrow(new WebDriverException("tab crashed"));
+        List<PageRequest> pages = List.of(page("https://bank/1", result()),
+                new PageRequest("https://bank/2", failing, OptionalLong.empty()));
+        Set<String> open = new LinkedHashSet<>(List.of("origin", "tab-2"));
+        when(driver.getWindowHandles()).thenReturn(open);
+
+        assertThatThrownBy(() -> support.extractAll(pages, 2))
+                .isInstanceOf(WebDriverException.class)
+                .hasMessageContaining("tab crashed");
+
+        verify(prepareTarget, times(2)).accept(driver);
+        InOrder inOrder = inOrder(targetLocator, driver);
+        inOrder.verify(targetLocator).window("tab-1");
+        inOrder.verify(driver).close();
+        inOrder.verify(targetLocator).window("tab-2");
+        inOrder.verify(driver).getWindowHandles();
+        inOrder.verify(targetLocator).window("tab-2");
+        inOrder.verify(driver).close();
+        inOrder.verify(targetLocator).window("origin");
+    }
+
+    private static PageRequest page(String url, ExtractionResult result) {
+        ExtractionPlan plan = plan();
+        when(plan.execute(any(JavascriptExecutor.class), any(OptionalLong.class))).thenReturn(result);
+        return new PageRequest(url, plan, OptionalLong.empty());
+    }
+
+    private static ExtractionPlan plan() {
+        ExtractionPlan plan = mock(ExtractionPlan.class);
+        when(plan.getReadyTimeout()).thenReturn(Duration.ofSeconds(1));
+        when(plan.instrumentCount()).thenReturn(1);
+        when(plan.getFields()).thenReturn(List.of());
+        return plan;
+    }
+
+    private static ExtractionResult result() {
+        ExtractionResult result = mock(ExtractionResult.class);
+        when(result.isComplete()).thenReturn(true);
+        when(result.withElapsed(any(Duration.class))).thenReturn(result);
+        return result;
+    }
+}
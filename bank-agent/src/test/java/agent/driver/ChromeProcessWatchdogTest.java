@@ -0,0 +1,180 @@
+package agent.driver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import prices.agent.WebDriverSupport;
+import prices.agent.driver.BrowserEngine;
+import prices.agent.driver.ChromeProcessWatchdog;
+import prices.agent.driver.ProcessInspector;
+import prices.agent.driver.ProcessInspector.ProcessInfo;
+import prices.agent.driver.WebDriverFactory;
+import prices.agent.driver.WebDriverPool;
+import prices.agent.extract.FixtureRecorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ChromeProcessWatchdog тесты")
+class ChromeProcessWatchdogTest {
+
+    private static final long JVM_PID = ProcessHandle.current().pid();
+    private static final Path PROFILES = Path.of("profiles").toAbsolutePath();
+    private static final long MB = 1024 * 1024;
+
+    private ProcessInspector inspector;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        inspector = mock(ProcessInspector.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(inspector.isSupported()).thenReturn(true);
+        when(inspector.kill(anyLong())).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Чтение дерева процессов из /proc")
+    void shouldReadProcessTreeFromProc(@TempDir Path proc) throws IOException {
+        writeProcess(proc, 100, 1, "chromedriver", 1000, "chromedriver\0--port=9515");
+        writeProcess(proc, 101, 100, "chrome", 25000, "chrome\0--headless=new\0--user-data-dir=/tmp/a");
+        writeProcess(proc, 102, 101, "chrome", 5000, "chrome\0--type=renderer");
+        Files.createDirectories(proc.resolve("self"));
+
+        List<ProcessInfo> processes = new ProcessInspector(proc.toString()).list();
+
+        assertThat(processes).extracting(ProcessInfo::pid).containsExactlyInAnyOrder(100L, 101L, 102L);
+        ProcessInfo browser = processes.stream().filter(p -> p.pid() == 101).findFirst().orElseThrow();
+        assertThat(browser.ppid()).isEqualTo(100);
+        assertThat(browser.name()).isEqualTo("chrome");
+        assertThat(browser.rssBytes()).isEqualTo(25000L * 4096);
+        assertThat(browser.cpuTicks()).isEqualTo(30);
+        assertThat(browser.commandLine()).contains("--user-data-dir=/tmp/a");
+        assertThat(ProcessInspector.descendants(processes, 100)).containsExactlyInAnyOrder(101L, 102L);
+    }
+
+    @Test
+    @DisplayName("Осиротевшие процессы с нашим профилем убиваются со второго прохода, чужой Chrome не трогается")
+    void shouldReapOnlyConfirmedOwnOrphans() {
+        when(inspector.list()).thenReturn(List.of(
+                process(200, 1, "chrome", 100 * MB, "chrome --headless=new --user-data-dir=" + PROFILES + "/old"),
+                process(201, 1, "chromedriver", MB, "chromedriver --port=9515"),
+                process(202, 201, "chrome", 100 * MB, "chrome --user-data-dir=" + PROFILES + "/other"),
+                process(210, 1, "chromedriver", MB, "chromedriver --port=9516"),
+                process(211, 1, "chrome", 100 * MB, "chrome --headless=new --user-data-dir=/tmp/foreign"),
+                process(300, 1, "chrome", 100 * MB, "chrome --user-data-dir=/home/user/.config"),
+                process(400, 1, "java", 100 * MB, "java -jar app.jar"),
+                process(500, JVM_PID, "chrome", 100 * MB, "chrome --headless=new")));
+        ChromeProcessWatchdog watchdog = watchdog(1024, 40);
+
+        assertThat(watchdog.reapOrphans()).isZero();
+        verify(inspector, never()).kill(anyLong());
+
+        assertThat(watchdog.reapOrphans()).isEqualTo(4);
+        verify(inspector).kill(200);
+        verify(inspector).kill(201);
+        verify(inspector).kill(202);
+        verify(inspector).kill(500);
+        verify(inspector, never()).kill(210);
+        verify(inspector, never()).kill(211);
+        verify(inspector, never()).kill(300);
+        verify(inspector, never()).kill(400);
+    }
+
+    @Test
+    @DisplayName("Драйвер с превышением памяти пересоздаётся, процессы добиваются")
+    void shouldRecycleDriverOverMemoryLimit() {
+        WebDriverFactory factory = mock(WebDriverFactory.class);
+        when(factory.getEngine()).thenReturn(BrowserEngine.CHROME);
+        WebDriver first = chromeDriver("/tmp/first");
+        WebDriver second = chromeDriver("/tmp/second");
+        when(factory.create()).thenReturn(first, second);
+        when(inspector.list()).thenReturn(List.of(
+                process(100, JVM_PID, "chromedriver", 10 * MB, "chromedriver --port=9515"),
+                process(101, 100, "chrome", 900 * MB, "chrome --headless=new --user-data-dir=/tmp/first"),
+                process(102, 101, "chrome", 300 * MB, "chrome --type=renderer --user-data-dir=/tmp/first")));
+        ChromeProcessWatchdog watchdog = watchdog(1024, 40);
+        WebDriverPool pool = new WebDriverPool(factory, meterRegistry, FixtureRecorder.disabled(), watchdog,
+                1, 10, 0, Duration.ofSeconds(1));
+        try (WebDriverSupport ignored = pool.lease()) {
+            assertThat(pool.getLeasedCount()).isEqualTo(1);
+        }
+
+        watchdog.check();
+
+        verify(first).quit();
+        verify(inspector).kill(102);
+        verify(inspector).kill(101);
+        verify(inspector).kill(100);
+        verify(factory, times(2)).create();
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("agent.driver.process.rss").gauge().value()).isEqualTo(1210.0 * MB);
+        assertThat(meterRegistry.get("agent.driver.pool.recycled").tag("reason", "rss").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Дерево в пределах лимитов не трогается")
+    void shouldKeepDriverWithinLimits() {
+        WebDriverFactory factory = mock(WebDriverFactory.class);
+        when(factory.getEngine()).thenReturn(BrowserEngine.CHROME);
+        WebDriver driver = chromeDriver("/tmp/first");
+        when(factory.create()).thenReturn(driver);
+        when(inspector.list()).thenReturn(List.of(
+                process(100, JVM_PID, "chromedriver", 10 * MB, "chromedriver --port=9515"),
+                process(101, 100, "chrome", 200 * MB, "chrome --headless=new --user-data-dir=/tmp/first")));
+        ChromeProcessWatchdog watchdog = watchdog(1024, 40);
+        WebDriverPool pool = new WebDriverPool(factory, meterRegistry, FixtureRecorder.disabled(), watchdog,
+                1, 10, 0, Duration.ofSeconds(1));
+        try (WebDriverSupport ignored = pool.lease()) {
+            assertThat(pool.getLeasedCount()).isEqualTo(1);
+        }
+
+        watchdog.check();
+        watchdog.check();
+
+        verify(driver, never()).quit();
+        verify(inspector, never()).kill(anyLong());
+        assertThat(meterRegistry.get("agent.driver.process.children").gauge().value()).isEqualTo(1);
+    }
+
+    private ChromeProcessWatchdog watchdog(long maxRssMb, int maxChildren) {
+        return new ChromeProcessWatchdog(inspector, meterRegistry, true, maxRssMb, 0, maxChildren, "chrome",
+                "profiles");
+    }
+
+    private static WebDriver chromeDriver(String userDataDir) {
+        WebDriver driver = mock(WebDriver.class,
+                withSettings().extraInterfaces(JavascriptExecutor.class, HasCapabilities.class));
+        Capabilities capabilities = mock(Capabilities.class);
+        when(capabilities.getCapability("chrome")).thenReturn(Map.of("userDataDir", userDataDir));
+        when(((HasCapabilities) driver).getCapabilities()).thenReturn(capabilities);
+        return driver;
+    }
+
+    private static ProcessInfo process(long pid, long ppid, String name, long rss, String commandLine) {
+        return new ProcessInfo(pid, ppid, name, 'S', rss, 0, commandLine);
+    }
+
+    private static void writeProcess(Path proc, long pid, long ppid, String name, long rssPages, String cmdline)
+            throws IOException {
+        Path dir = Files.createDirectories(proc.resolve(Long.toString(pid)));
+        Files.writeString(dir.resolve("stat"), pid + " (" + name + ") S " + ppid
+                + " 1 1 0 -1 4194304 100 0 0 0 10 20 0 0 20 0 12 0 5000 100000000 " + rssPages + " 0");
+        Files.writeString(dir.resolve("cmdline"), cmdline);
+    }
+}
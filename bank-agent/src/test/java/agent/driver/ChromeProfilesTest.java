@@ -0,0 +1,84 @@
+package agent.driver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import prices.agent.driver.ChromeProfiles;
+import prices.agent.driver.ChromeProfiles.Profile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ChromeProfiles тесты")
+class ChromeProfilesTest {
+
+    @TempDir
+    Path root;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Одновременные драйверы получают разные профили, освобождённый слот переиспользуется")
+    void shouldIsolateConcurrentDrivers() {
+        ChromeProfiles profiles = profiles(1);
+
+        Profile first = profiles.claim().orElseThrow();
+        Profile second = profiles.claim().orElseThrow();
+        profiles.release(first);
+        Profile third = profiles.claim().orElseThrow();
+
+        assertThat(second.dir()).isNotEqualTo(first.dir());
+        assertThat(third.dir()).isEqualTo(first.dir());
+        assertThat(first.dir()).isDirectory();
+    }
+
+    @Test
+    @DisplayName("Профиль сохраняет кэш, но очищается от блокировок упавшего Chrome")
+    void shouldKeepCacheAndRemoveStaleLocks() throws IOException {
+        ChromeProfiles profiles = profiles(1);
+        Profile profile = profiles.claim().orElseThrow();
+        Files.writeString(profile.dir().resolve("cache.bin"), "cached");
+        Files.writeString(profile.dir().resolve("SingletonLock"), "host-1");
+        profiles.release(profile);
+
+        Profile reclaimed = profiles.claim().orElseThrow();
+
+        assertThat(reclaimed.dir().resolve("cache.bin")).exists();
+        assertThat(reclaimed.dir().resolve("SingletonLock")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Профиль больше лимита очищается целиком")
+    void shouldWipeProfileOverLimit() throws IOException {
+        ChromeProfiles profiles = profiles(1);
+        Profile profile = profiles.claim().orElseThrow();
+        Files.createDirectories(profile.dir().resolve("Default/Cache"));
+        Files.write(profile.dir().resolve("Default/Cache/data_1"), new byte[2 * 1024 * 1024]);
+        profiles.release(profile);
+
+        Profile reclaimed = profiles.claim().orElseThrow();
+
+        assertThat(reclaimed.dir()).isEmptyDirectory();
+        assertThat(meterRegistry.get("agent.driver.profile.wiped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Выключенный режим не выдаёт профилей")
+    void shouldNotClaimWhenDisabled() {
+        assertThat(ChromeProfiles.disabled().claim()).isEmpty();
+    }
+
+    private ChromeProfiles profiles(long maxSizeMb) {
+        return new ChromeProfiles(meterRegistry, true, root.toString(), 64, maxSizeMb);
+    }
+}
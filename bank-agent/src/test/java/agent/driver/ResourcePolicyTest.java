@@ -0,0 +1,51 @@
+package agent.driver;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import prices.agent.driver.ResourcePolicy;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ResourcePolicy тесты")
+class ResourcePolicyTest {
+
+    @Test
+    @DisplayName("Объединение шаблонов по типам ресурсов и явных URL")
+    void shouldCombineResourceTypesAndUrlPatterns() {
+        ResourcePolicy policy = new ResourcePolicy("eager", List.of("font"), List.of(" *mc.yandex.ru* ", ""));
+
+        assertThat(policy.getPageLoadStrategy()).isEqualTo(PageLoadStrategy.EAGER);
+        assertThat(policy.getBlockedUrls())
+                .contains("*.woff2", "*.woff2?*", "*mc.yandex.ru*")
+                .doesNotContain("*.png", "");
+    }
+
+    @Test
+    @DisplayName("Ошибка при неизвестном типе ресурса")
+    void shouldRejectUnknownResourceType() {
+        assertThatThrownBy(() -> new ResourcePolicy("eager", List.of("video"), List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("video");
+    }
+
+    @Test
+    @DisplayName("Блокировка URL через CDP")
+    void shouldBlockUrlsThroughCdp() {
+        ResourcePolicy policy = new ResourcePolicy("normal", List.of("image"), List.of());
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(HasCdp.class));
+
+        policy.apply(driver);
+
+        verify((HasCdp) driver).executeCdpCommand("Network.enable", Map.of());
+        verify((HasCdp) driver).executeCdpCommand(eq("Network.setBlockedURLs"),
+                eq(Map.of("urls", policy.getBlockedUrls())));
+    }
+}
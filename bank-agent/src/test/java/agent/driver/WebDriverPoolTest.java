@@ -0,0 +1,107 @@
+package agent.driver;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import prices.agent.WebDriverSupport;
+import prices.agent.driver.BrowserEngine;
+import prices.agent.driver.ChromeProcessWatchdog;
+import prices.agent.driver.WebDriverFactory;
+import prices.agent.driver.WebDriverPool;
+import prices.agent.extract.FixtureRecorder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("WebDriverPool тесты")
+class WebDriverPoolTest {
+
+    private WebDriverFactory factory;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        factory = mock(WebDriverFactory.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(factory.create()).thenAnswer(invocation -> newDriver());
+        when(factory.getEngine()).thenReturn(BrowserEngine.CHROME);
+    }
+
+    @Test
+    @DisplayName("Повторное использование драйвера между арендами")
+    void shouldReuseDriverBetweenLeases() {
+        WebDriverPool pool = new WebDriverPool(factory, meterRegistry, FixtureRecorder.disabled(),
+                ChromeProcessWatchdog.disabled(), 1, 10, 0, Duration.ofSeconds(1));
+
+        WebDriver first;
+        try (WebDriverSupport lease = pool.lease()) {
+            first = lease.getDriver();
+        }
+        try (WebDriverSupport lease = pool.lease()) {
+            assertThat(lease.getDriver()).isSameAs(first);
+        }
+
+        verify(factory, times(1)).create();
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        assertThat(pool.getLeasedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Пересоздание драйвера после max-uses")
+    void shouldRecycleDriverAfterMaxUses() {
+        WebDriverPool pool = new WebDriverPool(factory, meterRegistry, FixtureRecorder.disabled(),
+                ChromeProcessWatchdog.disabled(), 1, 1, 0, Duration.ofSeconds(1));
+
+        WebDriver first;
+        try (WebDriverSupport lease = pool.lease()) {
+            first = lease.getDriver();
+        }
+        try (WebDriverSupport lease = pool.lease()) {
+            assertThat(lease.getDriver()).isNotSameAs(first);
+        }
+
+        verify(first).quit();
+        assertThat(meterRegistry.get("agent.driver.pool.recycled").tag("reason", "max-uses").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Замена упавшего драйвера при аренде")
+    void shouldReplaceUnhealthyDriver() {
+        WebDriverPool pool = new WebDriverPool(factory, meterRegistry, FixtureRecorder.disabled(),
+                ChromeProcessWatchdog.disabled(), 1, 10, 0, Duration.ofSeconds(1));
+
+        WebDriver first;
+        try (WebDriverSupport lease = pool.lease()) {
+            first = lease.getDriver();
+        }
+        when(first.getWindowHandle()).thenThrow(new NoSuchSessionException("gone"));
+
+        try (WebDriverSupport lease = pool.lease()) {
+            assertThat(lease.getDriver()).isNotSameAs(first);
+        }
+        verify(first).quit();
+    }
+
+    @Test
+    @DisplayName("Ожидание свободного драйвера ограничено таймаутом")
+    void shouldTimeoutWhenPoolExhausted() {
+        WebDriverPool pool = new WebDriverPool(factory, meterRegistry, FixtureRecorder.disabled(),
+                ChromeProcessWatchdog.disabled(), 1, 10, 0, Duration.ofMillis(50));
+
+        try (WebDriverSupport ignored = pool.lease()) {
+            assertThatThrownBy(pool::lease)
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private WebDriver newDriver() {
+        return mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+    }
+}
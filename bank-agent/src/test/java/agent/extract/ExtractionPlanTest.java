@@ -0,0 +1,129 @@
+package agent.extract;
+
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import prices.agent.EnumAgentsConfig;
+import prices.agent.JsoupSupport;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import shared.enums.CurrentPrice;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ExtractionPlan тесты")
+class ExtractionPlanTest {
+
+    @Test
+    @DisplayName("Компиляция основного и альтернативного XPath для каждой стороны")
+    void shouldCompileCandidatesPerSide() {
+        ExtractionPlan plan = currencyPlan("USD");
+
+        assertThat(plan.getFields()).hasSize(2);
+        assertThat(plan.getFields().get(0).side()).isEqualTo(CurrentPrice.BUY);
+        assertThat(plan.getFields().get(0).xpaths()).hasSize(2);
+        assertThat(plan.getFields().get(0).xpaths().get(1)).contains("'USD'").endsWith("[1]");
+    }
+
+    @Test
+    @DisplayName("Извлечение всех значений из HTML за один проход")
+    void shouldExtractAllFieldsFromDocument() throws IOException {
+        ExtractionResult result = currencyPlan("USD", "EUR").execute(fixture("sber-currency.html"));
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.text("EUR", CurrentPrice.SELL)).contains("95,40 ₽");
+        assertThat(result.candidate("USD", CurrentPrice.BUY)).hasValue(0);
+        assertThat(result.cost("USD", CurrentPrice.BUY)).isPresent();
+        assertThat(result.cost("GBP", CurrentPrice.BUY)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Отчёт о промахах по отдельным полям")
+    void shouldReportMissingFields() throws IOException {
+        ExtractionResult result = currencyPlan("USD", "GBP").execute(fixture("sber-currency.html"));
+
+        assertThat(result.isComplete()).isFalse();
+        assertThat(result.hasInstrument("USD")).isTrue();
+        assertThat(result.getMisses()).containsExactly("GBP:BUY", "GBP:SELL");
+    }
+
+    @Test
+    @DisplayName("Один вызов executeScript на страницу")
+    void shouldUseSingleScriptCall() {
+        JavascriptExecutor executor = mock(JavascriptExecutor.class);
+        when(executor.executeScript(anyString(), any())).thenReturn(Map.of("fields", Arrays.asList(
+                List.of(0L, "78,50 ₽"), List.of(1L, "82,10 ₽"), null, null)));
+
+        ExtractionResult result = currencyPlan("USD", "EUR").execute(executor);
+
+        verify(executor, times(1)).executeScript(anyString(), any());
+        assertThat(result.text("USD", CurrentPrice.SELL)).contains("82,10 ₽");
+        assertThat(result.candidate("USD", CurrentPrice.SELL)).hasValue(1);
+        assertThat(result.getMisses()).containsExactly("EUR:BUY", "EUR:SELL");
+    }
+
+    @Test
+    @DisplayName("Неизменённый контейнер курсов пропускает извлечение")
+    void shouldSkipExtractionWhenFingerprintMatches() throws IOException {
+        ExtractionPlan plan = currencyPlan("USD", "EUR");
+        ExtractionResult first = plan.execute(fixture("sber-currency.html"));
+
+        ExtractionResult second = plan.execute(fixture("sber-currency.html"), first.getFingerprint());
+
+        assertThat(first.getFingerprint()).isPresent();
+        assertThat(first.isUnchanged()).isFalse();
+        assertThat(second.isUnchanged()).isTrue();
+        assertThat(second.getFingerprint()).isEqualTo(first.getFingerprint());
+        assertThat(second.text("USD", CurrentPrice.BUY)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Другой отпечаток страницы не мешает извлечению")
+    void shouldExtractWhenFingerprintDiffers() throws IOException {
+        ExtractionPlan plan = currencyPlan("USD", "EUR");
+        long stale = plan.execute(fixture("sber-currency.html")).getFingerprint().orElseThrow() + 1;
+
+        ExtractionResult result = plan.execute(fixture("sber-currency.html"), OptionalLong.of(stale));
+
+        assertThat(result.isUnchanged()).isFalse();
+        assertThat(result.isComplete()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Браузер сообщает о неизменённой странице без полей")
+    void shouldReportUnchangedFromScript() {
+        JavascriptExecutor executor = mock(JavascriptExecutor.class);
+        when(executor.executeScript(anyString(), any())).thenReturn(Map.of("fingerprint", 42L, "unchanged", true));
+
+        ExtractionResult result = currencyPlan("USD").execute(executor, OptionalLong.of(42));
+
+        assertThat(result.isUnchanged()).isTrue();
+        assertThat(result.getFingerprint()).hasValue(42);
+    }
+
+    private ExtractionPlan currencyPlan(String... codes) {
+        Map<String, List<Object>> instruments = new LinkedHashMap<>();
+        for (String code : codes) {
+            instruments.put(code, List.of(shared.enums.Currency.valueOf(code).getDisplayName(), code));
+        }
+        return ExtractionPlan.compile(EnumAgentsConfig.SBER_CURRENT.getAgentConfig(), instruments);
+    }
+
+    private Document fixture(String name) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/" + name)) {
+            return JsoupSupport.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), "http://localhost/");
+        }
+    }
+}
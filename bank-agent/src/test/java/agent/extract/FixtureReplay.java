@@ -0,0 +1,183 @@
+package agent.extract;
+
+import org.jsoup.helper.W3CDom;
+import org.jsoup.nodes.Document;
+import org.openqa.selenium.JavascriptExecutor;
+import org.w3c.dom.Node;
+import prices.agent.AgentConfig;
+import prices.agent.EnumAgentsConfig;
+import prices.agent.JsoupSupport;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.FixtureRecorder;
+import shared.enums.Banks;
+import shared.enums.Currency;
+import shared.enums.Metal;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+public final class FixtureReplay {
+
+    public static final String FIXTURES_DIR_PROPERTY = "agent.fixtures.dir";
+
+    private FixtureReplay() {
+    }
+
+    public record Fixture(String source, Path path, String html) {
+
+        public Document document() {
+            return JsoupSupport.parse(html, "http://localhost/");
+        }
+
+        public String name() {
+            return path.getFileName().toString();
+        }
+
+        @Override
+        public String toString() {
+            return source + "/" + name();
+        }
+    }
+
+    public enum Engine {
+        JSOUP {
+            @Override
+            public ExtractionResult run(ExtractionPlan plan, Fixture fixture) {
+                return plan.execute(fixture.document());
+            }
+        },
+        W3C_XPATH {
+            @Override
+            public ExtractionResult run(ExtractionPlan plan, Fixture fixture) {
+                return plan.execute(w3cExecutor(fixture.document()));
+            }
+        };
+
+        public abstract ExtractionResult run(ExtractionPlan plan, Fixture fixture);
+    }
+
+    public static List<Fixture> discover() {
+        List<Path> roots = new ArrayList<>();
+        String external = System.getProperty(FIXTURES_DIR_PROPERTY);
+        if (external != null && !external.isBlank()) {
+            roots.add(Path.of(external));
+        }
+        URL bundled = FixtureReplay.class.getResource("/fixtures");
+        if (bundled != null) {
+            try {
+                roots.add(Path.of(bundled.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException("Invalid fixtures location: " + bundled, e);
+            }
+        }
+        List<Fixture> fixtures = new ArrayList<>();
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(path -> path.toString().endsWith(".html"))
+                        .sorted()
+                        .map(FixtureReplay::read)
+                        .flatMap(Optional::stream)
+                        .forEach(fixtures::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return fixtures;
+    }
+
+    public static ExtractionPlan planFor(String source) {
+        AgentConfig agentConfig = EnumAgentsConfig.findByAgentName(source)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown fixture source: " + source))
+                .getAgentConfig();
+        Map<String, List<Object>> instruments = new LinkedHashMap<>();
+        if (agentConfig == EnumAgentsConfig.SBER_CURRENT.getAgentConfig()) {
+            for (Currency currency : Currency.getCurrencyByBanks(Banks.SBER)) {
+                instruments.put(currency.name(), List.of(currency.getDisplayName(), currency.name()));
+            }
+        } else {
+            for (Metal metal : Metal.values()) {
+                instruments.put(metal.name(), List.of(metal.getDisplayName()));
+            }
+        }
+        return ExtractionPlan.compile(agentConfig, instruments);
+    }
+
+    public static ExtractionPlan reversed(ExtractionPlan plan) {
+        ExtractionPlan.Builder builder = ExtractionPlan.builder()
+                .source(plan.getSource())
+                .readyTimeout(plan.getReadyTimeout())
+                .container(plan.getContainer().orElse(null));
+        for (ExtractionPlan.Field field : plan.getFields()) {
+            List<String> xpaths = new ArrayList<>(field.xpaths());
+            Collections.reverse(xpaths);
+            builder.field(field.instrument(), field.side(), xpaths);
+        }
+        return builder.build();
+    }
+
+    private static Optional<Fixture> read(Path path) {
+        try {
+            String html = Files.readString(path, StandardCharsets.UTF_8);
+            if (!html.startsWith(FixtureRecorder.HEADER_PREFIX)) {
+                return Optional.empty();
+            }
+            String header = html.substring(FixtureRecorder.HEADER_PREFIX.length(), html.indexOf("-->"));
+            return Arrays.stream(header.trim().split("\\s+"))
+                    .filter(token -> token.startsWith("source="))
+                    .map(token -> new Fixture(token.substring("source=".length()), path, html))
+                    .findFirst();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JavascriptExecutor w3cExecutor(Document document) {
+        org.w3c.dom.Document w3c = new W3CDom().namespaceAware(false).fromJsoup(document);
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        return new JavascriptExecutor() {
+            @Override
+            public Object executeScript(String script, Object... args) {
+                List<?> fields = (List<?>) ((Map<?, ?>) args[0]).get("fields");
+                List<Object> out = new ArrayList<>(fields.size());
+                for (Object candidates : fields) {
+                    out.add(evaluate(xpath, w3c, (List<?>) candidates));
+                }
+                return Map.of("fields", out);
+            }
+
+            @Override
+            public Object executeAsyncScript(String script, Object... args) {
+                throw new UnsupportedOperationException("Async scripts are not supported in replay");
+            }
+        };
+    }
+
+    private static List<Object> evaluate(XPath xpath, org.w3c.dom.Document document, List<?> candidates) {
+        for (int i = 0; i < candidates.size(); i++) {
+            try {
+                Node node = (Node) xpath.evaluate(String.valueOf(candidates.get(i)), document, XPathConstants.NODE);
+                String text = node == null ? "" : node.getTextContent().trim();
+                if (!text.isEmpty()) {
+                    return List.of((long) i, text);
+                }
+            } catch (XPathExpressionException ignored) {
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,67 @@
+package agent.extract;
+
+import agent.extract.FixtureReplay.Engine;
+import agent.extract.FixtureReplay.Fixture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.PriceParser.ParsedPrice;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("FixtureReplay тесты")
+class FixtureReplayTest {
+
+    private final PriceParser parser = new PriceParser();
+
+    static List<Fixture> fixtures() {
+        return FixtureReplay.discover();
+    }
+
+    @Test
+    @DisplayName("Фикстуры найдены и размечены источником")
+    void shouldDiscoverBundledFixtures() {
+        assertThat(fixtures())
+                .extracting(Fixture::source)
+                .contains("SberAgentCurrencyConfig", "SberAgentMetalConfig");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("fixtures")
+    @DisplayName("Движки извлечения дают одинаковый результат")
+    void shouldExtractSameValuesWithEveryEngine(Fixture fixture) {
+        ExtractionPlan plan = FixtureReplay.planFor(fixture.source());
+        ExtractionResult jsoup = Engine.JSOUP.run(plan, fixture);
+        ExtractionResult w3c = Engine.W3C_XPATH.run(plan, fixture);
+
+        assertThat(w3c.getMisses()).isEqualTo(jsoup.getMisses());
+        assertThat(jsoup.getMisses()).hasSizeLessThan(plan.getFields().size());
+        for (ExtractionPlan.Field field : plan.getFields()) {
+            assertThat(parse(w3c, field))
+                    .as(field.key())
+                    .isEqualTo(parse(jsoup, field));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("fixtures")
+    @DisplayName("Порядок кандидатов не влияет на найденные инструменты")
+    void shouldFindSameInstrumentsInReversedOrder(Fixture fixture) {
+        ExtractionPlan plan = FixtureReplay.planFor(fixture.source());
+        ExtractionResult declared = Engine.JSOUP.run(plan, fixture);
+        ExtractionResult reversed = Engine.JSOUP.run(FixtureReplay.reversed(plan), fixture);
+
+        assertThat(reversed.getMisses()).isEqualTo(declared.getMisses());
+    }
+
+    private Optional<ParsedPrice> parse(ExtractionResult result, ExtractionPlan.Field field) {
+        return result.text(field.instrument(), field.side()).map(parser::parse);
+    }
+}
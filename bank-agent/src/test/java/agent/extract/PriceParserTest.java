@@ -0,0 +1,68 @@
+package agent.extract;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.PriceParser.ParseError;
+import prices.agent.extract.PriceParser.ParsedPrice;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PriceParser тесты")
+class PriceParserTest {
+
+    private final PriceParser parser = new PriceParser();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "78,50 ₽|78.50",
+            "8 120,00|8120.00",
+            "8 120,00 ₽|8120.00",
+            "1 234 567.5|1234567.5",
+            "  95|95",
+            "+0,0001|0.0001",
+            "5 120,40 ₽/г|5120.40",
+            "78,50 руб.|78.50",
+            "8 120,00 руб./г|8120.00",
+            "7 250,40 ₽ / гр.|7250.40"
+    })
+    @DisplayName("Разбор цен в русском формате")
+    void shouldParseRussianFormattedPrices(String text, String expected) {
+        ParsedPrice parsed = parser.parse(text);
+
+        assertThat(parsed.isValid()).isTrue();
+        assertThat(parsed.toBigDecimal()).isEqualTo(new BigDecimal(expected));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "' '|EMPTY",
+            "₽|NO_DIGITS",
+            "-78,50|NEGATIVE",
+            "78,50,10|MULTIPLE_SEPARATORS",
+            "78,50 USD|INVALID_CHARACTER",
+            "78,50 ₽/шт|INVALID_CHARACTER",
+            "78,|INVALID_CHARACTER",
+            "99999999999999999999|OVERFLOW"
+    })
+    @DisplayName("Структурированные ошибки вместо исключений")
+    void shouldReportStructuredErrors(String text, ParseError expected) {
+        ParsedPrice parsed = parser.parse(text);
+
+        assertThat(parsed.isValid()).isFalse();
+        assertThat(parsed.error()).isEqualTo(expected);
+        assertThat(parsed.errorIndex()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Ошибка при преобразовании невалидной цены")
+    void shouldRejectConversionOfInvalidPrice() {
+        assertThatThrownBy(() -> parser.parse(null).toBigDecimal())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("EMPTY");
+    }
+}
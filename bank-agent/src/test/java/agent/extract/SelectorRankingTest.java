@@ -0,0 +1,93 @@
+package agent.extract;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openqa.selenium.JavascriptExecutor;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.SelectorRanking;
+import prices.model.SelectorRank;
+import prices.repository.SelectorRankRepository;
+import shared.enums.CurrentPrice;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SelectorRanking тесты")
+class SelectorRankingTest {
+
+    private SelectorRankRepository repository;
+    private ExtractionPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SelectorRankRepository.class);
+        plan = ExtractionPlan.builder()
+                .source("TestConfig")
+                .field("USD", CurrentPrice.BUY, List.of("//primary", "//alternative"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Последний сработавший XPath проверяется первым")
+    void shouldTryLastWinnerFirst() {
+        when(repository.findBySource("TestConfig")).thenReturn(List.of(
+                new SelectorRank("TestConfig", "USD:BUY", "//alternative", 12, 1L)));
+
+        ExtractionPlan ranked = new SelectorRanking(repository).rank(plan);
+
+        assertThat(ranked.getFields().get(0).xpaths()).containsExactly("//alternative", "//primary");
+        assertThat(ranked.getSource()).isEqualTo("TestConfig");
+    }
+
+    @Test
+    @DisplayName("Сохранение нового победителя только при смене XPath")
+    void shouldPersistOnlyChangedWinner() {
+        when(repository.findBySource("TestConfig")).thenReturn(List.of());
+        SelectorRanking ranking = new SelectorRanking(repository);
+
+        ranking.record(plan, extract(plan, 1));
+        ranking.record(ranking.rank(plan), extract(ranking.rank(plan), 0));
+
+        verify(repository, times(1)).saveAll(anyList());
+        assertThat(ranking.rank(plan).getFields().get(0).xpaths().get(0)).isEqualTo("//alternative");
+    }
+
+    @Test
+    @DisplayName("Длительность победителя берётся из замера его XPath, а не всего плана")
+    @SuppressWarnings("unchecked")
+    void shouldStorePerSelectorCost() {
+        ExtractionPlan pair = ExtractionPlan.builder()
+                .source("TestConfig")
+                .field("USD", CurrentPrice.BUY, List.of("//buy"))
+                .field("USD", CurrentPrice.SELL, List.of("//sell"))
+                .build();
+        when(repository.findBySource("TestConfig")).thenReturn(List.of());
+        JavascriptExecutor executor = mock(JavascriptExecutor.class);
+        when(executor.executeScript(anyString(), any())).thenReturn(Map.of("fields", Arrays.asList(
+                List.of(0, "78,50 ₽", 2.5), List.of(0, "80,10 ₽", 0.125))));
+
+        new SelectorRanking(repository).record(pair, pair.execute(executor).withElapsed(Duration.ofSeconds(3)));
+
+        ArgumentCaptor<List<SelectorRank>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(saved.capture());
+        assertThat(saved.getValue())
+                .extracting(SelectorRank::getFieldKey, SelectorRank::getDurationMicros)
+                .containsExactlyInAnyOrder(tuple("USD:BUY", 2500L), tuple("USD:SELL", 125L));
+    }
+
+    private ExtractionResult extract(ExtractionPlan plan, long candidate) {
+        JavascriptExecutor executor = mock(JavascriptExecutor.class);
+        when(executor.executeScript(anyString(), any()))
+                .thenReturn(Map.of("fields", Arrays.asList(List.of(candidate, "78,50 ₽"))));
+        return plan.execute(executor);
+    }
+}
@@ -0,0 +1,135 @@
+package agent.fake;
+
+import agent.fake.FakeBankServer.Markup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import prices.agent.Agent;
+import prices.agent.JsoupSupport;
+import prices.agent.driver.ChromeProcessWatchdog;
+import prices.agent.driver.ChromeProfiles;
+import prices.agent.driver.ChromeWebDriverFactory;
+import prices.agent.driver.HtmlUnitWebDriverFactory;
+import prices.agent.driver.ProcessInspector;
+import prices.agent.driver.ResourcePolicy;
+import prices.agent.driver.WebDriverPools;
+import prices.agent.extract.FixtureRecorder;
+import prices.agent.extract.PageFingerprints;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.SelectorRanking;
+import prices.agent.metrics.ScrapeTimer;
+import prices.agent.sber.currency.CurrencySberAgent;
+import prices.agent.sber.metal.MetalSberAgent;
+import prices.repository.SelectorRankRepository;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Tag("load")
+@DisplayName("Нагрузочный тест на локальном сайте банка")
+class FakeBankLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FakeBankLoadTest.class);
+
+    private final Duration duration = Duration.parse(System.getProperty("agent.load.duration", "PT1M"));
+    private final int workers = Integer.getInteger("agent.load.workers", 2);
+    private final int poolSize = Integer.getInteger("agent.load.pool-size", 2);
+    private final String engine = System.getProperty("agent.load.engine", "chrome");
+    private final boolean persistentProfile = Boolean.getBoolean("agent.load.persistent-profile");
+
+    @Test
+    @DisplayName("Скрейпы в минуту и память на скрейп через браузер")
+    void shouldMeasureBrowserScrapeThroughput() throws Exception {
+        try (FakeBankServer server = FakeBankServer.builder()
+                .latency(Duration.ofMillis(50), Duration.ofMillis(300))
+                .markups(Markup.SCRIPTED, Markup.PRIMARY, Markup.ALTERNATIVE)
+                .volatility(0.02)
+                .start()) {
+            ResourcePolicy resourcePolicy = new ResourcePolicy("eager", List.of("image", "font", "media"), List.of());
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            String profileRoot = Files.createTempDirectory("agent-profiles").toString();
+            ChromeProcessWatchdog watchdog = new ChromeProcessWatchdog(ProcessInspector.system(), meterRegistry,
+                    true, 0, 0, 0, "chrome", profileRoot);
+            ChromeProfiles profiles = new ChromeProfiles(meterRegistry, persistentProfile, profileRoot, 256, 512);
+            WebDriverPools pools = new WebDriverPools(
+                    List.of(new ChromeWebDriverFactory(resourcePolicy, profiles),
+                            new HtmlUnitWebDriverFactory(resourcePolicy, Duration.ofSeconds(30), Duration.ofSeconds(10))),
+                    meterRegistry, FixtureRecorder.disabled(), watchdog, poolSize, 50, 512, Duration.ofMinutes(1));
+            try {
+                JsoupSupport jsoupSupport = new JsoupSupport(false, Duration.ofSeconds(5));
+                SelectorRanking selectorRanking = new SelectorRanking(mock(SelectorRankRepository.class));
+                ScrapeTimer scrapeTimer = new ScrapeTimer(meterRegistry);
+                List<Agent> agents = List.of(
+                        new CurrencySberAgent(pools, jsoupSupport, selectorRanking, new PriceParser(), scrapeTimer,
+                                PageFingerprints.disabled(), new ObjectMapper(), 1, false, "rates", Duration.ofSeconds(5), server.getBaseUrl(),
+                                engine),
+                        new MetalSberAgent(pools, jsoupSupport, selectorRanking, new PriceParser(), scrapeTimer,
+                                PageFingerprints.disabled(), server.getBaseUrl(), engine, false));
+                pools.warmUp();
+
+                AtomicLong scrapes = new AtomicLong();
+                AtomicLong prices = new AtomicLong();
+                AtomicLong allocated = new AtomicLong();
+                com.sun.management.ThreadMXBean threads =
+                        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                long deadline = System.nanoTime() + duration.toNanos();
+                long start = System.nanoTime();
+                ExecutorService executor = Executors.newFixedThreadPool(workers);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < workers; w++) {
+                    int offset = w;
+                    futures.add(executor.submit(() -> {
+                        long before = threads.getCurrentThreadAllocatedBytes();
+                        for (int i = offset; System.nanoTime() < deadline; i++) {
+                            prices.addAndGet(agents.get(i % agents.size()).getPrices().size());
+                            scrapes.incrementAndGet();
+                        }
+                        allocated.addAndGet(threads.getCurrentThreadAllocatedBytes() - before);
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                executor.shutdown();
+                double minutes = (System.nanoTime() - start) / 60e9;
+                watchdog.check();
+
+                log.info("Load run: {} scrapes, {} prices, {} requests in {} with {} workers and {} {} drivers",
+                        scrapes.get(), prices.get(), server.getRequestCount(), duration, workers, poolSize, engine);
+                log.info("Throughput {} scrapes/min, {} KB allocated per scrape",
+                        String.format("%.1f", scrapes.get() / minutes),
+                        scrapes.get() == 0 ? 0 : allocated.get() / scrapes.get() / 1024);
+                log.info("Chrome process trees: {} MB resident, {} processes",
+                        (long) meterRegistry.get("agent.driver.process.rss").gauge().value() / (1024 * 1024),
+                        (long) meterRegistry.get("agent.driver.process.children").gauge().value());
+                meterRegistry.find("agent.page.cache.hit-ratio").summaries().forEach(summary ->
+                        log.info("Cache hit ratio for {}: mean {} over {} page loads (persistent profile: {})",
+                                summary.getId().getTag("host"), String.format("%.2f", summary.mean()),
+                                summary.count(), persistentProfile));
+                meterRegistry.find("agent.scrape.step").timers().forEach(timer ->
+                        log.info("Step {} {}: {} calls, mean {} ms",
+                                timer.getId().getTag("step"), timer.getId().getTag("outcome"), timer.count(),
+                                String.format("%.1f", timer.mean(TimeUnit.MILLISECONDS))));
+                assertThat(scrapes.get()).isPositive();
+                assertThat(prices.get()).isPositive();
+            } finally {
+                pools.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package agent.fake;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import shared.enums.Currency;
+import shared.enums.Metal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class FakeBankServer implements AutoCloseable {
+
+    public static final String CURRENCY_PATH = "/ru/quotes/currencies";
+    public static final String METAL_PATH = "/retail/ru/quotes/metalbeznal";
+    public static final String RATES_PATH = "/api/rates/currencies";
+
+    private static final Map<String, BigDecimal> BASE_PRICES = Map.ofEntries(
+            Map.entry(Currency.USD.name(), new BigDecimal("78.50")),
+            Map.entry(Currency.EUR.name(), new BigDecimal("90.15")),
+            Map.entry(Currency.JPY.name(), new BigDecimal("0.5100")),
+            Map.entry(Currency.CNY.name(), new BigDecimal("10.82")),
+            Map.entry(Currency.AED.name(), new BigDecimal("20.95")),
+            Map.entry(Currency.KZT.name(), new BigDecimal("0.1550")),
+            Map.entry(Currency.KRW.name(), new BigDecimal("0.0560")),
+            Map.entry(Metal.GOLD.name(), new BigDecimal("7250.40")),
+            Map.entry(Metal.SILVER.name(), new BigDecimal("86.20")),
+            Map.entry(Metal.PLATINUM.name(), new BigDecimal("2905.50")),
+            Map.entry(Metal.PALLADIUM.name(), new BigDecimal("2610.80"))
+    );
+    private static final BigDecimal DEFAULT_PRICE = new BigDecimal("45.00");
+    private static final BigDecimal SPREAD = new BigDecimal("1.05");
+
+    public enum Markup {
+        PRIMARY,
+        ALTERNATIVE,
+        SCRIPTED
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Random random;
+    private final Duration minLatency;
+    private final Duration maxLatency;
+    private final List<Markup> markups;
+    private final double volatility;
+    private final AtomicLong requests = new AtomicLong();
+
+    private FakeBankServer(Builder builder) throws IOException {
+        this.random = new Random(builder.seed);
+        this.minLatency = builder.minLatency;
+        this.maxLatency = builder.maxLatency;
+        this.markups = List.copyOf(builder.markups);
+        this.volatility = builder.volatility;
+        this.executor = Executors.newFixedThreadPool(builder.threads);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", builder.port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            sleep(latency());
+            String path = exchange.getRequestURI().getPath();
+            List<String> codes = currencyCodes(exchange.getRequestURI().getRawQuery());
+            switch (path) {
+                case CURRENCY_PATH -> respond(exchange, "text/html", currencyPage(codes, nextMarkup()));
+                case METAL_PATH -> respond(exchange, "text/html", metalPage(nextMarkup()));
+                case RATES_PATH -> respond(exchange, "application/json", ratesPayload(codes));
+                default -> exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private String currencyPage(List<String> codes, Markup markup) {
+        StringBuilder html = pageStart("Курсы валют — СберБанк");
+        Map<String, BigDecimal[]> quotes = new LinkedHashMap<>();
+        for (String code : codes) {
+            Currency.fromCode(code).ifPresent(currency -> quotes.put(currency.name(), quote(currency.name())));
+        }
+        if (markup == Markup.ALTERNATIVE) {
+            quotes.forEach((code, quote) -> html
+                    .append("<div class=\"currency-card\"><div><span>").append(code).append("</span>")
+                    .append("<div class=\"value\">").append(format(quote[0])).append("</div>")
+                    .append("<div class=\"value\">").append(format(quote[1])).append("</div>")
+                    .append("</div></div>\n"));
+            return pageEnd(html);
+        }
+        html.append("<div class=\"TabContainer\"><div class=\"rates-form-new-table\">\n");
+        quotes.forEach((code, quote) -> html
+                .append("<div class=\"rates-form-new-table-row\">")
+                .append("<div class=\"rates-form-new-table-row__name\">")
+                .append(Currency.valueOf(code).getDisplayName()).append(" <span>").append(code).append("</span></div>")
+                .append("<div class=\"rates-form-new-table-row__col-wrap\">")
+                .append(currencyCell(code, "buy", quote[0], markup))
+                .append(currencyCell(code, "sell", quote[1], markup))
+                .append("</div></div>\n"));
+        html.append("</div></div>\n");
+        if (markup == Markup.SCRIPTED) {
+            html.append("<script>fetch('").append(RATES_PATH).append("?currency=")
+                    .append(String.join("&currency=", quotes.keySet()))
+                    .append("').then(r => r.json()).then(rates => Object.values(rates).forEach(rate => {")
+                    .append("document.getElementById(rate.isoCur + '-buy').textContent = rate.display[0];")
+                    .append("document.getElementById(rate.isoCur + '-sell').textContent = rate.display[1];")
+                    .append("}));</script>\n");
+        }
+        return pageEnd(html);
+    }
+
+    private String currencyCell(String code, String side, BigDecimal price, Markup markup) {
+        String text = markup == Markup.SCRIPTED ? "" : format(price);
+        return "<div class=\"rates-form-new-table-row__col\"><div class=\"dk-sbol-text\" id=\""
+                + code + "-" + side + "\">" + text + "</div></div>";
+    }
+
+    private String metalPage(Markup markup) {
+        StringBuilder html = pageStart("Обезличенные металлические счета — СберБанк");
+        html.append("<div class=\"rfn-table\">\n");
+        StringBuilder script = new StringBuilder();
+        for (Metal metal : Metal.values()) {
+            BigDecimal[] quote = quote(metal.name());
+            String rowClass = markup == Markup.ALTERNATIVE ? "rfn-table-row rfn-table-row_accent" : "rfn-table-row";
+            html.append("<div class=\"").append(rowClass).append("\">")
+                    .append("<div class=\"rfn-table-row__col\"><div class=\"rfn-table-currency__iso\">")
+                    .append(metal.getDisplayName()).append("</div></div>")
+                    .append("<div class=\"rfn-table-row__price_main\">")
+                    .append("<div class=\"rfn-table-row__col\">1 г</div>");
+            for (int i = 0; i < quote.length; i++) {
+                String id = metal.name() + "-" + i;
+                html.append("<div class=\"rfn-table-row__col\" id=\"").append(id).append("\">")
+                        .append(markup == Markup.SCRIPTED ? "" : format(quote[i])).append("</div>");
+                script.append("document.getElementById('").append(id).append("').textContent='")
+                        .append(format(quote[i])).append("';");
+            }
+            html.append("</div></div>\n");
+        }
+        html.append("</div>\n");
+        if (markup == Markup.SCRIPTED) {
+            html.append("<script>setTimeout(() => {").append(script).append("}, 200);</script>\n");
+        }
+        return pageEnd(html);
+    }
+
+    private String ratesPayload(List<String> codes) {
+        StringJoiner json = new StringJoiner(",", "{", "}");
+        for (String code : codes) {
+            if (Currency.fromCode(code).isEmpty()) {
+                continue;
+            }
+            BigDecimal[] quote = quote(code);
+            json.add("\"" + code + "\":{\"isoCur\":\"" + code + "\",\"rateList\":[{\"rangeAmountBottom\":0,"
+                    + "\"rateBuy\":" + quote[0].toPlainString() + ",\"rateSell\":" + quote[1].toPlainString() + "}],"
+                    + "\"display\":[\"" + format(quote[0]) + "\",\"" + format(quote[1]) + "\"]}");
+        }
+        return json.toString();
+    }
+
+    private BigDecimal[] quote(String instrument) {
+        BigDecimal base = BASE_PRICES.getOrDefault(instrument, DEFAULT_PRICE);
+        double drift = 1 + (random.nextDouble() * 2 - 1) * volatility;
+        BigDecimal buy = base.multiply(BigDecimal.valueOf(drift)).setScale(base.scale(), RoundingMode.HALF_UP);
+        BigDecimal sell = buy.multiply(SPREAD).setScale(base.scale(), RoundingMode.HALF_UP);
+        return new BigDecimal[]{buy, sell};
+    }
+
+    private Markup nextMarkup() {
+        return markups.get(random.nextInt(markups.size()));
+    }
+
+    private Duration latency() {
+        long spread = maxLatency.toMillis() - minLatency.toMillis();
+        return minLatency.plusMillis(spread <= 0 ? 0 : (long) (random.nextDouble() * spread));
+    }
+
+    private static List<String> currencyCodes(String rawQuery) {
+        if (rawQuery == null) {
+            return List.of();
+        }
+        List<String> codes = new ArrayList<>();
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0 && pair.substring(0, separator).equals("currency")) {
+                String code = URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+                if (!code.isBlank()) {
+                    codes.add(code);
+                }
+            }
+        }
+        return codes;
+    }
+
+    private static String format(BigDecimal price) {
+        return String.format(Locale.ROOT, "%,." + price.scale() + "f", price)
+                .replace(',', ' ')
+                .replace('.', ',') + " ₽";
+    }
+
+    private static StringBuilder pageStart(String title) {
+        return new StringBuilder("<!DOCTYPE html>\n<html lang=\"ru\">\n<head><meta charset=\"UTF-8\"><title>")
+                .append(title).append("</title></head>\n<body>\n");
+    }
+
+    private static String pageEnd(StringBuilder html) {
+        return html.append("</body>\n</html>\n").toString();
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType + "; charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int port;
+        private int threads = 8;
+        private long seed = 42L;
+        private Duration minLatency = Duration.ZERO;
+        private Duration maxLatency = Duration.ZERO;
+        private double volatility = 0.01;
+        private List<Markup> markups = List.of(Markup.PRIMARY);
+
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder latency(Duration min, Duration max) {
+            this.minLatency = Objects.requireNonNull(min, "Min latency cannot be null");
+            this.maxLatency = Objects.requireNonNull(max, "Max latency cannot be null");
+            return this;
+        }
+
+        public Builder volatility(double volatility) {
+            this.volatility = volatility;
+            return this;
+        }
+
+        public Builder markups(Markup... markups) {
+            if (markups.length == 0) {
+                throw new IllegalArgumentException("At least one markup is required");
+            }
+            this.markups = List.of(markups);
+            return this;
+        }
+
+        public FakeBankServer start() throws IOException {
+            return new FakeBankServer(this);
+        }
+    }
+}
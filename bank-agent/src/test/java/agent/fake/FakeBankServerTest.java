@@ -0,0 +1,165 @@
+package agent.fake;
+
+import agent.fake.FakeBankServer.Markup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import prices.agent.JsoupSupport;
+import prices.agent.ScrapeContext;
+import prices.agent.driver.BrowserEngine;
+import prices.agent.driver.ChromeProcessWatchdog;
+import prices.agent.driver.HtmlUnitWebDriverFactory;
+import prices.agent.driver.ResourcePolicy;
+import prices.agent.driver.WebDriverPool;
+import prices.agent.driver.WebDriverPools;
+import prices.agent.extract.FixtureRecorder;
+import prices.agent.extract.PageFingerprints;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.SelectorRanking;
+import prices.agent.metrics.ScrapeTimer;
+import prices.agent.sber.currency.CurrencySberAgent;
+import prices.agent.sber.metal.MetalSberAgent;
+import prices.repository.SelectorRankRepository;
+import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.Currency;
+import shared.enums.Metal;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("FakeBankServer тесты")
+class FakeBankServerTest {
+
+    private FakeBankServer server;
+    private WebDriverPool webDriverPool;
+    private WebDriverPools webDriverPools;
+    private JsoupSupport jsoupSupport;
+    private SelectorRanking selectorRanking;
+    private ScrapeTimer scrapeTimer;
+    private PageFingerprints pageFingerprints;
+
+    @BeforeEach
+    void setUp() {
+        webDriverPool = mock(WebDriverPool.class);
+        webDriverPools = mock(WebDriverPools.class);
+        when(webDriverPools.forEngine(any())).thenReturn(webDriverPool);
+        jsoupSupport = new JsoupSupport(true, Duration.ofSeconds(5));
+        selectorRanking = new SelectorRanking(mock(SelectorRankRepository.class));
+        scrapeTimer = new ScrapeTimer(new SimpleMeterRegistry());
+        pageFingerprints = new PageFingerprints(new SimpleMeterRegistry(), true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Markup.class, names = {"PRIMARY", "ALTERNATIVE"})
+    @DisplayName("Агент валют читает все курсы с локального сайта пакетами по 5 валют")
+    void shouldScrapeCurrenciesInBatches(Markup markup) throws IOException {
+        server = FakeBankServer.builder().markups(markup).start();
+
+        Map<String, Price> prices = currencyAgent().getPrices();
+
+        assertThat(prices).containsOnlyKeys(Currency.getCurrencyByBanks(Banks.SBER).stream().map(Currency::name).toList());
+        assertThat(prices.values()).allSatisfy(price -> assertThat(price.sellPrice()).isGreaterThan(price.buyPrice()));
+        int batches = (Currency.getCurrencyByBanks(Banks.SBER).size() + 4) / 5;
+        assertThat(server.getRequestCount()).isEqualTo(batches);
+        verifyNoInteractions(webDriverPool);
+    }
+
+    @Test
+    @DisplayName("Агент металлов читает все котировки с локального сайта")
+    void shouldScrapeMetals() throws IOException {
+        server = FakeBankServer.builder().markups(Markup.PRIMARY, Markup.ALTERNATIVE).start();
+
+        Map<String, Price> prices = metalAgent().getPrices();
+
+        assertThat(prices).hasSize(Metal.values().length);
+        verifyNoInteractions(webDriverPool);
+    }
+
+    @Test
+    @DisplayName("Неизменённые страницы пропускаются после подтверждённого сохранения")
+    void shouldSkipUnchangedPagesAfterCommit() throws IOException {
+        server = FakeBankServer.builder().volatility(0).start();
+        CurrencySberAgent currencyAgent = currencyAgent();
+        MetalSberAgent metalAgent = metalAgent();
+        ScrapeContext first = ScrapeContext.unbounded();
+        currencyAgent.getPrices(first);
+        metalAgent.getPrices(first);
+
+        ScrapeContext uncommitted = ScrapeContext.unbounded();
+        metalAgent.getPrices(uncommitted);
+        pageFingerprints.commit(first);
+        ScrapeContext second = ScrapeContext.unbounded();
+        Map<String, Price> currencies = currencyAgent.getPrices(second);
+        Map<String, Price> metals = metalAgent.getPrices(second);
+
+        assertThat(uncommitted.getCollected()).hasSize(Metal.values().length);
+        assertThat(currencies).isEmpty();
+        assertThat(metals).isEmpty();
+        assertThat(second.getUnchanged()).hasSize(Currency.getCurrencyByBanks(Banks.SBER).size() + Metal.values().length);
+        verifyNoInteractions(webDriverPool);
+    }
+
+    @Test
+    @DisplayName("Задержка ответа сайта соблюдается")
+    void shouldInjectLatency() throws IOException {
+        server = FakeBankServer.builder()
+                .latency(Duration.ofMillis(150), Duration.ofMillis(150))
+                .start();
+
+        long start = System.nanoTime();
+        metalAgent().getPrices();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+    }
+
+    @Test
+    @DisplayName("Агент металлов читает отрисованные скриптом котировки через HtmlUnit без Chrome")
+    void shouldScrapeScriptedMetalsWithHtmlUnit() throws IOException {
+        server = FakeBankServer.builder().markups(Markup.SCRIPTED).start();
+        ResourcePolicy resourcePolicy = new ResourcePolicy("eager", List.of("image", "font", "media"), List.of());
+        WebDriverPools pools = new WebDriverPools(
+                List.of(new HtmlUnitWebDriverFactory(resourcePolicy, Duration.ofSeconds(10), Duration.ofSeconds(5))),
+                new SimpleMeterRegistry(), FixtureRecorder.disabled(), ChromeProcessWatchdog.disabled(),
+                1, 10, 0, Duration.ofSeconds(10));
+        try {
+            MetalSberAgent agent = new MetalSberAgent(pools, new JsoupSupport(false, Duration.ofSeconds(5)),
+                    selectorRanking, new PriceParser(), scrapeTimer, PageFingerprints.disabled(), server.getBaseUrl(),
+                    "htmlunit", false);
+
+            Map<String, Price> prices = agent.getPrices();
+
+            assertThat(prices).hasSize(Metal.values().length);
+            assertThat(pools.getEngines()).containsExactly(BrowserEngine.HTMLUNIT);
+        } finally {
+            pools.destroy();
+        }
+    }
+
+    private CurrencySberAgent currencyAgent() {
+        return new CurrencySberAgent(webDriverPools, jsoupSupport, selectorRanking, new PriceParser(), scrapeTimer,
+                pageFingerprints, new ObjectMapper(), 1, false, "rates", Duration.ofSeconds(1), server.getBaseUrl(), "");
+    }
+
+    private MetalSberAgent metalAgent() {
+        return new MetalSberAgent(webDriverPools, jsoupSupport, selectorRanking, new PriceParser(), scrapeTimer,
+                pageFingerprints, server.getBaseUrl(), "", false);
+    }
+}
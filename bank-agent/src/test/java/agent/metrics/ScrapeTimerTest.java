@@ -0,0 +1,74 @@
+package agent.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import prices.agent.metrics.ScrapeStep;
+import prices.agent.metrics.ScrapeTimer;
+
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ScrapeTimer тесты")
+class ScrapeTimerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScrapeTimer scrapeTimer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scrapeTimer = new ScrapeTimer(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Шаг записывается с тегами агента, инструмента и результата")
+    void shouldRecordStepWithTags() {
+        try (ScrapeTimer.Binding ignored = scrapeTimer.bind("sber-currency")) {
+            try (ScrapeTimer.Step step = scrapeTimer.start(ScrapeStep.PARSE, "USD")) {
+                step.success();
+            }
+        }
+
+        Timer timer = meterRegistry.get("agent.scrape.step")
+                .tags("agent", "sber-currency", "step", "parse", "instrument", "USD", "outcome", "success")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Шаг, прерванный исключением, помечается как ошибка")
+    void shouldRecordErrorWhenStepThrows() {
+        assertThatThrownBy(() -> {
+            try (ScrapeTimer.Step ignored = scrapeTimer.start(ScrapeStep.NAVIGATE)) {
+                throw new IllegalStateException("boom");
+            }
+        }).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("agent.scrape.step")
+                .tags("agent", "unknown", "step", "navigate", "instrument", ScrapeTimer.ALL, "outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Привязка агента восстанавливается после вложенного вызова")
+    void shouldRestoreOuterBinding() {
+        try (ScrapeTimer.Binding outer = scrapeTimer.bind("sber-metal")) {
+            try (ScrapeTimer.Binding inner = scrapeTimer.bind("sber-currency")) {
+                scrapeTimer.selector("USD", OptionalInt.of(1));
+            }
+            scrapeTimer.selector("GOLD", OptionalInt.of(0));
+        }
+        scrapeTimer.selector("GOLD", OptionalInt.empty());
+
+        assertThat(meterRegistry.get("agent.scrape.selector")
+                .tags("agent", "sber-currency", "selector", "fallback").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("agent.scrape.selector")
+                .tags("agent", "sber-metal", "selector", "primary").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("agent.scrape.selector")
+                .tags("agent", "unknown", "selector", "miss").counter().count()).isEqualTo(1);
+    }
+}
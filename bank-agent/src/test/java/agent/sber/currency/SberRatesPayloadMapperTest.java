@@ -0,0 +1,59 @@
+package agent.sber.currency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import prices.agent.extract.PriceParser;
+import prices.agent.sber.currency.SberRatesPayloadMapper;
+import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.Currency;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SberRatesPayloadMapper тесты")
+class SberRatesPayloadMapperTest {
+
+    private final SberRatesPayloadMapper mapper = new SberRatesPayloadMapper(new ObjectMapper(), new PriceParser());
+
+    @Test
+    @DisplayName("Извлечение курсов из JSON-ответа")
+    void shouldMapRatesFromPayload() throws IOException {
+        Map<String, Price> prices = mapper.map(List.of(fixture()), List.of(Currency.USD, Currency.EUR));
+
+        assertThat(prices).containsOnlyKeys("USD", "EUR");
+        assertThat(prices.get("USD").bank()).isEqualTo(Banks.SBER);
+        assertThat(prices.get("USD").name()).isEqualTo(Currency.USD.getDisplayName());
+        assertThat(prices.get("USD").buyPrice()).isEqualByComparingTo(new BigDecimal("78.50"));
+        assertThat(prices.get("EUR").sellPrice()).isEqualByComparingTo(new BigDecimal("95.40"));
+    }
+
+    @Test
+    @DisplayName("Пропуск валют без курсов и не запрошенных валют")
+    void shouldSkipEmptyAndUnrequestedRates() throws IOException {
+        Map<String, Price> prices = mapper.map(List.of(fixture()), List.of(Currency.CNY, Currency.JPY));
+
+        assertThat(prices).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Игнорирование ответов не в формате JSON")
+    void shouldIgnoreNonJsonBodies() throws IOException {
+        Map<String, Price> prices = mapper.map(List.of("<html></html>", fixture()), List.of(Currency.USD));
+
+        assertThat(prices).containsOnlyKeys("USD");
+    }
+
+    private String fixture() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/sber-rates.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
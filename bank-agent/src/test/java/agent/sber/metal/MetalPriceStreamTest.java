@@ -0,0 +1,159 @@
+package agent.sber.metal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import prices.agent.JsoupSupport;
+import prices.agent.WebDriverSupport;
+import prices.agent.driver.WebDriverPool;
+import prices.agent.driver.WebDriverPools;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.PageFingerprints;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.SelectorRanking;
+import prices.agent.metrics.ScrapeTimer;
+import prices.agent.sber.metal.MetalPriceStream;
+import prices.agent.sber.metal.MetalSberAgent;
+import prices.service.PriceService;
+import prices.service.SaveResult;
+import shared.dto.Price;
+import shared.enums.CurrentPrice;
+import shared.enums.TypePrice;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("MetalPriceStream тесты")
+class MetalPriceStreamTest {
+
+    private static final String THREAD_NAME = "sber-metal-stream";
+
+    private final AtomicInteger extractions = new AtomicInteger();
+    private WebDriverPool webDriverPool;
+    private WebDriverSupport webDriverSupport;
+    private WebDriver driver;
+    private PriceService priceService;
+    private MetalPriceStream stream;
+
+    @BeforeEach
+    void setUp() {
+        webDriverPool = mock(WebDriverPool.class);
+        webDriverSupport = mock(WebDriverSupport.class);
+        driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class)
+                .defaultAnswer(RETURNS_DEEP_STUBS));
+        when(webDriverPool.lease()).thenReturn(webDriverSupport);
+        when(webDriverSupport.getDriver()).thenReturn(driver);
+        when(webDriverSupport.extract(any(ExtractionPlan.class))).thenAnswer(invocation -> quotes());
+        priceService = mock(PriceService.class);
+        when(priceService.savePrices(any(TypePrice.class), ArgumentMatchers.<String, Price>anyMap()))
+                .thenReturn(SaveResult.empty());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (stream != null) {
+            stream.destroy();
+        }
+        Optional<Thread> worker = streamThread();
+        if (worker.isPresent()) {
+            worker.get().join(5000);
+        }
+    }
+
+    @Test
+    @DisplayName("В сохранение попадают только изменившиеся котировки")
+    void shouldSaveOnlyChangedQuotes() {
+        when(executor().executeAsyncScript(anyString(), any())).thenReturn(true).thenAnswer(invocation -> idle());
+        stream = stream(Duration.ofHours(1));
+
+        stream.start();
+
+        verify(priceService, timeout(5000)).savePrices(eq(TypePrice.METAL), argThat(prices -> prices.size() == 4));
+        verify(priceService, timeout(5000)).savePrices(eq(TypePrice.METAL), argThat(prices -> prices.size() == 1
+                && prices.get("GOLD").buyPrice().compareTo(new BigDecimal("5100")) == 0));
+        verify(priceService, times(2)).savePrices(any(TypePrice.class), ArgumentMatchers.<String, Price>anyMap());
+    }
+
+    @Test
+    @DisplayName("Без изменений страница перезагружается на новой аренде драйвера")
+    void shouldReleaseLeaseWhenStale() {
+        when(executor().executeAsyncScript(anyString(), any())).thenReturn(false);
+        stream = stream(Duration.ZERO);
+
+        stream.start();
+
+        verify(webDriverPool, timeout(5000).atLeast(3)).lease();
+        verify(webDriverSupport, atLeast(2)).close();
+        verify(webDriverSupport, atLeast(2)).goToPage(anyString());
+    }
+
+    @Test
+    @DisplayName("destroy останавливает поток стриминга")
+    void shouldStopThreadOnDestroy() throws InterruptedException {
+        when(executor().executeAsyncScript(anyString(), any())).thenAnswer(invocation -> idle());
+        stream = stream(Duration.ofHours(1));
+        stream.start();
+        verify(webDriverSupport, timeout(5000)).goToPage(anyString());
+        Thread worker = streamThread().orElseThrow();
+
+        stream.destroy();
+        worker.join(5000);
+        assertThat(worker.isAlive()).isFalse();
+        verify(webDriverSupport).close();
+    }
+
+    private MetalPriceStream stream(Duration staleAfter) {
+        WebDriverPools pools = mock(WebDriverPools.class);
+        when(pools.forEngine(any())).thenReturn(webDriverPool);
+        ScrapeTimer scrapeTimer = new ScrapeTimer(new SimpleMeterRegistry());
+        SelectorRanking selectorRanking = mock(SelectorRanking.class);
+        when(selectorRanking.rank(any(ExtractionPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        MetalSberAgent agent = new MetalSberAgent(pools, mock(JsoupSupport.class), selectorRanking,
+                new PriceParser(), scrapeTimer, PageFingerprints.disabled(), "", "", true);
+        return new MetalPriceStream(agent, priceService, scrapeTimer, ".rfn-table-row__col",
+                Duration.ofSeconds(1), staleAfter, Duration.ofMillis(10));
+    }
+
+    private ExtractionResult quotes() {
+        int version = extractions.incrementAndGet();
+        ExtractionResult result = mock(ExtractionResult.class);
+        when(result.text(anyString(), any(CurrentPrice.class))).thenAnswer(invocation -> {
+            boolean gold = "GOLD".equals(invocation.getArgument(0));
+            boolean buy = invocation.getArgument(1) == CurrentPrice.BUY;
+            int rub = (gold ? 5000 + (version > 1 ? 100 : 0) : 100) + (buy ? 0 : 50);
+            return Optional.of(rub + ",00");
+        });
+        return result;
+    }
+
+    private static Boolean idle() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private JavascriptExecutor executor() {
+        return (JavascriptExecutor) driver;
+    }
+
+    private static Optional<Thread> streamThread() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals(THREAD_NAME))
+                .findFirst();
+    }
+}
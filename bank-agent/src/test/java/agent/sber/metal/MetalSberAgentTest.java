@@ -0,0 +1,60 @@
+package agent.sber.metal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import prices.agent.JsoupSupport;
+import prices.agent.ScrapeContext;
+import prices.agent.WebDriverSupport;
+import prices.agent.driver.WebDriverPool;
+import prices.agent.driver.WebDriverPools;
+import prices.agent.extract.ExtractionPlan;
+import prices.agent.extract.ExtractionResult;
+import prices.agent.extract.PageFingerprints;
+import prices.agent.extract.PriceParser;
+import prices.agent.extract.SelectorRanking;
+import prices.agent.metrics.ScrapeTimer;
+import prices.agent.sber.metal.MetalSberAgent;
+import shared.dto.Price;
+import shared.enums.CurrentPrice;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("MetalSberAgent тесты")
+class MetalSberAgentTest {
+
+    @Test
+    @DisplayName("Собираются только металлы, входящие в контекст")
+    void shouldCollectOnlyIncludedMetals() {
+        ExtractionResult result = mock(ExtractionResult.class);
+        when(result.text(anyString(), any(CurrentPrice.class))).thenReturn(Optional.of("5 000,00 ₽"));
+        WebDriverSupport webDriverSupport = mock(WebDriverSupport.class);
+        when(webDriverSupport.extract(any(ExtractionPlan.class), any(Duration.class), any(OptionalLong.class)))
+                .thenReturn(result);
+        WebDriverPool webDriverPool = mock(WebDriverPool.class);
+        when(webDriverPool.lease(any(Duration.class))).thenReturn(webDriverSupport);
+        WebDriverPools pools = mock(WebDriverPools.class);
+        when(pools.forEngine(any())).thenReturn(webDriverPool);
+        JsoupSupport jsoupSupport = mock(JsoupSupport.class);
+        when(jsoupSupport.load(anyString())).thenReturn(Optional.empty());
+        SelectorRanking selectorRanking = mock(SelectorRanking.class);
+        when(selectorRanking.rank(any(ExtractionPlan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        MetalSberAgent agent = new MetalSberAgent(pools, jsoupSupport, selectorRanking, new PriceParser(),
+                new ScrapeTimer(new SimpleMeterRegistry()), PageFingerprints.disabled(), "", "", false);
+        ScrapeContext context = ScrapeContext.withDeadline(Clock.systemUTC(), Duration.ofMinutes(1),
+                Duration.ofSeconds(20), List.of("GOLD", "SILVER"));
+
+        Map<String, Price> prices = agent.getPrices(context);
+
+        assertThat(prices).containsOnlyKeys("GOLD", "SILVER");
+    }
+}
@@ -0,0 +1,124 @@
+package controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import prices.controller.sber.SberPriceController;
+import prices.model.CandleResolution;
+import prices.model.MetalPrice;
+import prices.model.PriceCandle;
+import prices.repository.CurrencyPriceRepository;
+import prices.repository.LatestPriceRepository;
+import prices.repository.MetalPriceRepository;
+import prices.repository.PriceCandleRepository;
+import shared.enums.Banks;
+import shared.exception.GlobalExceptionHandler;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SberPriceController тесты")
+class SberPriceControllerTest {
+
+    private static final long HOUR = 1_699_999_200_000L;
+
+    @Mock
+    private MetalPriceRepository metalRepository;
+
+    @Mock
+    private CurrencyPriceRepository currencyRepository;
+
+    @Mock
+    private LatestPriceRepository latestRepository;
+
+    @Mock
+    private PriceCandleRepository candleRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        SberPriceController controller = new SberPriceController(metalRepository, currencyRepository,
+                latestRepository, candleRepository);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Без разрешения и с resolution=raw отдаются сырые цены")
+    void shouldReturnRawHistory() throws Exception {
+        when(metalRepository.findByNameAndTimestampBetweenOrderByTimestampAsc("GOLD", 1000L, 2000L))
+                .thenReturn(List.of(new MetalPrice("GOLD", new BigDecimal("5000.00"), new BigDecimal("5100.00"),
+                        "SBER", 1500L)));
+
+        for (String query : List.of("", "&resolution=raw")) {
+            mockMvc.perform(get("/sber/metal/history/GOLD?from=1000&to=2000" + query))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].name").value("GOLD"))
+                    .andExpect(jsonPath("$[0].timestamp").value(1500))
+                    .andExpect(jsonPath("$[0].buyOpen").doesNotExist());
+        }
+        verifyNoInteractions(candleRepository);
+    }
+
+    @Test
+    @DisplayName("Свечи запрашиваются с начала интервала, содержащего from")
+    void shouldReturnCandles() throws Exception {
+        PriceCandle candle = candle();
+        when(candleRepository.findRange(anyString(), anyString(), anyString(), anyString(), anyLong(), anyLong()))
+                .thenReturn(List.of(candle));
+
+        mockMvc.perform(get("/sber/metal/history/GOLD")
+                        .param("from", String.valueOf(HOUR + 1000))
+                        .param("to", String.valueOf(HOUR + 7_200_000))
+                        .param("resolution", "hour"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].start").value(HOUR))
+                .andExpect(jsonPath("$[0].end").value(HOUR + 3_600_000))
+                .andExpect(jsonPath("$[0].buyHigh").value(5200.0))
+                .andExpect(jsonPath("$[0].samples").value(3));
+
+        verify(candleRepository).findRange("SBER", "METAL", "GOLD", "HOUR", HOUR, HOUR + 7_200_000);
+        verifyNoInteractions(metalRepository);
+    }
+
+    @Test
+    @DisplayName("Неизвестное разрешение отклоняется с 400")
+    void shouldRejectUnknownResolution() throws Exception {
+        mockMvc.perform(get("/sber/currency/history/USD?from=1000&to=2000&resolution=week"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(candleRepository, currencyRepository);
+    }
+
+    private static PriceCandle candle() {
+        PriceCandle candle = mock(PriceCandle.class);
+        when(candle.getBank()).thenReturn(Banks.SBER);
+        when(candle.getName()).thenReturn("GOLD");
+        when(candle.getResolution()).thenReturn(CandleResolution.HOUR);
+        when(candle.getBucketStart()).thenReturn(HOUR);
+        when(candle.getBuyOpen()).thenReturn(new BigDecimal("5000.00"));
+        when(candle.getBuyHigh()).thenReturn(new BigDecimal("5200.00"));
+        when(candle.getBuyLow()).thenReturn(new BigDecimal("4900.00"));
+        when(candle.getBuyClose()).thenReturn(new BigDecimal("5100.00"));
+        when(candle.getSellOpen()).thenReturn(new BigDecimal("5100.00"));
+        when(candle.getSellHigh()).thenReturn(new BigDecimal("5300.00"));
+        when(candle.getSellLow()).thenReturn(new BigDecimal("5000.00"));
+        when(candle.getSellClose()).thenReturn(new BigDecimal("5200.00"));
+        when(candle.getSamples()).thenReturn(3);
+        return candle;
+    }
+}
@@ -0,0 +1,31 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import prices.model.CandleResolution;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CandleResolution тесты")
+class CandleResolutionTest {
+
+    @Test
+    @DisplayName("Начало свечи выравнивается по границе интервала")
+    void shouldAlignBucketStart() {
+        long timestamp = 1_700_000_123_456L;
+
+        assertThat(CandleResolution.MINUTE.bucketStart(timestamp)).isEqualTo(1_700_000_100_000L);
+        assertThat(CandleResolution.HOUR.bucketStart(timestamp)).isEqualTo(1_699_999_200_000L);
+        assertThat(CandleResolution.DAY.bucketStart(timestamp)).isEqualTo(1_699_920_000_000L);
+        assertThat(CandleResolution.MINUTE.bucketStart(1_700_000_100_000L)).isEqualTo(1_700_000_100_000L);
+    }
+
+    @Test
+    @DisplayName("Разрешение разбирается без учёта регистра")
+    void shouldParseNameIgnoringCase() {
+        assertThat(CandleResolution.fromName(" hour ")).contains(CandleResolution.HOUR);
+        assertThat(CandleResolution.fromName("Day")).contains(CandleResolution.DAY);
+        assertThat(CandleResolution.fromName("week")).isEmpty();
+        assertThat(CandleResolution.fromName(null)).isEmpty();
+    }
+}
@@ -0,0 +1,126 @@
+package repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import prices.repository.PriceHistoryWriter;
+import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.TypePrice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Свечи OHLC тесты")
+class PriceCandlesTest {
+
+    private static final long MINUTE = 1_700_000_100_000L;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PriceHistoryWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+        flyway(null).clean();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = new PriceHistoryWriter(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Цены одной минуты сворачиваются в одну свечу")
+    void shouldRollPricesIntoCandle() {
+        migrate(null);
+        writer.insertAll(TypePrice.METAL, List.of(
+                gold("5000", MINUTE + 1000), gold("5200", MINUTE + 20_000), gold("4900", MINUTE + 40_000)));
+
+        Map<String, Object> candle = candle("MINUTE", MINUTE);
+
+        assertThat((BigDecimal) candle.get("buy_open")).isEqualByComparingTo("5000");
+        assertThat((BigDecimal) candle.get("buy_high")).isEqualByComparingTo("5200");
+        assertThat((BigDecimal) candle.get("buy_low")).isEqualByComparingTo("4900");
+        assertThat((BigDecimal) candle.get("buy_close")).isEqualByComparingTo("4900");
+        assertThat(candle.get("samples")).isEqualTo(3);
+        assertThat(candle("HOUR", 1_699_999_200_000L).get("samples")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Запоздавшая цена не сдвигает закрытие, но может стать открытием")
+    void shouldKeepOrderForLateWrites() {
+        migrate(null);
+        writer.insertAll(TypePrice.METAL, List.of(gold("5100", MINUTE + 30_000)));
+        writer.insertAll(TypePrice.METAL, List.of(gold("5300", MINUTE + 50_000)));
+        writer.insertAll(TypePrice.METAL, List.of(gold("4800", MINUTE + 5_000)));
+
+        Map<String, Object> candle = candle("MINUTE", MINUTE);
+
+        assertThat((BigDecimal) candle.get("buy_open")).isEqualByComparingTo("4800");
+        assertThat((BigDecimal) candle.get("buy_close")).isEqualByComparingTo("5300");
+        assertThat((BigDecimal) candle.get("buy_low")).isEqualByComparingTo("4800");
+        assertThat(candle.get("opened_at")).isEqualTo(MINUTE + 5_000);
+        assertThat(candle.get("closed_at")).isEqualTo(MINUTE + 50_000);
+        assertThat(candle.get("samples")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Миграция строит свечи по уже накопленной истории")
+    void shouldBackfillCandlesFromHistory() {
+        migrate("2");
+        jdbcTemplate.update("INSERT INTO metal_prices (name, buy_price, sell_price, timestamp, bank) "
+                + "VALUES ('GOLD', 5050, 5150, ?, 'SBER'), ('GOLD', 5000, 5100, ?, 'SBER')",
+                MINUTE + 61_000, MINUTE + 1000);
+
+        migrate(null);
+
+        assertThat(candle("MINUTE", MINUTE).get("samples")).isEqualTo(1);
+        Map<String, Object> hour = candle("HOUR", 1_699_999_200_000L);
+        assertThat((BigDecimal) hour.get("buy_open")).isEqualByComparingTo("5000");
+        assertThat((BigDecimal) hour.get("buy_close")).isEqualByComparingTo("5050");
+        assertThat(hour.get("samples")).isEqualTo(2);
+    }
+
+    private void migrate(String target) {
+        flyway(target).migrate();
+        jdbcTemplate.queryForObject("SELECT create_monthly_partitions('metal_prices', ?, ?)", Integer.class,
+                LocalDate.of(2023, 11, 1), LocalDate.of(2023, 11, 1));
+    }
+
+    private Flyway flyway(String target) {
+        FluentConfiguration configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .cleanDisabled(false);
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+
+    private Map<String, Object> candle(String resolution, long bucketStart) {
+        return jdbcTemplate.queryForMap("SELECT * FROM price_candles WHERE bank = 'SBER' AND type = 'METAL' "
+                + "AND name = 'GOLD' AND resolution = ? AND bucket_start = ?", resolution, bucketStart);
+    }
+
+    private static Price gold(String buy, long timestamp) {
+        BigDecimal buyPrice = new BigDecimal(buy);
+        return Price.createWithTimestamp(Banks.SBER, "GOLD", buyPrice, buyPrice.add(BigDecimal.valueOf(100)),
+                timestamp);
+    }
+}
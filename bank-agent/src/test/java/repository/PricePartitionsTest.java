@@ -0,0 +1,169 @@
+package repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import prices.repository.PriceHistoryWriter;
+import prices.service.PartitionMaintenance;
+import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.TypePrice;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Партиционирование истории цен тесты")
+class PricePartitionsTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_y'yyyy'm'MM");
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+        flyway(null).clean();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        today = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    @Test
+    @DisplayName("Миграции превращают историю в месячные партиции с запасом вперёд")
+    void shouldPartitionHistoryByMonth() {
+        flyway(null).migrate();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM pg_partitioned_table pt "
+                + "JOIN pg_class c ON c.oid = pt.partrelid "
+                + "WHERE c.relname IN ('metal_prices', 'currency_prices')", Integer.class)).isEqualTo(2);
+        assertThat(partitions("metal_prices")).contains(
+                partition("metal_prices", today), partition("metal_prices", today.plusMonths(3)));
+        assertThat(partitions("currency_prices")).contains(partition("currency_prices", today.plusMonths(3)));
+    }
+
+    @Test
+    @DisplayName("Запрос за диапазон читает только нужную партицию")
+    void shouldPruneRangeQueryToOnePartition() {
+        flyway(null).migrate();
+        LocalDate lastMonth = today.minusMonths(1);
+        jdbcTemplate.queryForObject("SELECT create_monthly_partitions('metal_prices', ?, ?)", Integer.class,
+                lastMonth, today);
+        new PriceHistoryWriter(jdbcTemplate).insertAll(TypePrice.METAL, List.of(
+                gold(monthStart(lastMonth) + 1000), gold(monthStart(today) + 1000)));
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM metal_prices WHERE name = ? AND timestamp >= ? AND timestamp < ?",
+                String.class, "GOLD", monthStart(today), monthStart(today.plusMonths(1)));
+
+        assertThat(String.join("\n", plan))
+                .contains(partition("metal_prices", today))
+                .doesNotContain(partition("metal_prices", lastMonth));
+    }
+
+    @Test
+    @DisplayName("Существующая история переносится в партиции с сохранением идентификаторов")
+    void shouldMoveLegacyRowsIntoPartitions() {
+        flyway("1").migrate();
+        long old = monthStart(today.minusMonths(5)) + 1000;
+        jdbcTemplate.update("INSERT INTO metal_prices (id, name, buy_price, sell_price, timestamp, bank) "
+                + "VALUES (41, 'GOLD', 5000.00, 5100.00, ?, 'SBER')", old);
+
+        flyway(null).migrate();
+        new PriceHistoryWriter(jdbcTemplate).insertAll(TypePrice.METAL, List.of(gold(System.currentTimeMillis())));
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM metal_prices ORDER BY id", Long.class))
+                .hasSize(2)
+                .first().isEqualTo(41L);
+        assertThat(jdbcTemplate.queryForObject("SELECT max(id) FROM metal_prices", Long.class)).isGreaterThan(41L);
+        assertThat(partitions("metal_prices")).contains(partition("metal_prices", today.minusMonths(5)));
+    }
+
+    @Test
+    @DisplayName("Миграции поднимают базу, созданную до Flyway")
+    void shouldUpgradeSchemaCreatedBeforeFlyway() {
+        for (String table : List.of("metal_prices", "currency_prices")) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id bigint GENERATED BY DEFAULT AS IDENTITY, "
+                    + "bank varchar(255) NOT NULL, buy_price numeric(19, 2) NOT NULL, name varchar(255) NOT NULL, "
+                    + "sell_price numeric(19, 2) NOT NULL, timestamp bigint NOT NULL, PRIMARY KEY (id))");
+        }
+        long old = monthStart(today.minusMonths(2)) + 1000;
+        jdbcTemplate.update("INSERT INTO metal_prices (id, name, buy_price, sell_price, timestamp, bank) "
+                + "VALUES (7, 'GOLD', 5000.00, 5100.00, ?, 'SBER')", old);
+
+        flyway(null).migrate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT table_name FROM information_schema.tables "
+                + "WHERE table_schema = current_schema()", String.class))
+                .contains("latest_prices", "selector_ranks", "scrape_leases", "price_candles");
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM metal_prices", Long.class)).containsExactly(7L);
+        assertThat(partitions("metal_prices")).contains(partition("metal_prices", today.minusMonths(2)));
+    }
+
+    @Test
+    @DisplayName("Обслуживание создаёт будущие партиции и удаляет устаревшие")
+    void shouldCreateFutureAndDropExpiredPartitions() {
+        flyway(null).migrate();
+        LocalDate expired = today.minusMonths(3);
+        jdbcTemplate.queryForObject("SELECT create_monthly_partitions('metal_prices', ?, ?)", Integer.class,
+                expired, expired);
+        PartitionMaintenance maintenance = new PartitionMaintenance(jdbcTemplate, 6, Duration.ofDays(1));
+
+        maintenance.maintain();
+
+        assertThat(partitions("metal_prices"))
+                .contains(partition("metal_prices", today), partition("metal_prices", today.plusMonths(6)))
+                .doesNotContain(partition("metal_prices", expired));
+    }
+
+    private Flyway flyway(String target) {
+        FluentConfiguration configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .cleanDisabled(false);
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+
+    private List<String> partitions(String table) {
+        return jdbcTemplate.queryForList("SELECT child.relname FROM pg_inherits "
+                + "JOIN pg_class child ON child.oid = pg_inherits.inhrelid "
+                + "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent "
+                + "WHERE parent.relname = ?", String.class, table);
+    }
+
+    private static String partition(String table, LocalDate day) {
+        return table + day.format(PARTITION_SUFFIX);
+    }
+
+    private static long monthStart(LocalDate day) {
+        return day.withDayOfMonth(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static Price gold(long timestamp) {
+        return Price.createWithTimestamp(Banks.SBER, "GOLD", new BigDecimal("5000.00"), new BigDecimal("5100.00"),
+                timestamp);
+    }
+}
@@ -0,0 +1,63 @@
+package scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import prices.agent.AgentSettings;
+import prices.agent.PollingSettings;
+import prices.scheduler.AdaptivePollingPolicy;
+import prices.service.SaveResult;
+
+import java.time.*;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AdaptivePollingPolicy тесты")
+class AdaptivePollingPolicyTest {
+
+    private static final ZoneId MOSCOW = ZoneId.of("Europe/Moscow");
+
+    @Test
+    @DisplayName("Экспоненциальное увеличение интервала без изменений цен")
+    void shouldBackOffWhenPricesUnchanged() {
+        AdaptivePollingPolicy policy = new AdaptivePollingPolicy(settings(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT));
+
+        policy.record(new SaveResult(Set.of(), Set.of("GOLD"), 0));
+        assertThat(policy.currentInterval()).isEqualTo(Duration.ofMinutes(30));
+
+        policy.record(new SaveResult(Set.of(), Set.of("GOLD"), 0));
+        policy.record(new SaveResult(Set.of(), Set.of("GOLD"), 0));
+        assertThat(policy.currentInterval()).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Сокращение интервала до минимума при изменении цены инструмента")
+    void shouldShortenIntervalOnChange() {
+        AdaptivePollingPolicy policy = new AdaptivePollingPolicy(settings(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT));
+        policy.record(new SaveResult(Set.of(), Set.of("GOLD", "SILVER"), 0));
+
+        policy.record(new SaveResult(Set.of("GOLD"), Set.of("SILVER"), 0));
+
+        assertThat(policy.intervalOf("GOLD")).isEqualTo(Duration.ofMinutes(3));
+        assertThat(policy.intervalOf("SILVER")).isEqualTo(Duration.ofHours(1));
+        assertThat(policy.currentInterval()).isEqualTo(Duration.ofMinutes(3));
+    }
+
+    @Test
+    @DisplayName("Перенос запуска на начало торговых часов")
+    void shouldMoveFireTimeToTradingStart() {
+        AdaptivePollingPolicy policy = new AdaptivePollingPolicy(settings(LocalTime.of(7, 0), LocalTime.of(23, 0)));
+        Instant lateEvening = ZonedDateTime.of(2024, 3, 1, 22, 50, 0, 0, MOSCOW).toInstant();
+
+        Instant next = policy.nextFireAt(lateEvening);
+
+        assertThat(next).isEqualTo(ZonedDateTime.of(2024, 3, 2, 7, 0, 0, 0, MOSCOW).toInstant());
+    }
+
+    private AgentSettings settings(LocalTime start, LocalTime end) {
+        PollingSettings polling = new PollingSettings(true, Duration.ofMinutes(3), Duration.ofHours(1), 2.0,
+                start, end, MOSCOW);
+        return new AgentSettings(true, Duration.ZERO, Duration.ofMinutes(15), Duration.ZERO,
+                Duration.ofMinutes(5), Duration.ofSeconds(20), 1, 3, Duration.ofMinutes(30), polling);
+    }
+}
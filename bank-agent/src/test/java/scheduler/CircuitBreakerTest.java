@@ -0,0 +1,50 @@
+package scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import prices.scheduler.CircuitBreaker;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CircuitBreaker тесты")
+class CircuitBreakerTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T10:00:00Z");
+
+    @Test
+    @DisplayName("Размыкание после серии неудач")
+    void shouldOpenAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getOpenUntil()).isEqualTo(NOW.plus(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    @DisplayName("Пробный запуск после истечения паузы")
+    void shouldAllowSingleTrialAfterOpenDuration() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMinutes(30), Clock.fixed(NOW, ZoneOffset.UTC));
+        breaker.onFailure();
+        CircuitBreaker later = new CircuitBreaker(1, Duration.ZERO, Clock.fixed(NOW, ZoneOffset.UTC));
+        later.onFailure();
+
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(later.tryAcquire()).isTrue();
+        assertThat(later.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(later.tryAcquire()).isFalse();
+
+        later.onSuccess();
+        assertThat(later.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(later.getConsecutiveFailures()).isZero();
+    }
+}
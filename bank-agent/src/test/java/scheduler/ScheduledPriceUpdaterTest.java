@@ -0,0 +1,301 @@
+package scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+import prices.agent.Agent;
+import prices.agent.AgentRegistry;
+import prices.agent.ScrapeContext;
+import prices.agent.extract.PageFingerprints;
+import prices.agent.metrics.ScrapeTimer;
+import prices.scheduler.CircuitBreaker;
+import prices.scheduler.RunOutcome;
+import prices.scheduler.ScheduledPriceUpdater;
+import prices.scheduler.ScrapeJobStatus;
+import prices.service.PriceService;
+import prices.service.SaveResult;
+import prices.service.ScrapeQueue;
+import prices.service.ScrapeQueue.Lease;
+import shared.dto.Price;
+import shared.enums.Banks;
+import shared.enums.TypePrice;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ScheduledPriceUpdater тесты")
+class ScheduledPriceUpdaterTest {
+
+    private static final Price GOLD = Price.createWithCurrentTime(Banks.SBER, "Золото",
+            new BigDecimal("8120.00"), new BigDecimal("7250.40"));
+
+    private ScheduledPriceUpdater updater;
+
+    @AfterEach
+    void tearDown() {
+        if (updater != null) {
+            updater.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Медленный агент не задерживает остальных")
+    void shouldRunAgentsIndependently() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch metalSaves = new CountDownLatch(3);
+        Agent slow = agent(TypePrice.CURRENCY);
+        when(slow.getPrices(any(ScrapeContext.class))).thenAnswer(invocation -> {
+            release.await();
+            return Map.of();
+        });
+        Agent fast = agent(TypePrice.METAL);
+        when(fast.getPrices(any(ScrapeContext.class))).thenAnswer(invocation -> {
+            ScrapeContext context = invocation.getArgument(0);
+            context.collect("GOLD", GOLD);
+            return context.getCollected();
+        });
+        PriceService priceService = mock(PriceService.class);
+        when(priceService.savePrices(eq(TypePrice.METAL), anyPrices())).thenAnswer(invocation -> {
+            metalSaves.countDown();
+            return SaveResult.empty();
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        updater = new ScheduledPriceUpdater(registry(slow, fast), priceService, new ScrapeTimer(meterRegistry),
+                PageFingerprints.disabled(), ScrapeQueue.disabled(), 2, Duration.ofSeconds(1));
+
+        updater.start();
+
+        try {
+            assertThat(metalSaves.await(5, TimeUnit.SECONDS)).isTrue();
+            verify(priceService, atLeast(3)).savePrices(eq(TypePrice.METAL), anyPrices());
+            assertThat(meterRegistry.get("agent.scrape.step")
+                    .tags("agent", "sber-metal", "step", "persist", "outcome", "success")
+                    .timer().count()).isGreaterThanOrEqualTo(1);
+            ScrapeJobStatus currency = status("sber-currency");
+            assertThat(currency.running()).isTrue();
+            assertThat(currency.nextRunAt()).isNotNull();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Неизменённая страница не сохраняется и не считается сбоем")
+    void shouldSkipPersistenceForUnchangedPages() throws InterruptedException {
+        CountDownLatch runs = new CountDownLatch(3);
+        Agent agent = agent(TypePrice.METAL);
+        when(agent.getPrices(any(ScrapeContext.class))).thenAnswer(invocation -> {
+            ScrapeContext context = invocation.getArgument(0);
+            context.unchanged(List.of("GOLD"));
+            runs.countDown();
+            return Map.of();
+        });
+        PriceService priceService = mock(PriceService.class);
+        updater = new ScheduledPriceUpdater(registry(agent), priceService, new ScrapeTimer(new SimpleMeterRegistry()),
+                PageFingerprints.disabled(), ScrapeQueue.disabled(), 1, Duration.ofSeconds(1));
+
+        updater.start();
+
+        assertThat(runs.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(priceService, never()).savePrices(any(TypePrice.class), anyPrices());
+        assertThat(status("sber-metal").lastOutcome()).isEqualTo(RunOutcome.SUCCESS);
+        assertThat(status("sber-metal").circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Агент, получающий цены потоком, не планируется")
+    void shouldNotScheduleStreamedAgent() {
+        Agent agent = agent(TypePrice.METAL);
+        when(agent.isScheduled()).thenReturn(false);
+        updater = new ScheduledPriceUpdater(registry(agent), mock(PriceService.class),
+                new ScrapeTimer(new SimpleMeterRegistry()), PageFingerprints.disabled(), ScrapeQueue.disabled(),
+                1, Duration.ofSeconds(1));
+
+        updater.start();
+
+        assertThat(updater.getStatuses()).isEmpty();
+        verify(agent, never()).getPrices(any(ScrapeContext.class));
+    }
+
+    @Test
+    @DisplayName("Таймаут фиксируется после выхода агента, собранные цены не сохраняются")
+    void shouldRecordTimeoutOnlyAfterWorkerExits() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch exit = new CountDownLatch(1);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        Agent agent = agent(TypePrice.METAL);
+        when(agent.getPrices(any(ScrapeContext.class))).thenAnswer(invocation -> {
+            if (active.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            ScrapeContext context = invocation.getArgument(0);
+            context.collect("GOLD", GOLD);
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            exit.await();
+            active.decrementAndGet();
+            return context.getCollected();
+        });
+        PriceService priceService = mock(PriceService.class);
+        MockEnvironment environment = environment().withProperty("agent.schedule.defaults.timeout", "PT0.1S");
+        updater = new ScheduledPriceUpdater(new AgentRegistry(List.of(agent), environment), priceService,
+                new ScrapeTimer(new SimpleMeterRegistry()), PageFingerprints.disabled(), ScrapeQueue.disabled(),
+                2, Duration.ofMillis(50));
+
+        updater.start();
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        assertThat(status("sber-metal").running()).isTrue();
+        verify(agent, times(1)).getPrices(any(ScrapeContext.class));
+        exit.countDown();
+        verify(agent, timeout(5000).atLeast(2)).getPrices(any(ScrapeContext.class));
+        verify(priceService, never()).savePrices(any(TypePrice.class), anyPrices());
+        assertThat(overlaps).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Цикл, разобранный другими репликами, не запускает агента")
+    void shouldSkipCycleClaimedElsewhere() {
+        Agent agent = agent(TypePrice.METAL);
+        ScrapeQueue scrapeQueue = mock(ScrapeQueue.class);
+        when(scrapeQueue.isEnabled()).thenReturn(true);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(scrapeQueue.claim(anyString(), anyLong())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return Optional.empty();
+        });
+        updater = new ScheduledPriceUpdater(registry(agent), mock(PriceService.class),
+                new ScrapeTimer(new SimpleMeterRegistry()), PageFingerprints.disabled(), scrapeQueue,
+                1, Duration.ofSeconds(1));
+
+        updater.start();
+
+        verify(scrapeQueue, timeout(5000).atLeast(2)).claim(eq("sber-metal"), longThat(cycle -> cycle % 50 == 0));
+        assertThat(threads).allMatch(thread -> thread.startsWith("agent-worker"));
+        verify(scrapeQueue, atLeast(2)).enqueue(eq("sber-metal"), longThat(cycle -> cycle % 50 == 0), anyList());
+        verify(agent, never()).getPrices(any(ScrapeContext.class));
+        assertThat(status("sber-metal").lastOutcome()).isEqualTo(RunOutcome.CLAIMED_ELSEWHERE);
+    }
+
+    @Test
+    @DisplayName("Адаптивный интервал пропускает слоты общей сетки, а не сдвигает её")
+    void shouldKeepCyclesOnBaseGridWhenBackingOff() {
+        Agent agent = agent(TypePrice.METAL);
+        when(agent.getBatches()).thenReturn(List.of(List.of("GOLD")));
+        when(agent.getPrices(any(ScrapeContext.class))).thenAnswer(invocation -> {
+            ScrapeContext context = invocation.getArgument(0);
+            context.unchanged(List.of("GOLD"));
+            return context.getCollected();
+        });
+        ScrapeQueue scrapeQueue = mock(ScrapeQueue.class);
+        when(scrapeQueue.isEnabled()).thenReturn(true);
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        when(scrapeQueue.claim(anyString(), anyLong())).thenAnswer(invocation -> {
+            long cycle = invocation.getArgument(1);
+            return claimed.add(cycle)
+                    ? Optional.of(new Lease(cycle, "sber-metal", cycle, 0, List.of("GOLD"), 1))
+                    : Optional.empty();
+        });
+        MockEnvironment environment = environment()
+                .withProperty("agent.schedule.defaults.adaptive.enabled", "true")
+                .withProperty("agent.schedule.defaults.adaptive.max-interval", "PT0.2S")
+                .withProperty("agent.schedule.defaults.adaptive.backoff", "1.5");
+        updater = new ScheduledPriceUpdater(new AgentRegistry(List.of(agent), environment),
+                mock(PriceService.class), new ScrapeTimer(new SimpleMeterRegistry()), PageFingerprints.disabled(),
+                scrapeQueue, 1, Duration.ofSeconds(1));
+
+        updater.start();
+
+        verify(scrapeQueue, timeout(5000).atLeast(4)).enqueue(eq("sber-metal"), anyLong(), anyList());
+        assertThat(status("sber-metal").interval()).isGreaterThan(Duration.ofMillis(50));
+        verify(scrapeQueue, atLeast(4)).enqueue(eq("sber-metal"), longThat(cycle -> cycle % 50 == 0), anyList());
+        verify(scrapeQueue, never()).enqueue(eq("sber-metal"), longThat(cycle -> cycle % 50 != 0), anyList());
+    }
+
+    @Test
+    @DisplayName("Агент собирает только инструменты своей партии и закрывает аренду")
+    void shouldScrapeOnlyLeasedBatch() throws InterruptedException {
+        CountDownLatch runs = new CountDownLatch(1);
+        Agent agent = agent(TypePrice.METAL);
+        when(agent.getBatches()).thenReturn(List.of(List.of("GOLD"), List.of("SILVER")));
+        when(agent.getPrices(any(ScrapeContext.class))).thenAnswer(invocation -> {
+            ScrapeContext context = invocation.getArgument(0);
+            if (context.includes("GOLD") && !context.includes("SILVER")) {
+                context.collect("GOLD", GOLD);
+            }
+            runs.countDown();
+            return context.getCollected();
+        });
+        Lease lease = new Lease(1, "sber-metal", 0, 0, List.of("GOLD"), 1);
+        ScrapeQueue scrapeQueue = mock(ScrapeQueue.class);
+        when(scrapeQueue.isEnabled()).thenReturn(true);
+        when(scrapeQueue.claim(anyString(), anyLong())).thenReturn(Optional.of(lease)).thenReturn(Optional.empty());
+        PriceService priceService = mock(PriceService.class);
+        when(priceService.savePrices(any(TypePrice.class), anyPrices())).thenReturn(SaveResult.empty());
+        updater = new ScheduledPriceUpdater(registry(agent), priceService,
+                new ScrapeTimer(new SimpleMeterRegistry()), PageFingerprints.disabled(), scrapeQueue,
+                1, Duration.ofSeconds(1));
+
+        updater.start();
+
+        assertThat(runs.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(scrapeQueue, timeout(5000)).complete(lease, true);
+        verify(scrapeQueue, atLeastOnce()).enqueue(eq("sber-metal"), anyLong(),
+                eq(List.of(List.of("GOLD"), List.of("SILVER"))));
+        verify(priceService).savePrices(TypePrice.METAL, Map.of("GOLD", GOLD));
+    }
+
+    private static Map<String, Price> anyPrices() {
+        return ArgumentMatchers.<String, Price>anyMap();
+    }
+
+    private ScrapeJobStatus status(String agent) {
+        return updater.getStatuses().stream()
+                .filter(status -> status.agent().equals(agent))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private AgentRegistry registry(Agent... agents) {
+        return new AgentRegistry(List.of(agents), environment());
+    }
+
+    private static MockEnvironment environment() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("agent.schedule.defaults.interval", "PT0.05S")
+                .withProperty("agent.schedule.defaults.timeout", "PT10S");
+        environment.setConversionService(new ApplicationConversionService());
+        return environment;
+    }
+
+    private Agent agent(TypePrice typePrice) {
+        Agent agent = mock(Agent.class);
+        when(agent.getBank()).thenReturn(Banks.SBER);
+        when(agent.getTypePrice()).thenReturn(typePrice);
+        when(agent.getKey()).thenCallRealMethod();
+        when(agent.isScheduled()).thenReturn(true);
+        when(agent.getName()).thenReturn("agent " + typePrice.getValue());
+        return agent;
+    }
+}
@@ -6,19 +6,28 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 import prices.agent.Agent;
-import prices.model.CurrencyPrice;
+import prices.model.LatestPrice;
 import prices.model.MetalPrice;
 import prices.repository.CurrencyPriceRepository;
+import prices.repository.LatestPriceRepository;
 import prices.repository.MetalPriceRepository;
+import prices.repository.PriceHistoryWriter;
+import prices.service.LatestPriceCache;
 import prices.service.PriceService;
+import prices.service.SaveResult;
 import shared.dto.Price;
 import shared.enums.Banks;
 import shared.enums.TypePrice;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,6 +43,12 @@ class PriceServiceTest {
     @Mock
     private CurrencyPriceRepository currencyRepository;
 
+    @Mock
+    private LatestPriceRepository latestRepository;
+
+    @Mock
+    private PriceHistoryWriter historyWriter;
+
     @Mock
     private Agent agent;
 
@@ -41,7 +56,8 @@ class PriceServiceTest {
 
     @BeforeEach
     void setUp() {
-        priceService = new PriceService(metalRepository, currencyRepository);
+        priceService = new PriceService(metalRepository, currencyRepository, latestRepository, historyWriter,
+                new LatestPriceCache(false));
     }
 
     @Test
@@ -54,11 +70,11 @@ class PriceServiceTest {
                 new BigDecimal("5100.00")
         );
         when(agent.getPrices()).thenReturn(Map.of("GOLD", newPrice));
-        when(metalRepository.findLatestByName("GOLD")).thenReturn(Optional.empty());
 
-        priceService.updatePrices(TypePrice.METAL, agent);
+        SaveResult result = priceService.updatePrices(TypePrice.METAL, agent);
 
-        verify(metalRepository).save(any(MetalPrice.class));
+        verify(historyWriter).insertAll(TypePrice.METAL, List.of(newPrice));
+        assertThat(result.changed()).containsExactly("GOLD");
     }
 
     @Test
@@ -72,13 +88,14 @@ class PriceServiceTest {
         );
 
         when(agent.getPrices()).thenReturn(Map.of("GOLD", samePrice));
-        when(metalRepository.findLatestByName("GOLD")).thenReturn(Optional.of(
+        when(metalRepository.findLatestUniqueByName()).thenReturn(List.of(
                 new MetalPrice("GOLD", new BigDecimal("5000.00"), new BigDecimal("5100.00"), Banks.SBER.name())
         ));
 
-        priceService.updatePrices(TypePrice.METAL, agent);
+        SaveResult result = priceService.updatePrices(TypePrice.METAL, agent);
 
-        verify(metalRepository, never()).save(any());
+        verify(historyWriter, never()).insertAll(any(), anyCollection());
+        assertThat(result.unchanged()).containsExactly("GOLD");
     }
 
     @Test
@@ -91,11 +108,91 @@ class PriceServiceTest {
                 new BigDecimal("92.00")
         );
         when(agent.getPrices()).thenReturn(Map.of("USD", newPrice));
-        when(currencyRepository.findLatestByName("USD")).thenReturn(Optional.empty());
 
         priceService.updatePrices(TypePrice.CURRENCY, agent);
 
-        verify(currencyRepository).save(any(CurrencyPrice.class));
+        verify(historyWriter).insertAll(TypePrice.CURRENCY, List.of(newPrice));
+    }
+
+    @Test
+    @DisplayName("Дедупликация идёт по кэшу без запросов к истории")
+    void shouldDedupeFromCacheWithoutQueries() {
+        Map<String, Price> prices = Map.of(
+                "USD", Price.createWithCurrentTime(Banks.SBER, "USD",
+                        new BigDecimal("90.00"), new BigDecimal("92.00")),
+                "EUR", Price.createWithCurrentTime(Banks.SBER, "EUR",
+                        new BigDecimal("98.00"), new BigDecimal("99.50")));
+
+        priceService.savePrices(TypePrice.CURRENCY, prices);
+        SaveResult repeated = priceService.savePrices(TypePrice.CURRENCY, prices);
+
+        verify(currencyRepository, times(1)).findLatestUniqueByName();
+        verify(currencyRepository, never()).findLatestByName(anyString());
+        verify(historyWriter, times(1)).insertAll(eq(TypePrice.CURRENCY), anyCollection());
+        assertThat(repeated.unchanged()).containsExactlyInAnyOrder("USD", "EUR");
+    }
+
+    @Test
+    @DisplayName("Сбой пакетной вставки не обновляет кэш")
+    void shouldKeepCacheWhenBatchInsertFails() {
+        Map<String, Price> prices = Map.of("GOLD",
+                Price.createWithCurrentTime(Banks.SBER, "GOLD", new BigDecimal("5000.00"), new BigDecimal("5100.00")));
+        doThrow(new IllegalStateException("connection reset")).doNothing()
+                .when(historyWriter).insertAll(eq(TypePrice.METAL), anyCollection());
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        PriceService transactional = transactional(transactionManager);
+
+        SaveResult failed = transactional.savePrices(TypePrice.METAL, prices);
+        SaveResult retried = transactional.savePrices(TypePrice.METAL, prices);
+
+        assertThat(failed.failed()).isEqualTo(1);
+        assertThat(failed.changed()).isEmpty();
+        assertThat(retried.changed()).containsExactly("GOLD");
+    }
+
+    @Test
+    @DisplayName("Сбой пакетной вставки откатывает транзакцию")
+    void shouldRollbackWhenBatchInsertFails() {
+        Map<String, Price> prices = Map.of("GOLD",
+                Price.createWithCurrentTime(Banks.SBER, "GOLD", new BigDecimal("5000.00"), new BigDecimal("5100.00")));
+        doThrow(new IllegalStateException("connection reset"))
+                .when(historyWriter).insertAll(eq(TypePrice.METAL), anyCollection());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        SaveResult result = transactional(transactionManager).savePrices(TypePrice.METAL, prices);
+
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(status.isRollbackOnly()).isTrue();
+        verify(transactionManager).commit(status);
+    }
+
+    @Test
+    @DisplayName("Пустая таблица последних цен заполняется из истории")
+    void shouldBackfillLatestPricesFromHistory() {
+        when(metalRepository.findLatestUniqueByName()).thenReturn(List.of(
+                new MetalPrice("GOLD", new BigDecimal("5000.00"), new BigDecimal("5100.00"), Banks.SBER.name(), 1L)));
+
+        priceService.warmUp();
+
+        verify(historyWriter).upsertLatest(TypePrice.METAL, List.of(Price.createWithTimestamp(Banks.SBER, "GOLD",
+                new BigDecimal("5000.00"), new BigDecimal("5100.00"), 1L)));
+    }
+
+    @Test
+    @DisplayName("Кэш прогревается из таблицы последних цен без запросов к истории")
+    void shouldWarmFromLatestPrices() {
+        when(latestRepository.findByType(TypePrice.METAL.name())).thenReturn(List.of(new LatestPrice(
+                Banks.SBER.name(), TypePrice.METAL, "GOLD", new BigDecimal("5000.00"), new BigDecimal("5100.00"), 1L)));
+
+        SaveResult result = priceService.savePrices(TypePrice.METAL, Map.of("GOLD", Price.createWithCurrentTime(
+                Banks.SBER, "GOLD", new BigDecimal("5000.00"), new BigDecimal("5100.00"))));
+
+        verify(metalRepository, never()).findLatestUniqueByName();
+        assertThat(result.unchanged()).containsExactly("GOLD");
     }
 
     @Test
@@ -104,4 +201,11 @@ class PriceServiceTest {
         assertThatThrownBy(() -> priceService.updatePrices(TypePrice.METAL, null))
                 .isInstanceOf(NullPointerException.class);
     }
-}
\ No newline at end of file
+
+    private PriceService transactional(PlatformTransactionManager transactionManager) {
+        ProxyFactory factory = new ProxyFactory(priceService);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        return (PriceService) factory.getProxy();
+    }
+}
@@ -0,0 +1,142 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import prices.model.ScrapeLease;
+import prices.model.ScrapeLease.Status;
+import prices.repository.ScrapeLeaseRepository;
+import prices.service.ScrapeQueue;
+import prices.service.ScrapeQueue.Lease;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = ScrapeQueueLeasesTest.Replicas.class)
+@DisplayName("ScrapeQueue на Postgres тесты")
+class ScrapeQueueLeasesTest {
+
+    private static final String AGENT = "sber-metal";
+    private static final Duration LEASE = Duration.ofMillis(500);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    @Qualifier("first")
+    private ScrapeQueue first;
+
+    @Autowired
+    @Qualifier("second")
+    private ScrapeQueue second;
+
+    @Autowired
+    private ScrapeLeaseRepository repository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Test
+    @DisplayName("Из двух одновременных реплик партию получает ровно одна")
+    void shouldGiveBatchToSingleClaimer() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (long cycle = 1; cycle <= 20; cycle++) {
+                first.enqueue(AGENT, cycle, List.of(List.of("GOLD")));
+                second.enqueue(AGENT, cycle, List.of(List.of("GOLD")));
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                long claimed = cycle;
+                Future<Optional<Lease>> a = executor.submit(() -> {
+                    barrier.await(5, TimeUnit.SECONDS);
+                    return first.claim(AGENT, claimed);
+                });
+                Future<Optional<Lease>> b = executor.submit(() -> {
+                    barrier.await(5, TimeUnit.SECONDS);
+                    return second.claim(AGENT, claimed);
+                });
+
+                assertThat(List.of(a.get(10, TimeUnit.SECONDS), b.get(10, TimeUnit.SECONDS)))
+                        .filteredOn(Optional::isPresent)
+                        .hasSize(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Просроченная аренда переходит к другой реплике")
+    void shouldReassignExpiredLease() throws InterruptedException {
+        first.enqueue(AGENT, 100, List.of(List.of("GOLD", "SILVER")));
+        Lease stale = first.claim(AGENT, 100).orElseThrow();
+
+        assertThat(second.claim(AGENT, 100)).isEmpty();
+
+        Thread.sleep(LEASE.multipliedBy(2).toMillis());
+        Lease taken = second.claim(AGENT, 100).orElseThrow();
+
+        assertThat(taken.id()).isEqualTo(stale.id());
+        assertThat(taken.instruments()).containsExactly("GOLD", "SILVER");
+        assertThat(taken.attempts()).isEqualTo(2);
+        first.complete(stale, true);
+        assertThat(row(taken).getStatus()).isEqualTo(Status.RUNNING);
+        assertThat(row(taken).getLeaseOwner()).isEqualTo("replica-b");
+        second.complete(taken, true);
+        assertThat(row(taken).getStatus()).isEqualTo(Status.DONE);
+    }
+
+    private ScrapeLease row(Lease lease) {
+        return repository.findById(lease.id()).orElseThrow();
+    }
+
+    @Configuration
+    @EntityScan(basePackageClasses = ScrapeLease.class)
+    @EnableJpaRepositories(basePackageClasses = ScrapeLeaseRepository.class,
+            includeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ScrapeLeaseRepository.class))
+    static class Replicas {
+
+        @Bean
+        ScrapeQueue first(ScrapeLeaseRepository repository) {
+            return replica(repository, "replica-a");
+        }
+
+        @Bean
+        ScrapeQueue second(ScrapeLeaseRepository repository) {
+            return replica(repository, "replica-b");
+        }
+
+        private static ScrapeQueue replica(ScrapeLeaseRepository repository, String owner) {
+            return new ScrapeQueue(repository, new SimpleMeterRegistry(), true, LEASE, 3, Duration.ofDays(1), owner);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import prices.model.ScrapeLease;
+import prices.model.ScrapeLease.Status;
+import prices.repository.ScrapeLeaseRepository;
+import prices.service.ScrapeQueue;
+import prices.service.ScrapeQueue.Lease;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScrapeQueue тесты")
+class ScrapeQueueTest {
+
+    @Mock
+    private ScrapeLeaseRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScrapeQueue scrapeQueue;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scrapeQueue = new ScrapeQueue(repository, meterRegistry, true, Duration.ofMinutes(1), 2,
+                Duration.ofDays(1), "replica-1");
+    }
+
+    @Test
+    @DisplayName("Каждая партия цикла ставится в очередь")
+    void shouldEnqueueEveryBatch() {
+        scrapeQueue.enqueue("sber-currency", 7, List.of(List.of("USD", "EUR"), List.of("CNY")));
+
+        verify(repository).enqueue(eq("sber-currency"), eq(7L), eq(0), eq("USD,EUR"), anyLong());
+        verify(repository).enqueue(eq("sber-currency"), eq(7L), eq(1), eq("CNY"), anyLong());
+    }
+
+    @Test
+    @DisplayName("Захват партии выдаёт аренду текущей реплике")
+    void shouldClaimBatch() {
+        ScrapeLease row = row("sber-currency", 7, 1, "CNY", 0);
+        when(repository.findClaimable(eq("sber-currency"), eq(7L), eq(2), anyLong())).thenReturn(Optional.of(row));
+
+        Lease lease = scrapeQueue.claim("sber-currency", 7).orElseThrow();
+
+        assertThat(lease.batch()).isEqualTo(1);
+        assertThat(lease.instruments()).containsExactly("CNY");
+        assertThat(lease.attempts()).isEqualTo(1);
+        assertThat(row.getStatus()).isEqualTo(Status.RUNNING);
+        assertThat(row.getLeaseOwner()).isEqualTo("replica-1");
+        assertThat(row.getLeaseUntil()).isGreaterThan(row.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Просроченная аренда упавшей реплики переназначается")
+    void shouldReassignExpiredLease() {
+        ScrapeLease row = row("sber-metal", 7, 0, "", 0);
+        row.claim("replica-2", 1, 0);
+        when(repository.findClaimable(anyString(), anyLong(), anyInt(), anyLong())).thenReturn(Optional.of(row));
+
+        Lease lease = scrapeQueue.claim("sber-metal", 7).orElseThrow();
+
+        assertThat(lease.instruments()).isEmpty();
+        assertThat(lease.attempts()).isEqualTo(2);
+        assertThat(row.getLeaseOwner()).isEqualTo("replica-1");
+        assertThat(meterRegistry.get("agent.queue.lease").tags("event", "reassigned").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Сбой возвращает партию в очередь, пока не исчерпаны попытки")
+    void shouldRetryFailedBatchUntilAttemptsExhausted() {
+        when(repository.settle(anyLong(), anyString(), any(), any(), anyInt(), anyLong())).thenReturn(1);
+
+        scrapeQueue.complete(new Lease(1, "sber-metal", 7, 0, List.of(), 1), false);
+        scrapeQueue.complete(new Lease(2, "sber-metal", 7, 1, List.of(), 2), false);
+
+        verify(repository).settle(eq(1L), eq("replica-1"), eq(Status.RUNNING), eq(Status.PENDING), eq(1), anyLong());
+        verify(repository).settle(eq(2L), eq("replica-1"), eq(Status.RUNNING), eq(Status.FAILED), eq(2), anyLong());
+    }
+
+    @Test
+    @DisplayName("Пульс продлевает аренду и забывает перехваченную")
+    void shouldExtendHeldLeases() {
+        ScrapeLease row = row("sber-metal", 7, 0, "", 0);
+        when(repository.findClaimable(anyString(), anyLong(), anyInt(), anyLong())).thenReturn(Optional.of(row));
+        scrapeQueue.claim("sber-metal", 7);
+        when(repository.extend(anyLong(), eq("replica-1"), eq(Status.RUNNING), anyLong(), anyLong()))
+                .thenReturn(1, 0);
+
+        scrapeQueue.heartbeat();
+        scrapeQueue.heartbeat();
+        scrapeQueue.heartbeat();
+
+        verify(repository, times(2)).extend(anyLong(), anyString(), any(), anyLong(), anyLong());
+        assertThat(meterRegistry.get("agent.queue.lease").tags("event", "lost").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Выключенная очередь ничего не выдаёт")
+    void shouldNotClaimWhenDisabled() {
+        assertThat(ScrapeQueue.disabled().claim("sber-metal", 7)).isEmpty();
+    }
+
+    private static ScrapeLease row(String agentKey, long cycle, int batch, String instruments, long updatedAt) {
+        ScrapeLease row = spy(new ScrapeLease(agentKey, cycle, batch, instruments, updatedAt));
+        doReturn(5L).when(row).getId();
+        return row;
+    }
+}
@@ -0,0 +1,31 @@
+package shared.dto;
+
+import shared.enums.Banks;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+public record Candle(Banks bank, String name, long start, long end,
+                     BigDecimal buyOpen, BigDecimal buyHigh, BigDecimal buyLow, BigDecimal buyClose,
+                     BigDecimal sellOpen, BigDecimal sellHigh, BigDecimal sellLow, BigDecimal sellClose,
+                     int samples) {
+
+    public Candle {
+        Objects.requireNonNull(bank, "Bank cannot be null");
+        Objects.requireNonNull(name, "Name cannot be null");
+        Objects.requireNonNull(buyOpen, "Buy open cannot be null");
+        Objects.requireNonNull(buyHigh, "Buy high cannot be null");
+        Objects.requireNonNull(buyLow, "Buy low cannot be null");
+        Objects.requireNonNull(buyClose, "Buy close cannot be null");
+        Objects.requireNonNull(sellOpen, "Sell open cannot be null");
+        Objects.requireNonNull(sellHigh, "Sell high cannot be null");
+        Objects.requireNonNull(sellLow, "Sell low cannot be null");
+        Objects.requireNonNull(sellClose, "Sell close cannot be null");
+        if (end <= start) {
+            throw new IllegalArgumentException("Candle end must be after its start");
+        }
+        if (samples <= 0) {
+            throw new IllegalArgumentException("Samples must be positive");
+        }
+    }
+}